@@ -0,0 +1,26 @@
+package org.beanplanet.restclient;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A small JSON document, representative of a typical REST resource, used as the request and response body of the
+ * benchmarks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchmarkPayload {
+    private long id;
+    private String name;
+    private boolean active;
+    private List<String> tags;
+    private double score;
+
+    static BenchmarkPayload sample() {
+        return new BenchmarkPayload(42, "benchmark", true, List.of("alpha", "beta", "gamma"), 98.6);
+    }
+}
@@ -0,0 +1,26 @@
+package org.beanplanet.restclient;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always enabled, so that every run reports the allocation rate per
+ * operation (<code>gc.alloc.rate.norm</code>) alongside throughput. Accepts the standard JMH command line options,
+ * for example:
+ *
+ * <pre>
+ * java -jar restclient-benchmarks/target/benchmarks.jar RequestTemplateBenchmark -f 1
+ * </pre>
+ */
+public class BenchmarkRunner {
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                                       .addProfiler(GCProfiler.class)
+                                       .build())
+                .run();
+    }
+}
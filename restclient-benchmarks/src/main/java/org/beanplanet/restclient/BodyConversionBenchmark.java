@@ -0,0 +1,74 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverter;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverterRegistry;
+import org.beanplanet.core.net.http.converter.SystemHttpMessageBodyConverterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures body conversion through the {@link HttpMessageBodyConverterRegistry}, both with a registry search per
+ * conversion and with converter lookups served from the {@link HttpMessageBodyConverterCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyConversionBenchmark {
+    private HttpMessageBodyConverterRegistry registry;
+    private HttpMessageBodyConverterCache converterCache;
+    private BenchmarkPayload payload;
+    private HttpRequest jsonRequest;
+    private HttpResponse jsonResponse;
+
+    @Setup
+    public void setUp() {
+        registry = SystemHttpMessageBodyConverterRegistry.getInstance();
+        converterCache = new HttpMessageBodyConverterCache(registry);
+        payload = BenchmarkPayload.sample();
+        jsonRequest = HttpRequest.builder().method("POST").contentType(MediaTypes.Application.JSON).build();
+        jsonResponse = HttpResponse.builder()
+                                   .statusCode(200)
+                                   .header("Content-Type", MediaTypes.Application.JSON.getCanonicalForm())
+                                   .body(new ByteArrayResource(LoopbackHttpServer.JSON_BODY))
+                                   .build();
+    }
+
+    @Benchmark
+    public Resource toBodyFromRegistry() {
+        HttpMessageBodyConverter<BenchmarkPayload> converter = registry.findFromConverters(MediaTypes.Application.JSON, BenchmarkPayload.class)
+                                                                       .findFirst()
+                                                                       .orElseThrow();
+        return converter.convertTo(payload, jsonRequest);
+    }
+
+    @Benchmark
+    public Resource toBodyFromCache() {
+        return converterCache.findConverter(MediaTypes.Application.JSON, BenchmarkPayload.class)
+                             .orElseThrow()
+                             .convertTo(payload, jsonRequest);
+    }
+
+    @Benchmark
+    public BenchmarkPayload fromBodyFromRegistry() {
+        return registry.findFromConverters(MediaTypes.Application.JSON, BenchmarkPayload.class)
+                       .findFirst()
+                       .orElseThrow()
+                       .convertFrom(BenchmarkPayload.class, jsonResponse);
+    }
+
+    @Benchmark
+    public BenchmarkPayload fromBodyFromCache() {
+        return converterCache.findConverter(MediaTypes.Application.JSON, BenchmarkPayload.class)
+                             .orElseThrow()
+                             .convertFrom(BenchmarkPayload.class, jsonResponse);
+    }
+}
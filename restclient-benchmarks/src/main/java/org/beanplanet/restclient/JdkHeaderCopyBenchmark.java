@@ -0,0 +1,57 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the translation of requests and their headers to JDK {@link java.net.http.HttpRequest}s by the
+ * {@link JdkHttpClientImplementation}, and the round trip of a response with many headers back from the JDK client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdkHeaderCopyBenchmark {
+    @Param({"2", "20"})
+    private int headerCount;
+
+    private LoopbackHttpServer server;
+    private JdkHttpClientImplementation httpImplementation;
+    private HttpRequest request;
+    private HttpRequest headersRequest;
+
+    @Setup
+    public void setUp() {
+        server = LoopbackHttpServer.start();
+        httpImplementation = new JdkHttpClientImplementation();
+
+        HttpRequest.HttpRequestBuilder<?, ?> requestBuilder = HttpRequest.builder()
+                                                                         .method("GET")
+                                                                         .uri(URI.create("http://localhost:8080/resources/42"));
+        for (int n = 0; n < headerCount; n++) {
+            requestBuilder.header("X-Benchmark-Header-" + n, "value-" + n);
+        }
+        request = requestBuilder.build();
+        headersRequest = HttpRequest.builder().method("GET").uri(server.uri("/headers")).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public java.net.http.HttpRequest requestHeaders() {
+        return httpImplementation.toJdkRequest(request);
+    }
+
+    @Benchmark
+    public Object responseHeaders() {
+        return httpImplementation.execute(headersRequest).getHeaders();
+    }
+}
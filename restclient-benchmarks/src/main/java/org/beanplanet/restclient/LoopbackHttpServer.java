@@ -0,0 +1,98 @@
+package org.beanplanet.restclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A minimal in-process HTTP server, bound to the loopback interface on an ephemeral port, against which the
+ * benchmarks execute requests. Keeping the server in-process removes any dependency on Docker or the network, so
+ * measurements reflect the client pipeline rather than a remote peer.
+ *
+ * <ul>
+ *     <li><code>/json</code> - responds with a small, fixed JSON document.</li>
+ *     <li><code>/echo</code> - responds with the request body and content type.</li>
+ *     <li><code>/headers</code> - responds with an empty body and twenty response headers.</li>
+ * </ul>
+ */
+final class LoopbackHttpServer implements AutoCloseable {
+    static final byte[] JSON_BODY = ("{\"id\":42,\"name\":\"benchmark\",\"active\":true,"
+                                     + "\"tags\":[\"alpha\",\"beta\",\"gamma\"],\"score\":98.6}").getBytes(StandardCharsets.UTF_8);
+    static final int RESPONSE_HEADER_COUNT = 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private LoopbackHttpServer(final HttpServer server, final ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a new loopback server on an ephemeral port.
+     *
+     * @return the started server.
+     */
+    static LoopbackHttpServer start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            server.setExecutor(executor);
+
+            server.createContext("/json", exchange -> respond(exchange, "application/json", JSON_BODY));
+            server.createContext("/echo", exchange -> {
+                byte[] body;
+                try (InputStream is = exchange.getRequestBody()) {
+                    body = is.readAllBytes();
+                }
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                respond(exchange, contentType != null ? contentType : "application/octet-stream", body);
+            });
+            server.createContext("/headers", exchange -> {
+                for (int n = 0; n < RESPONSE_HEADER_COUNT; n++) {
+                    exchange.getResponseHeaders().add("X-Benchmark-Header-" + n, "value-" + n);
+                }
+                respond(exchange, "text/plain", new byte[0]);
+            });
+
+            server.start();
+            return new LoopbackHttpServer(server, executor);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("Unable to start loopback HTTP server", ioEx);
+        }
+    }
+
+    /**
+     * Returns the URI of the given path on this server.
+     *
+     * @param path the absolute path of the resource.
+     * @return the URI of the resource.
+     */
+    URI uri(final String path) {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(final HttpExchange exchange, final String contentType, final byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
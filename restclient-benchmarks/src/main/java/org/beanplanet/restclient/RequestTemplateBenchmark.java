@@ -0,0 +1,76 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of layering a request over a request prototype, compared with a client configured without one.
+ * The allocation per request is the figure of interest, so run with the GC profiler, which {@link BenchmarkRunner}
+ * enables, or <code>-prof gc</code>:
+ *
+ * <pre>
+ * java -jar restclient-benchmarks/target/benchmarks.jar RequestTemplateBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestTemplateBenchmark {
+    private static final URI REQUEST_URI = URI.create("/resources/42");
+
+    private static final Resource REQUEST_BODY = new ByteArrayResource("{\"id\":42}".getBytes(StandardCharsets.UTF_8));
+
+    private RequestTemplate template;
+    private RequestTemplate emptyTemplate;
+
+    @Setup
+    public void setUp() {
+        HttpRequest prototype = HttpRequest.builder()
+                                           .uri(URI.create("http://localhost:8080/api"))
+                                           .header("Accept", "application/json")
+                                           .header("X-Client-Id", "benchmark")
+                                           .header("X-Tenant", "tenant-1")
+                                           .header("X-Trace-Enabled", "false")
+                                           .build();
+        template = RequestTemplate.compile(prototype);
+        emptyTemplate = RequestTemplate.compile(null);
+    }
+
+    @Benchmark
+    public HttpRequest buildWithoutPrototype() {
+        return emptyTemplate.apply(HttpRequest.builder().method("GET").uri(REQUEST_URI).build());
+    }
+
+    @Benchmark
+    public HttpRequest buildWithPrototype() {
+        return template.apply(HttpRequest.builder().method("GET").uri(REQUEST_URI).build());
+    }
+
+    @Benchmark
+    public HttpRequest buildWithPrototypeAndHeaders() {
+        return template.apply(HttpRequest.builder()
+                                         .method("GET")
+                                         .uri(REQUEST_URI)
+                                         .header("X-Request-Id", "1234")
+                                         .build());
+    }
+
+    @Benchmark
+    public HttpRequest buildWithPrototypeAndBody() {
+        return template.apply(HttpRequest.builder()
+                                         .method("POST")
+                                         .uri(REQUEST_URI)
+                                         .contentType("application/json")
+                                         .body(REQUEST_BODY)
+                                         .build());
+    }
+}
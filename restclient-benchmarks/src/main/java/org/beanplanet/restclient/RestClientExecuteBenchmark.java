@@ -0,0 +1,76 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.MediaTypes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full {@link RestClient.RequestBuilder#execute()} pipeline - request building, prototype merging, body
+ * conversion, the JDK HTTP exchange and response conversion - against an in-process loopback server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestClientExecuteBenchmark {
+    private LoopbackHttpServer server;
+    private RestClient client;
+    private RestClient prototypeClient;
+    private BenchmarkPayload payload;
+    private String jsonUrl;
+    private String echoUrl;
+
+    @Setup
+    public void setUp() {
+        server = LoopbackHttpServer.start();
+        client = RestClient.builder().build();
+        prototypeClient = RestClient.builder()
+                                    .requestPrototype(r -> r.uri(server.uri("/"))
+                                                            .header("Accept", "application/json")
+                                                            .header("X-Client-Id", "benchmark")
+                                                            .header("X-Tenant", "tenant-1")
+                                                            .header("X-Trace-Enabled", "false"))
+                                    .build();
+        payload = BenchmarkPayload.sample();
+        jsonUrl = server.uri("/json").toString();
+        echoUrl = server.uri("/echo").toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public String getString() {
+        return client.get(jsonUrl)
+                     .execute()
+                     .body(String.class);
+    }
+
+    @Benchmark
+    public BenchmarkPayload getJson() {
+        return client.get(jsonUrl)
+                     .execute()
+                     .body(BenchmarkPayload.class);
+    }
+
+    @Benchmark
+    public BenchmarkPayload getJsonWithPrototype() {
+        return prototypeClient.uri("/json")
+                              .execute()
+                              .body(BenchmarkPayload.class);
+    }
+
+    @Benchmark
+    public BenchmarkPayload postJson() {
+        return client.post(echoUrl)
+                     .contentType(MediaTypes.Application.JSON)
+                     .body(payload)
+                     .execute()
+                     .body(BenchmarkPayload.class);
+    }
+}
@@ -0,0 +1,258 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The execution of a batch of requests by {@link RestClient#executeAll(Iterable, int, int)}, iterating over the
+ * results in the order the requests complete.
+ *
+ * <p>Nothing runs in the background beyond the asynchronous exchanges themselves: requests are read from the source,
+ * built and dispatched on the consuming thread, each time a result is asked for. At most the maximum concurrency of
+ * requests are outstanding, in flight or completed but not yet consumed, so a consumer which falls behind holds back
+ * dispatch, and memory is bounded by the concurrency rather than by the size of the batch.</p>
+ *
+ * <p>Requests are queued by origin as they are read. Queues are served in rotation, and an origin at its per-host
+ * limit is passed over for the next; when all are at their limits, requests are read ahead, up to four times the
+ * maximum concurrency, to find one for another origin. A run of requests to one slow host therefore neither
+ * monopolises the batch nor holds up requests to the others.</p>
+ *
+ * <p>An execution is single-threaded, like any iterator, and should be closed if abandoned before it is exhausted,
+ * which cancels the requests still in flight.</p>
+ */
+public final class BatchExecution implements Iterator<BatchExecution.Result>, AutoCloseable {
+    /** The number of requests, as a multiple of the maximum concurrency, which may be read ahead of dispatch. */
+    private static final int LOOKAHEAD_FACTOR = 4;
+
+    private final Iterator<? extends RestClient.RequestBuilder> requests;
+    private final int maximumConcurrency;
+    private final int maximumConcurrencyPerHost;
+    private final Runnable onClose;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private final ArrayDeque<HostQueue> rotation = new ArrayDeque<>();
+    private final LinkedBlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private long readCount;
+    private int pendingCount;
+    private int outstandingCount;
+    private boolean closed;
+
+    BatchExecution(final Iterator<? extends RestClient.RequestBuilder> requests, final int maximumConcurrency, final int maximumConcurrencyPerHost, final Runnable onClose) {
+        if (maximumConcurrency < 1) throw new IllegalArgumentException("The maximum concurrency must be at least one");
+        if (maximumConcurrencyPerHost < 1) throw new IllegalArgumentException("The maximum concurrency per host must be at least one");
+
+        this.requests = requests;
+        this.maximumConcurrency = maximumConcurrency;
+        this.maximumConcurrencyPerHost = maximumConcurrencyPerHost;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Whether any result remains to be consumed.
+     *
+     * @return true if a request is still to be executed, or its result consumed.
+     */
+    @Override
+    public boolean hasNext() {
+        return !closed && (outstandingCount > 0 || pendingCount > 0 || requests.hasNext());
+    }
+
+    /**
+     * Returns the result of the next request to complete, dispatching further requests first, as far as the
+     * concurrency limits allow, and waiting if none has completed yet.
+     *
+     * @return the result of the next request to complete.
+     * @throws NoSuchElementException if there are no more results.
+     * @throws RestClientException if interrupted while waiting.
+     */
+    @Override
+    public Result next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        dispatch();
+        Result result = completed.poll();
+        if (result == null) {
+            try {
+                result = completed.take();
+            } catch (InterruptedException intEx) {
+                Thread.currentThread().interrupt();
+                throw new RestClientException("Interrupted waiting for the result of a batched request", intEx);
+            }
+        }
+        outstandingCount--;
+        return result;
+    }
+
+    /**
+     * Returns the results as a sequential stream which closes this execution when it is closed.
+     *
+     * @return a stream of the results, in the order the requests complete.
+     */
+    public Stream<Result> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Stops the execution, cancelling the requests still in flight and closing the source of the requests.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        closed = true;
+        try {
+            inFlight.forEach(exchange -> exchange.cancel(true));
+        } finally {
+            onClose.run();
+        }
+    }
+
+    /**
+     * Dispatches requests, in rotation by origin, until the concurrency limit is reached. When every origin with
+     * queued requests is at its per-host limit, further requests are read ahead, up to the lookahead limit, in search
+     * of one to another origin.
+     */
+    private void dispatch() {
+        while (outstandingCount < maximumConcurrency) {
+            if (dispatchNext()) continue;
+            if (pendingCount >= maximumConcurrency * LOOKAHEAD_FACTOR || !readNext()) return;
+        }
+    }
+
+    /**
+     * Dispatches a request from the next origin in rotation which is below its per-host limit, if any.
+     */
+    private boolean dispatchNext() {
+        for (int remaining = rotation.size(); remaining > 0; remaining--) {
+            final HostQueue host = rotation.poll();
+            if (host.inFlight.get() < maximumConcurrencyPerHost) {
+                dispatch(host, host.pending.poll());
+                if (host.pending.isEmpty()) {
+                    host.inRotation = false;
+                } else {
+                    rotation.add(host);
+                }
+                return true;
+            }
+            rotation.add(host);
+        }
+        return false;
+    }
+
+    /**
+     * Reads and builds the next request of the batch, queueing it by origin.
+     */
+    private boolean readNext() {
+        if (!requests.hasNext()) return false;
+
+        final long index = readCount++;
+        final RestClient.RequestBuilder requestBuilder = requests.next();
+
+        final HttpRequest request;
+        try {
+            request = requestBuilder.prepare();
+        } catch (RuntimeException buildEx) {
+            // A request which cannot be built completes at once, taking its place in the window like any other
+            outstandingCount++;
+            completed.add(new Result(index, requestBuilder, null, buildEx));
+            return true;
+        }
+
+        final String origin = ConnectionLimiter.originOf(request.getUri());
+        final HostQueue host = hosts.computeIfAbsent(origin, key -> new HostQueue());
+        host.pending.add(new PendingRequest(index, requestBuilder, request));
+        pendingCount++;
+        if (!host.inRotation) {
+            host.inRotation = true;
+            rotation.add(host);
+        }
+        return true;
+    }
+
+    private void dispatch(final HostQueue host, final PendingRequest pending) {
+        pendingCount--;
+        outstandingCount++;
+        host.inFlight.incrementAndGet();
+
+        CompletableFuture<RestClient.RequestBuilder.ExecutedRequest> exchange;
+        try {
+            exchange = pending.requestBuilder.executeAsync(pending.request);
+        } catch (RuntimeException executionEx) {
+            exchange = CompletableFuture.failedFuture(executionEx);
+        }
+
+        inFlight.add(exchange);
+        final CompletableFuture<RestClient.RequestBuilder.ExecutedRequest> dispatched = exchange;
+        dispatched.whenComplete((executed, failure) -> {
+            inFlight.remove(dispatched);
+            host.inFlight.decrementAndGet();
+            completed.add(new Result(pending.index, pending.requestBuilder, executed, unwrap(failure)));
+        });
+    }
+
+    private static Throwable unwrap(final Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * The result of a request of the batch: either the executed request or the failure to execute it.
+     *
+     * @param index the position of the request in the batch, from zero.
+     * @param request the request, as given to the batch.
+     * @param executed the executed request, or null if the request failed.
+     * @param failure the failure of the request, or null if it was executed.
+     */
+    public record Result(long index, RestClient.RequestBuilder request, RestClient.RequestBuilder.ExecutedRequest executed, Throwable failure) {
+        /**
+         * Whether the request was executed and a response received, whatever its status.
+         *
+         * @return true if the request was executed.
+         */
+        public boolean isExecuted() {
+            return failure == null;
+        }
+
+        /**
+         * Returns the body of the response, converted to the given type, rethrowing the failure of the request if it
+         * failed.
+         *
+         * @param responseType the type to convert the response body to.
+         * @return the response body.
+         * @throws RestErrorResponseException if the response is unsuccessful and default error handling is applied.
+         */
+        public <T> T body(final Class<T> responseType) {
+            if (failure instanceof RuntimeException runtimeEx) throw runtimeEx;
+            if (failure instanceof Error error) throw error;
+            if (failure != null) throw new RestClientException("Error executing batched request " + index + ": " + failure.getMessage(), failure);
+
+            return executed.body(responseType);
+        }
+    }
+
+    private record PendingRequest(long index, RestClient.RequestBuilder requestBuilder, HttpRequest request) {
+    }
+
+    /**
+     * The requests of the batch read but not yet dispatched to an origin, and the number in flight to it.
+     */
+    private static final class HostQueue {
+        private final ArrayDeque<PendingRequest> pending = new ArrayDeque<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private boolean inRotation;
+    }
+}
@@ -0,0 +1,34 @@
+package org.beanplanet.restclient;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The executor on which the library runs blocking calls to adapt them to an asynchronous API, such as the default
+ * {@link HttpImplemention#executeAsync(org.beanplanet.core.net.http.HttpRequest)}. Such calls hold their thread for
+ * the whole of an exchange, so they are kept off the common fork/join pool, whose few threads are sized for CPU-bound
+ * work and shared by the whole JVM: they run on a virtual thread each where the running JVM supports them (Java 21+),
+ * and otherwise on a cached pool of daemon threads.
+ */
+final class BlockingExecutor {
+    private BlockingExecutor() {}
+
+    /**
+     * Returns the executor for blocking calls, created on first use.
+     *
+     * @return the shared executor for blocking calls.
+     */
+    static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        private static final Executor EXECUTOR = VirtualThreads.isSupported()
+                                                 ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                                                 : Executors.newCachedThreadPool(runnable -> {
+                                                     final Thread thread = new Thread(runnable, "restclient-blocking");
+                                                     thread.setDaemon(true);
+                                                     return thread;
+                                                 });
+    }
+}
@@ -0,0 +1,173 @@
+package org.beanplanet.restclient;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What a {@link RestClient} does to warm up at startup, before it takes traffic, so that the first requests after a
+ * deploy are not the ones paying for DNS lookups, TCP and TLS handshakes and a cold JIT:
+ *
+ * <ol>
+ *     <li>the hosts warmed are resolved and, if a {@link DnsCache} is given, kept warm in the JVM's address cache;</li>
+ *     <li>connections are opened to each origin given, with the default JDK HTTP implementation;</li>
+ *     <li>synthetic requests are executed through the client and their bodies converted, exercising the request,
+ *     interceptor, HTTP implementation and converter paths enough for the JIT to compile them.</li>
+ * </ol>
+ *
+ * <pre>
+ * ClientWarmUp warmUp = ClientWarmUp.builder()
+ *     .dnsCache(dnsCache)
+ *     .connections(URI.create("https://orders.internal/health"), 8)
+ *     .request(URI.create("https://orders.internal/orders/warm-up"), Order.class, 50)
+ *     .build();
+ * client.warmUp(warmUp).get(30, TimeUnit.SECONDS);
+ * // and, in the readiness probe
+ * return client.isWarm();
+ * </pre>
+ */
+public class ClientWarmUp {
+    /** The default number of times each synthetic request is executed. */
+    public static final int DEFAULT_REPETITIONS = 20;
+
+    private final DnsCache dnsCache;
+    private final Map<URI, Integer> connections;
+    private final List<SyntheticRequest> requests;
+
+    private ClientWarmUp(final ClientWarmUpBuilder builder) {
+        this.dnsCache = builder.dnsCache;
+        this.connections = Collections.unmodifiableMap(new LinkedHashMap<>(builder.connections));
+        this.requests = List.copyOf(builder.requests);
+    }
+
+    /**
+     * Creates a builder of client warm-ups.
+     *
+     * @return a new builder for configuring a warm-up.
+     */
+    public static ClientWarmUpBuilder builder() {
+        return new ClientWarmUpBuilder();
+    }
+
+    /**
+     * Returns the DNS cache which keeps the hosts warmed resolved in the JVM's address cache.
+     *
+     * @return the DNS cache, or null if the hosts warmed are not kept warm.
+     */
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    /**
+     * Returns the number of connections to open to the origin of each URI given.
+     *
+     * @return the connections to open, keyed by a URI on the origin to send <code>HEAD</code> requests.
+     */
+    public Map<URI, Integer> getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the synthetic requests to execute.
+     *
+     * @return the synthetic requests.
+     */
+    public List<SyntheticRequest> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Returns the distinct hosts of all the connections and requests of the warm-up.
+     *
+     * @return the hosts to be resolved, in the order given.
+     */
+    public Set<String> getHosts() {
+        final Set<String> hosts = new LinkedHashSet<>();
+        connections.keySet().forEach(uri -> addHost(hosts, uri));
+        requests.forEach(request -> addHost(hosts, request.uri()));
+        return hosts;
+    }
+
+    private static void addHost(final Set<String> hosts, final URI uri) {
+        if (uri.getHost() != null) hosts.add(uri.getHost());
+    }
+
+    /**
+     * A <code>GET</code> request executed repeatedly during warm-up, its body converted to the given type each time.
+     *
+     * @param uri the URI of the request, ideally a cheap, side-effect free resource returning a representative body.
+     * @param responseType the type to which the response body is converted.
+     * @param repetitions the number of times the request is executed.
+     */
+    public record SyntheticRequest(URI uri, Class<?> responseType, int repetitions) {
+    }
+
+    public static class ClientWarmUpBuilder {
+        private DnsCache dnsCache;
+        private final Map<URI, Integer> connections = new LinkedHashMap<>();
+        private final List<SyntheticRequest> requests = new ArrayList<>();
+
+        /**
+         * Sets the DNS cache which resolves the hosts warmed, and then keeps them warm in the JVM's address cache.
+         *
+         * @param dnsCache the DNS cache.
+         * @return this builder, for method chaining.
+         * @see DnsCache#keepWarm(String)
+         */
+        public ClientWarmUpBuilder dnsCache(final DnsCache dnsCache) {
+            this.dnsCache = dnsCache;
+            return this;
+        }
+
+        /**
+         * Opens connections to an origin. Applies to the default JDK HTTP implementation.
+         *
+         * @param uri a URI on the origin to be sent <code>HEAD</code> requests, ideally a cheap resource such as a
+         * health check.
+         * @param connections the number of connections to open.
+         * @return this builder, for method chaining.
+         * @see JdkHttpClientImplementation#preOpenConnections(URI, int)
+         */
+        public ClientWarmUpBuilder connections(final URI uri, final int connections) {
+            if (connections < 0) throw new IllegalArgumentException("The number of connections to open must not be negative");
+            this.connections.put(uri, connections);
+            return this;
+        }
+
+        /**
+         * Executes a synthetic <code>GET</code> request {@value #DEFAULT_REPETITIONS} times, converting its body to
+         * the given type.
+         *
+         * @param uri the URI of the request.
+         * @param responseType the type to which the response body is converted.
+         * @return this builder, for method chaining.
+         */
+        public ClientWarmUpBuilder request(final URI uri, final Class<?> responseType) {
+            return request(uri, responseType, DEFAULT_REPETITIONS);
+        }
+
+        /**
+         * Executes a synthetic <code>GET</code> request a number of times, converting its body to the given type.
+         *
+         * @param uri the URI of the request.
+         * @param responseType the type to which the response body is converted.
+         * @param repetitions the number of times the request is executed.
+         * @return this builder, for method chaining.
+         */
+        public ClientWarmUpBuilder request(final URI uri, final Class<?> responseType, final int repetitions) {
+            if (repetitions < 1) throw new IllegalArgumentException("A synthetic request must be executed at least once");
+            requests.add(new SyntheticRequest(uri, Objects.requireNonNull(responseType, "responseType"), repetitions));
+            return this;
+        }
+
+        public ClientWarmUp build() {
+            return new ClientWarmUp(this);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.IoException;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of exchanges in flight to each host, and so the number of HTTP/1.1 connections the JDK client
+ * opens to it, each in-flight exchange holding a connection of its own. Exchanges beyond the limit wait, in order, for
+ * one to complete rather than being rejected: synchronous callers block, which is cheap on a virtual thread, for no
+ * longer than the deadline of their exchange, and asynchronous callers are given a future completing when a slot is
+ * free, so no thread is held while waiting.
+ *
+ * <p>Slots are handed directly from a completing exchange to the next waiter under a {@link ReentrantLock}, so virtual
+ * threads are never pinned.</p>
+ */
+final class ConnectionLimiter {
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    private final int maximumPerHost;
+    private final ConcurrentHashMap<String, HostSlots> hosts = new ConcurrentHashMap<>();
+
+    ConnectionLimiter(final int maximumPerHost) {
+        if (maximumPerHost < 1) throw new IllegalArgumentException("The maximum number of connections per host must be at least one");
+        this.maximumPerHost = maximumPerHost;
+    }
+
+    int getMaximumPerHost() {
+        return maximumPerHost;
+    }
+
+    /**
+     * Returns the key by which exchanges to the origin of a URI are limited.
+     *
+     * @param uri the URI of a request.
+     * @return the scheme, host and port of the URI.
+     */
+    static String originOf(final URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+    }
+
+    /**
+     * Waits for a slot for an exchange to an origin, until the deadline of the {@link ExchangeTimeouts#current()
+     * current exchange}, if any.
+     *
+     * @param origin the origin of the request.
+     * @throws DeadlineExceededException if the deadline passes while waiting.
+     * @throws IoException if interrupted while waiting.
+     */
+    void acquire(final String origin) {
+        final CompletableFuture<Void> slot = acquireAsync(origin);
+        if (slot.isDone()) return;
+
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        final Deadline deadline = timeouts != null ? timeouts.deadline() : null;
+        try {
+            if (deadline == null) {
+                slot.get();
+            } else {
+                slot.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException timeoutEx) {
+            if (!slot.cancel(false)) release(origin);
+            throw new DeadlineExceededException("The deadline of an HTTP request to [" + origin + "] passed waiting for a connection");
+        } catch (InterruptedException intEx) {
+            // A slot handed over concurrently with the cancellation must be given up again
+            if (!slot.cancel(false)) release(origin);
+            Thread.currentThread().interrupt();
+            throw new IoException("Interrupted waiting for a connection to [" + origin + "]", intEx);
+        } catch (ExecutionException unexpectedEx) {
+            throw new IllegalStateException(unexpectedEx.getCause());
+        }
+    }
+
+    /**
+     * Acquires a slot for an exchange to an origin, asynchronously.
+     *
+     * @param origin the origin of the request.
+     * @return a future completing once a slot has been acquired, which may be cancelled to stop waiting.
+     */
+    CompletableFuture<Void> acquireAsync(final String origin) {
+        return slotsFor(origin).acquire();
+    }
+
+    /**
+     * Releases the slot of a completed exchange, handing it to the next waiter if any.
+     *
+     * @param origin the origin of the request.
+     */
+    void release(final String origin) {
+        slotsFor(origin).release();
+    }
+
+    /**
+     * Returns the number of exchanges waiting for a slot to an origin.
+     *
+     * @param origin the origin, as returned by {@link #originOf(URI)}.
+     * @return the number of waiting exchanges.
+     */
+    int getWaiting(final String origin) {
+        final HostSlots slots = hosts.get(origin);
+        return slots == null ? 0 : slots.waitingCount();
+    }
+
+    private HostSlots slotsFor(final String origin) {
+        HostSlots slots = hosts.get(origin);
+        if (slots != null) return slots;
+
+        final HostSlots created = new HostSlots();
+        slots = hosts.putIfAbsent(origin, created);
+        return slots != null ? slots : created;
+    }
+
+    /**
+     * The slots and queue of waiting exchanges for a single origin.
+     */
+    private final class HostSlots {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int available = maximumPerHost;
+
+        private CompletableFuture<Void> acquire() {
+            lock.lock();
+            try {
+                if (available > 0) {
+                    available--;
+                    return ACQUIRED;
+                }
+                final CompletableFuture<Void> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                return waiter;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            for (;;) {
+                final CompletableFuture<Void> waiter;
+                lock.lock();
+                try {
+                    waiter = waiters.poll();
+                    if (waiter == null) {
+                        available++;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                // Completed outside the lock, as it runs the waiter's dependent actions; a cancelled waiter is skipped
+                if (waiter.complete(null)) return;
+            }
+        }
+
+        private int waitingCount() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
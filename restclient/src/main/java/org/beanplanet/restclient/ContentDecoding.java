@@ -0,0 +1,264 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decoding of compressed response bodies, per the <code>gzip</code> and <code>deflate</code> content codings of
+ * RFC 9110 section 8.4.1. Bodies are decoded as a stream, while they are read, and are bounded both in their decoded
+ * size and in their compression ratio, so that a small malicious or corrupt response cannot expand to exhaust memory
+ * (a decompression bomb).
+ */
+public final class ContentDecoding {
+    /** The request header advertising the content codings the client accepts. */
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    /** The response header naming the content coding applied to the body. */
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    /** The content codings which can be decoded, as advertised in {@value #ACCEPT_ENCODING}. */
+    public static final String SUPPORTED_ENCODINGS = "gzip, deflate";
+    /** The default maximum size of a decoded body: 256 MiB. */
+    public static final long DEFAULT_MAXIMUM_DECODED_SIZE = 256L * 1024 * 1024;
+    /** The default maximum ratio of decoded to encoded size. */
+    public static final int DEFAULT_MAXIMUM_RATIO = 100;
+
+    /** The decoded size below which the compression ratio is not checked, since small bodies compress unevenly. */
+    private static final long RATIO_THRESHOLD = 1024 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentDecoding() {
+    }
+
+    /**
+     * Whether a response body with the given content coding can be decoded.
+     *
+     * @param contentEncoding the value of the {@value #CONTENT_ENCODING} header, which may be null.
+     * @return true if the body is compressed with a supported content coding.
+     */
+    public static boolean isDecodable(final String contentEncoding) {
+        return normalise(contentEncoding) != null;
+    }
+
+    /**
+     * Returns a stream decoding a compressed body as it is read.
+     *
+     * @param encoded the stream of the encoded body.
+     * @param contentEncoding the content coding of the body, which must be {@link #isDecodable(String) decodable}.
+     * @param maximumDecodedSize the size beyond which reading the decoded body fails.
+     * @param maximumRatio the ratio of decoded to encoded size beyond which reading the decoded body fails.
+     * @return a stream of the decoded body.
+     */
+    public static DecodingInputStream decode(final InputStream encoded, final String contentEncoding, final long maximumDecodedSize, final int maximumRatio) {
+        final String coding = normalise(contentEncoding);
+        if (coding == null) throw new IllegalArgumentException("Unsupported content coding [" + contentEncoding + "]");
+
+        return new DecodingInputStream(encoded, coding, maximumDecodedSize, maximumRatio);
+    }
+
+    /**
+     * Reads and decodes a compressed body in full.
+     *
+     * @param decoding the stream decoding the body, which is closed once read.
+     * @return the decoded body.
+     * @throws IOException if the body could not be read or decoded, or exceeds the decoding limits.
+     */
+    public static DecodedBody readFully(final DecodingInputStream decoding) throws IOException {
+        try (decoding) {
+            final byte[] decoded = decoding.readAllBytes();
+            return new DecodedBody(decoded, decoding.getEncodedBytes());
+        }
+    }
+
+    private static String normalise(final String contentEncoding) {
+        if (contentEncoding == null) return null;
+
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> "gzip";
+            case "deflate" -> "deflate";
+            default -> null;
+        };
+    }
+
+    /**
+     * A buffered response body which was decoded from a compressed body.
+     */
+    public static final class DecodedBody extends ByteArrayResource {
+        private final long encodedLength;
+
+        DecodedBody(final byte[] decoded, final long encodedLength) {
+            super(decoded);
+            this.encodedLength = encodedLength;
+        }
+
+        /**
+         * Returns the size of the body before it was decoded, as received from the network.
+         *
+         * @return the encoded size of the body.
+         */
+        public long getEncodedLength() {
+            return encodedLength;
+        }
+    }
+
+    /**
+     * A stream decoding a compressed body as it is read, counting both the encoded bytes consumed and the decoded
+     * bytes produced. The decoder is created on the first read, so that an empty body, such as that of a response to
+     * a HEAD request, decodes to an empty stream.
+     */
+    public static final class DecodingInputStream extends FilterInputStream {
+        private final CountingInputStream encoded;
+        private final String coding;
+        private final long maximumDecodedSize;
+        private final long maximumRatio;
+        private Inflater inflater;
+        private long decodedBytes;
+
+        private DecodingInputStream(final InputStream encoded, final String coding, final long maximumDecodedSize, final int maximumRatio) {
+            super(null);
+            this.encoded = new CountingInputStream(encoded);
+            this.coding = coding;
+            this.maximumDecodedSize = maximumDecodedSize;
+            this.maximumRatio = maximumRatio;
+        }
+
+        /**
+         * Returns the number of encoded bytes consumed from the underlying stream so far.
+         *
+         * @return the encoded size read.
+         */
+        public long getEncodedBytes() {
+            return encoded.count;
+        }
+
+        /**
+         * Returns the number of decoded bytes read so far.
+         *
+         * @return the decoded size read.
+         */
+        public long getDecodedBytes() {
+            return decodedBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = decoder().read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            final int read = decoder().read(buf, off, len);
+            if (read > 0) count(read);
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = decoder().skip(n);
+            if (skipped > 0) count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in == null ? 0 : in.available();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (in != null) in.close();
+            } finally {
+                try {
+                    encoded.close();
+                } finally {
+                    // An inflater supplied to an InflaterInputStream is not released when the stream is closed
+                    if (inflater != null) inflater.end();
+                }
+            }
+        }
+
+        private InputStream decoder() throws IOException {
+            if (in != null) return in;
+
+            final PushbackInputStream peekable = new PushbackInputStream(encoded, 2);
+            final int first = peekable.read();
+            if (first < 0) {
+                in = InputStream.nullInputStream();
+                return in;
+            }
+            final int second = peekable.read();
+            if (second >= 0) peekable.unread(second);
+            peekable.unread(first);
+
+            if ("gzip".equals(coding)) {
+                in = new GZIPInputStream(peekable, BUFFER_SIZE);
+            } else {
+                // Deflate is defined as zlib-wrapped, but some servers send raw deflate data without the zlib header
+                inflater = new Inflater(!isZlibHeader(first, second));
+                in = new InflaterInputStream(peekable, inflater, BUFFER_SIZE);
+            }
+            return in;
+        }
+
+        private static boolean isZlibHeader(final int first, final int second) {
+            return second >= 0 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+        }
+
+        private void count(final long decoded) throws IOException {
+            decodedBytes += decoded;
+            if (decodedBytes > maximumDecodedSize) {
+                throw new IOException("Decoded response body exceeds the maximum size of " + maximumDecodedSize + " bytes");
+            }
+            if (decodedBytes > RATIO_THRESHOLD && decodedBytes > maximumRatio * Math.max(1, encoded.count)) {
+                throw new IOException("Decoded response body exceeds the maximum compression ratio of " + maximumRatio
+                                      + " (" + encoded.count + " bytes decoded to " + decodedBytes + ")");
+            }
+        }
+    }
+
+    /**
+     * An input stream counting the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            final int read = super.read(buf, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            if (skipped > 0) count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.beanplanet.restclient;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A point in time by which work must complete, carrying the remaining time budget of an operation across the nested
+ * calls made on its behalf. A deadline is bound to the current thread for the scope of some work, with
+ * {@link #run(Runnable)} or {@link #supply(Supplier)}; every request executed by a {@link RestClient} within that scope
+ * is then bounded by the time remaining, and is not started at all if the deadline has already passed.
+ *
+ * <pre>
+ * Order order = Deadline.after(Duration.ofSeconds(2)).supply(() -&gt; {
+ *     Customer customer = client.get(customerUri).execute().body(Customer.class);
+ *     return client.get(orderUri).execute().body(Order.class);  // bounded by what remains of the 2 seconds
+ * });
+ * </pre>
+ *
+ * <p>Deadlines nest: binding a deadline within the scope of another binds whichever is earlier. Deadlines are bound to
+ * a thread, so work handed to another thread must bind the deadline again; requests executed asynchronously capture the
+ * deadline of the thread which built them.</p>
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline the given time from now.
+     *
+     * @param budget the time budget.
+     * @return a new deadline.
+     */
+    public static Deadline after(final Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Returns the deadline bound to the current thread.
+     *
+     * @return the current deadline, or empty if there is none.
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Returns the time remaining until this deadline.
+     *
+     * @return the time remaining, which is zero or negative if the deadline has passed.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Whether this deadline has passed.
+     *
+     * @return true if no time remains.
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Returns the earlier of this deadline and another.
+     *
+     * @param other the other deadline, which may be null.
+     * @return whichever deadline is earlier.
+     */
+    public Deadline earliest(final Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    /**
+     * Runs some work with this deadline, or the current deadline if earlier, bound to the current thread.
+     *
+     * @param work the work to run.
+     */
+    public void run(final Runnable work) {
+        supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Supplies the result of some work run with this deadline, or the current deadline if earlier, bound to the current
+     * thread.
+     *
+     * @param work the work to run.
+     * @param <T> the type of the result.
+     * @return the result of the work.
+     */
+    public <T> T supply(final Supplier<T> work) {
+        final Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous));
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + "]";
+    }
+}
@@ -0,0 +1,28 @@
+package org.beanplanet.restclient;
+
+/**
+ * An exception thrown when the deadline or total timeout of a request passes: before it is started, for example having
+ * been spent by earlier calls made within the same {@link Deadline} or by earlier retry attempts, while it was waiting
+ * on the client, such as for the response of an identical request, or while its exchange was in flight. However the
+ * deadline passes, it is reported with this exception, so that it is never mistaken for a retryable I/O failure.
+ */
+public class DeadlineExceededException extends RestClientException {
+    /**
+     * Constructs a new deadline exceeded exception.
+     *
+     * @param message the message describing the request whose deadline passed.
+     */
+    public DeadlineExceededException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new deadline exceeded exception.
+     *
+     * @param message the message describing the request whose deadline passed.
+     * @param cause the timeout by which the exchange of the request was cut short.
+     */
+    public DeadlineExceededException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,177 @@
+package org.beanplanet.restclient;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the JVM's cache of host name resolutions warm for the hosts a client calls, so that a connection opened to one
+ * of them rarely waits on DNS.
+ *
+ * <p>The JDK HTTP client offers no per-client resolver hook: it resolves hosts through
+ * {@link InetAddress#getAllByName}, and so through the JVM's own resolver and address cache, when it opens a
+ * connection. This class therefore holds no addresses of its own; it only resolves hosts the same way, to populate
+ * the JVM's cache. A lookup of a host whose entry in that cache has not expired neither resolves the host nor extends
+ * the life of the entry, so an entry cannot be kept from expiring, only resolved again soon after it has. Hosts which
+ * are {@link #keepWarm(String) kept warm} are therefore looked up in the background at the refresh interval, which is
+ * cheap while the entry is live and re-resolves the host once it has expired.</p>
+ *
+ * <p>The guarantee is thus that an entry is cold for at most the refresh interval, plus the time to resolve the host,
+ * after each expiry of the JVM's positive cache TTL, the <code>networkaddress.cache.ttl</code> security property,
+ * which is 30 seconds by default. Only a connection opened within that window waits on DNS, so the refresh interval
+ * should be short relative to the TTL. Concurrent lookups of a host are coalesced into one, and a failed lookup is
+ * retried at the next refresh.</p>
+ */
+public class DnsCache implements AutoCloseable {
+    /** The default interval at which hosts kept warm are looked up: one second. */
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final Lookup lookup;
+    private final long refreshIntervalNanos;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, CompletableFuture<List<InetAddress>>> lookups = new ConcurrentHashMap<>();
+    private final Set<String> warmHosts = ConcurrentHashMap.newKeySet();
+
+    private DnsCache(final DnsCacheBuilder builder) {
+        if (builder.refreshInterval.isNegative() || builder.refreshInterval.isZero()) {
+            throw new IllegalArgumentException("The DNS refresh interval must be positive");
+        }
+        this.lookup = builder.lookup;
+        this.refreshIntervalNanos = builder.refreshInterval.toNanos();
+        this.ownedExecutor = builder.executor == null ? Executors.newCachedThreadPool(daemonThreads("restclient-dns")) : null;
+        this.executor = builder.executor != null ? builder.executor : ownedExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("restclient-dns-refresh"));
+    }
+
+    /**
+     * Creates a builder of DNS caches.
+     *
+     * @return a new builder for configuring a DNS cache.
+     */
+    public static DnsCacheBuilder builder() {
+        return new DnsCacheBuilder();
+    }
+
+    /**
+     * Keeps a host warm in the JVM's address cache: it is resolved now and looked up in the background at the refresh
+     * interval from then on, whether or not it is called.
+     *
+     * @param host the host name to keep warm.
+     * @return a future completing with the addresses of the host once it has been resolved, or exceptionally with an
+     * {@link UnknownHostException} if it could not be.
+     */
+    public CompletableFuture<List<InetAddress>> keepWarm(final String host) {
+        final CompletableFuture<List<InetAddress>> resolution = lookupAsync(host);
+        if (warmHosts.add(host)) {
+            scheduler.scheduleWithFixedDelay(() -> lookupAsync(host), refreshIntervalNanos, refreshIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+        return resolution;
+    }
+
+    /**
+     * Stops looking up hosts in the background.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    }
+
+    private CompletableFuture<List<InetAddress>> lookupAsync(final String host) {
+        CompletableFuture<List<InetAddress>> pending = lookups.get(host);
+        if (pending != null) return pending;
+
+        final CompletableFuture<List<InetAddress>> created = new CompletableFuture<>();
+        pending = lookups.putIfAbsent(host, created);
+        if (pending != null) return pending;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    final List<InetAddress> addresses = List.copyOf(lookup.resolve(host));
+                    lookups.remove(host, created);
+                    created.complete(addresses);
+                } catch (Throwable th) {
+                    lookups.remove(host, created);
+                    created.completeExceptionally(th);
+                }
+            });
+        } catch (RuntimeException rejectedEx) {
+            lookups.remove(host, created);
+            created.completeExceptionally(rejectedEx);
+        }
+        return created;
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Resolves host names to addresses: through the JVM, except in tests, which stand in for DNS.
+     */
+    @FunctionalInterface
+    interface Lookup {
+        /** The resolver of the JVM, which consults and populates the JVM's address cache. */
+        Lookup SYSTEM = host -> List.of(InetAddress.getAllByName(host));
+
+        List<InetAddress> resolve(String host) throws UnknownHostException;
+    }
+
+    public static class DnsCacheBuilder {
+        private Lookup lookup = Lookup.SYSTEM;
+        private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        private Executor executor;
+
+        DnsCacheBuilder lookup(final Lookup lookup) {
+            this.lookup = Objects.requireNonNull(lookup, "lookup");
+            return this;
+        }
+
+        /**
+         * Sets the interval at which hosts kept warm are looked up, which bounds how long the JVM's entry for a host
+         * stays cold after it expires.
+         *
+         * @param refreshInterval the refresh interval, which must be positive.
+         * @return this builder, for method chaining.
+         */
+        public DnsCacheBuilder refreshInterval(final Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        /**
+         * Sets the executor on which hosts are resolved, by default a pool of daemon threads owned by the cache.
+         * Resolution blocks, so this should not be a pool of a few CPU-bound threads.
+         *
+         * @param executor the executor on which hosts are resolved.
+         * @return this builder, for method chaining.
+         */
+        public DnsCacheBuilder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public DnsCache build() {
+            return new DnsCache(this);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the elements of a long-lived streamed response, newline-delimited JSON or server-sent events, one at a
+ * time as they arrive and as the subscriber asks for them.
+ *
+ * <p>The response is requested when the subscriber first signals demand, on a thread of its own until the response
+ * headers have arrived: a virtual thread where the JVM supports them, otherwise a daemon platform thread. When the
+ * body is backed by the publisher of the exchange, as undecoded bodies of the JDK HTTP implementation are, it is then
+ * consumed without blocking: elements are split from the body as it arrives, and more of the body is requested from
+ * the connection only while the subscriber has demand that the elements already received do not meet, so no thread
+ * is held between elements and a subscriber which stops asking stops the transfer. Any other body is read from its
+ * stream, blocking, on a thread of its own while the subscriber has demand.</p>
+ *
+ * <p>A body of media type <code>text/event-stream</code> is parsed as server-sent events and the <code>data</code> of
+ * each event is published; comments and other fields are skipped. Any other body is read as newline-delimited
+ * elements, blank lines skipped. Each element is decoded as it is read, and is bounded in size so that a stream
+ * without line breaks cannot exhaust memory.</p>
+ *
+ * <p>The publisher is unicast: the request is executed for the single subscriber it allows.</p>
+ */
+final class ElementStreamPublisher<T> implements Flow.Publisher<T> {
+    /** The maximum length, in characters, of a single element. */
+    static final int MAXIMUM_ELEMENT_LENGTH = 16 * 1024 * 1024;
+
+    private static final String EVENT_STREAM = "text/event-stream";
+    private static final Executor READERS = VirtualThreads.isSupported() ? VirtualThreads.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "restclient-element-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<HttpResponse> execution;
+    private final Function<String, T> decoder;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a publisher of the elements of a streamed response.
+     *
+     * @param execution executes the request, returning the successful response with its body unread.
+     * @param decoder decodes each element.
+     */
+    ElementStreamPublisher(final Supplier<HttpResponse> execution, final Function<String, T> decoder) {
+        this.execution = execution;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A streamed response can only be subscribed to once"));
+            return;
+        }
+
+        subscriber.onSubscribe(new ElementSubscription(subscriber));
+    }
+
+    /**
+     * A subscription reading and publishing elements while it has demand. The request taking demand from zero for the
+     * first time executes the request on a reader thread. Thereafter, demand is met by the subscriber of a published
+     * body, or, for a body which can only be read as a stream, by a reader thread started by each request taking
+     * demand from zero, which runs until it has met all the demand signalled.
+     */
+    private final class ElementSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile InputStream body;
+        private volatile BodyElements published;
+        private LineReader elements;
+
+        private ElementSubscription(final Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                terminate(new IllegalArgumentException("Demand must be positive, but was " + n));
+                return;
+            }
+
+            final long previous = demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            final BodyElements publishedElements = published;
+            if (publishedElements != null) {
+                publishedElements.drain();
+            } else if (previous == 0) {
+                READERS.execute(this::drain);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // Closing the body also unblocks a read in progress, which then sees the cancellation
+            closeBody();
+            final BodyElements publishedElements = published;
+            if (publishedElements != null) publishedElements.cancelUpstream();
+        }
+
+        private void drain() {
+            try {
+                if (elements == null) {
+                    final HttpResponse response = execution.get();
+                    final ElementParser parser = isEventStream(response) ? new EventParser() : LINE_PARSER;
+                    final Optional<Flow.Publisher<List<ByteBuffer>>> bodyPublisher = response.getBody() instanceof StreamingResponseBody streamingBody
+                                                                                     ? streamingBody.getPublisher()
+                                                                                     : Optional.empty();
+                    if (bodyPublisher.isPresent()) {
+                        // Published before subscribing, so that demand signalled from now on is met by the body subscriber
+                        final BodyElements bodyElements = new BodyElements(parser);
+                        published = bodyElements;
+                        bodyPublisher.get().subscribe(bodyElements);
+                        return;
+                    }
+
+                    body = response.getBody() == null ? InputStream.nullInputStream() : response.getBody().getInputStream();
+                    elements = new LineReader(body, parser);
+                }
+
+                long pending = demand.get();
+                for (;;) {
+                    long emitted = 0;
+                    while (emitted < pending) {
+                        if (cancelled) {
+                            closeBody();
+                            return;
+                        }
+
+                        final String element = elements.next();
+                        if (element == null) {
+                            closeBody();
+                            terminate(null);
+                            return;
+                        }
+                        subscriber.onNext(decoder.apply(element));
+                        emitted++;
+                    }
+
+                    pending = pending == Long.MAX_VALUE ? Long.MAX_VALUE : demand.addAndGet(-emitted);
+                    if (pending == 0) return;
+                }
+            } catch (Throwable failure) {
+                closeBody();
+                if (!cancelled) terminate(failure);
+            }
+        }
+
+        private void terminate(final Throwable failure) {
+            if (!terminated.compareAndSet(false, true)) return;
+
+            if (failure == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(failure);
+            }
+        }
+
+        private void closeBody() {
+            final InputStream bodyToClose = body;
+            if (bodyToClose == null) return;
+
+            try {
+                bodyToClose.close();
+            } catch (IOException | RuntimeException ignored) {
+                // The stream is being abandoned, so a failure to close it cleanly is of no consequence
+            }
+        }
+
+        /**
+         * Subscribes to a published body, splitting its buffers into elements as they arrive and publishing them as
+         * the subscriber asks. A further buffer is requested from the body only once the elements received have been
+         * published and demand remains, so at most the elements of one buffer are held at a time.
+         *
+         * <p>Publishing is serialised by a count of the drains requested: only the drain taking it from zero
+         * publishes, looping while further drains were requested meanwhile, whichever threads request them.</p>
+         */
+        private final class BodyElements implements Flow.Subscriber<List<ByteBuffer>> {
+            private final ElementParser parser;
+            private final Queue<String> ready = new ConcurrentLinkedQueue<>();
+            private final AtomicInteger drains = new AtomicInteger();
+            private volatile Flow.Subscription upstream;
+            private volatile boolean bufferRequested;
+            private volatile boolean done;
+            private volatile Throwable failure;
+            // The line being split, touched only by the signals of the body, which are serial
+            private byte[] line = new byte[256];
+            private int lineLength;
+
+            private BodyElements(final ElementParser parser) {
+                this.parser = parser;
+            }
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                upstream = subscription;
+                if (cancelled) {
+                    subscription.cancel();
+                    return;
+                }
+                drain();
+            }
+
+            @Override
+            public void onNext(final List<ByteBuffer> buffers) {
+                if (done) return;
+
+                try {
+                    for (ByteBuffer buffer : buffers) {
+                        split(buffer);
+                    }
+                } catch (IOException tooLongEx) {
+                    upstream.cancel();
+                    failure = tooLongEx;
+                    done = true;
+                }
+                bufferRequested = false;
+                drain();
+            }
+
+            @Override
+            public void onError(final Throwable bodyFailure) {
+                failure = bodyFailure;
+                done = true;
+                drain();
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    if (lineLength > 0) accept(completeLine());
+                } catch (IOException tooLongEx) {
+                    failure = tooLongEx;
+                }
+                done = true;
+                drain();
+            }
+
+            private void drain() {
+                if (drains.getAndIncrement() != 0) return;
+
+                int missed = 1;
+                for (;;) {
+                    if (cancelled) return;
+
+                    final long pending = demand.get();
+                    long emitted = 0;
+                    while (emitted < pending) {
+                        final String element = ready.poll();
+                        if (element == null) break;
+
+                        try {
+                            subscriber.onNext(decoder.apply(element));
+                        } catch (Throwable decodingFailure) {
+                            cancelled = true;
+                            cancelUpstream();
+                            terminate(decodingFailure);
+                            return;
+                        }
+                        emitted++;
+                    }
+                    if (emitted > 0 && pending != Long.MAX_VALUE) demand.addAndGet(-emitted);
+
+                    if (ready.isEmpty()) {
+                        if (done) {
+                            terminate(failure);
+                            return;
+                        }
+
+                        final Flow.Subscription subscription = upstream;
+                        if (subscription != null && !bufferRequested && demand.get() > 0) {
+                            bufferRequested = true;
+                            subscription.request(1);
+                        }
+                    }
+
+                    missed = drains.addAndGet(-missed);
+                    if (missed == 0) return;
+                }
+            }
+
+            private void cancelUpstream() {
+                final Flow.Subscription subscription = upstream;
+                if (subscription != null) subscription.cancel();
+            }
+
+            /**
+             * Splits a buffer at line feeds. A line feed byte never occurs within a multi-byte UTF-8 sequence, so lines
+             * are split before they are decoded, and may span buffers.
+             */
+            private void split(final ByteBuffer buffer) throws IOException {
+                while (buffer.hasRemaining()) {
+                    final byte b = buffer.get();
+                    if (b == '\n') {
+                        accept(completeLine());
+                        continue;
+                    }
+
+                    if (lineLength == MAXIMUM_ELEMENT_LENGTH) {
+                        throw new IOException("Streamed response element exceeds the maximum length of " + MAXIMUM_ELEMENT_LENGTH + " characters");
+                    }
+                    if (lineLength == line.length) line = Arrays.copyOf(line, Math.min(line.length * 2, MAXIMUM_ELEMENT_LENGTH));
+                    line[lineLength++] = b;
+                }
+            }
+
+            private String completeLine() {
+                final int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                final String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                lineLength = 0;
+                return text;
+            }
+
+            private void accept(final String text) throws IOException {
+                final String element = parser.accept(text);
+                if (element != null) ready.add(element);
+            }
+        }
+    }
+
+    private static boolean isEventStream(final HttpResponse response) {
+        return response.getContentType()
+                       .map(MediaType::getName)
+                       .map(name -> name.toLowerCase(Locale.ROOT).equals(EVENT_STREAM))
+                       .orElse(false);
+    }
+
+    /** Newline-delimited elements: each line is an element, blank lines skipped. */
+    private static final ElementParser LINE_PARSER = line -> line.isBlank() ? null : line;
+
+    /**
+     * Turns the lines of a body, one at a time, into its elements.
+     */
+    private interface ElementParser {
+        /**
+         * Accepts the next line of the body.
+         *
+         * @param line the line, without its terminator.
+         * @return the element the line completes, or null if it completes none.
+         */
+        String accept(String line) throws IOException;
+    }
+
+    /**
+     * Parses the data of server-sent events, per the HTML Living Standard event stream interpretation: the
+     * <code>data</code> lines of an event are joined by line feeds and the event dispatched on a blank line; comments,
+     * other fields and events without data are skipped, as is an incomplete event at the end of the stream.
+     */
+    private static final class EventParser implements ElementParser {
+        private StringBuilder data;
+
+        @Override
+        public String accept(final String line) throws IOException {
+            if (line.isEmpty()) {
+                final StringBuilder event = data;
+                data = null;
+                return event == null ? null : event.toString();
+            }
+            if (line.startsWith(":")) return null;
+
+            final int colon = line.indexOf(':');
+            final String field = colon < 0 ? line : line.substring(0, colon);
+            if (!field.equals("data")) return null;
+
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) value = value.substring(1);
+
+            if (data == null) {
+                data = new StringBuilder(value);
+            } else {
+                data.append('\n').append(value);
+            }
+            if (data.length() > MAXIMUM_ELEMENT_LENGTH) {
+                throw new IOException("Server-sent event data exceeds the maximum length of " + MAXIMUM_ELEMENT_LENGTH + " characters");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads the elements of a body from its stream, one at a time, blocking until each has arrived: the fallback for
+     * a body which is not published.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final ElementParser parser;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+
+        private LineReader(final InputStream body, final ElementParser parser) {
+            this.reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+            this.parser = parser;
+        }
+
+        /**
+         * Reads the next element, blocking until it has arrived.
+         *
+         * @return the next element, or null at the end of the body.
+         */
+        String next() throws IOException {
+            for (;;) {
+                final String line = readLine();
+                if (line == null) return null;
+
+                final String element = parser.accept(line);
+                if (element != null) return element;
+            }
+        }
+
+        /**
+         * Reads a line terminated by a line feed, with or without a preceding carriage return, bounded in length.
+         *
+         * @return the line, without its terminator, or null at the end of the body.
+         */
+        private String readLine() throws IOException {
+            StringBuilder line = null;
+            for (;;) {
+                if (position == limit) {
+                    final int read = reader.read(buffer);
+                    if (read < 0) return line == null ? null : withoutCarriageReturn(line.toString());
+                    position = 0;
+                    limit = read;
+                }
+
+                final int start = position;
+                while (position < limit && buffer[position] != '\n') position++;
+
+                if (position < limit) {
+                    final String text = line == null ? new String(buffer, start, position - start) : line.append(buffer, start, position - start).toString();
+                    position++;
+                    return withoutCarriageReturn(text);
+                }
+
+                if (line == null) line = new StringBuilder();
+                line.append(buffer, start, position - start);
+                if (line.length() > MAXIMUM_ELEMENT_LENGTH) {
+                    throw new IOException("Streamed response element exceeds the maximum length of " + MAXIMUM_ELEMENT_LENGTH + " characters");
+                }
+            }
+        }
+
+        private static String withoutCarriageReturn(final String line) {
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.HttpRequest;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The timeouts of a single execution, passed from the {@link RestClient} to the {@link InterceptorChain} as a request
+ * attribute and bound to the thread calling the {@link HttpImplemention}. Every implementation is expected to enforce
+ * them: it reads them with {@link #current()} when it is called, waits for the response headers for no longer than
+ * the {@link #effectiveResponseTimeout() effective response timeout}, for the whole exchange no longer than the
+ * deadline, and fails with {@link #timedOut(HttpRequest)} when either elapses. Interceptors read the timeouts of the
+ * execution they intercept with {@link #of(Map)}.
+ *
+ * @param responseTimeout the time to wait for the response headers, or null for no limit.
+ * @param deadline the deadline by which the whole exchange must complete, or null for none.
+ */
+public record ExchangeTimeouts(Duration responseTimeout, Deadline deadline) {
+    static final String ATTRIBUTE = ExchangeTimeouts.class.getName();
+
+    private static final ThreadLocal<ExchangeTimeouts> CURRENT = new ThreadLocal<>();
+    private static final Duration MINIMUM_TIMEOUT = Duration.ofMillis(1);
+
+    /**
+     * Returns the timeouts bound to the current thread by the interceptor chain, for the HTTP implementation being
+     * called to enforce.
+     *
+     * @return the current timeouts, or null if there are none.
+     */
+    public static ExchangeTimeouts current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the timeouts of an execution from its request attributes, as passed to interceptors.
+     *
+     * @param attributes the attributes of the request.
+     * @return the timeouts of the execution, or null if there are none.
+     */
+    public static ExchangeTimeouts of(final Map<String, Object> attributes) {
+        return (ExchangeTimeouts) attributes.get(ATTRIBUTE);
+    }
+
+    /**
+     * Returns the time to wait for the response headers: the response timeout or the time remaining until the
+     * deadline, whichever is shorter.
+     *
+     * @return the response headers timeout, or null for no limit.
+     */
+    public Duration effectiveResponseTimeout() {
+        Duration timeout = responseTimeout;
+        if (deadline != null) {
+            Duration remaining = deadline.remaining();
+            timeout = timeout == null || remaining.compareTo(timeout) < 0 ? remaining : timeout;
+        }
+        return timeout == null || timeout.compareTo(MINIMUM_TIMEOUT) >= 0 ? timeout : MINIMUM_TIMEOUT;
+    }
+
+    /**
+     * Returns the failure of an exchange one of these timeouts has cut short: a {@link DeadlineExceededException} if
+     * the deadline has passed, otherwise an {@link IoException} caused by an {@link HttpTimeoutException}, as a
+     * response timeout is reported by the JDK HTTP client.
+     *
+     * @param request the request whose exchange timed out.
+     * @return the exception to fail the exchange with.
+     */
+    public RuntimeException timedOut(final HttpRequest request) {
+        if (deadline != null && deadline.isExpired()) {
+            return new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed before its response was received");
+        }
+        return new IoException("Timed out waiting for the response of HTTP request [" + request.getUri() + "]", new HttpTimeoutException("request timed out"));
+    }
+
+    /**
+     * Checks the deadline has not passed, so the request may be sent.
+     *
+     * @param request the request about to be sent.
+     * @throws DeadlineExceededException if the deadline has passed.
+     */
+    void checkDeadline(final HttpRequest request) {
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed before it could be sent");
+        }
+    }
+
+    /**
+     * Binds these timeouts to the current thread for the duration of a call to the HTTP implementation.
+     *
+     * @param call the call to the HTTP implementation.
+     * @return the result of the call.
+     */
+    <T> T bind(final Supplier<T> call) {
+        final ExchangeTimeouts previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
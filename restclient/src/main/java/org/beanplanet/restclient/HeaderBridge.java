@@ -0,0 +1,112 @@
+package org.beanplanet.restclient;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Presents the headers of JDK HTTP client responses to the client's HTTP messages without per-exchange copies.
+ *
+ * <p>Incoming headers are presented as a read-only view over the JDK response headers, which are already immutable
+ * and case-insensitive, optionally hiding some of them, rather than copied into a new map.</p>
+ */
+final class HeaderBridge {
+    private HeaderBridge() {
+    }
+
+    /**
+     * Returns a read-only view of response headers without the given headers.
+     *
+     * @param headers the headers, from a JDK response, whose map is case-insensitive.
+     * @param hidden the names of the headers to hide.
+     * @return a view of the headers, excluding those hidden.
+     */
+    static Map<String, List<String>> without(final Map<String, List<String>> headers, final String... hidden) {
+        return new HidingHeadersView(headers, hidden);
+    }
+
+    /**
+     * A read-only view of headers which hides some of them. Lookups delegate to the underlying case-insensitive map;
+     * iteration skips hidden headers as it goes.
+     */
+    private static final class HidingHeadersView extends AbstractMap<String, List<String>> {
+        private final Map<String, List<String>> headers;
+        private final String[] hidden;
+        private Set<Entry<String, List<String>>> entrySet;
+
+        private HidingHeadersView(final Map<String, List<String>> headers, final String[] hidden) {
+            this.headers = headers;
+            this.hidden = hidden;
+        }
+
+        private boolean isHidden(final Object name) {
+            if (!(name instanceof String nameString)) return false;
+
+            for (String hiddenName : hidden) {
+                if (hiddenName.equalsIgnoreCase(nameString)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public List<String> get(final Object name) {
+            return isHidden(name) ? null : headers.get(name);
+        }
+
+        @Override
+        public boolean containsKey(final Object name) {
+            return !isHidden(name) && headers.containsKey(name);
+        }
+
+        @Override
+        public Set<Entry<String, List<String>>> entrySet() {
+            if (entrySet == null) entrySet = new HidingEntrySet();
+            return entrySet;
+        }
+
+        private final class HidingEntrySet extends AbstractSet<Entry<String, List<String>>> {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                final Iterator<Entry<String, List<String>>> entries = headers.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, List<String>> next = advance();
+
+                    private Entry<String, List<String>> advance() {
+                        while (entries.hasNext()) {
+                            final Entry<String, List<String>> entry = entries.next();
+                            if (!isHidden(entry.getKey())) return entry;
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<String, List<String>> next() {
+                        if (next == null) throw new NoSuchElementException();
+
+                        final Entry<String, List<String>> entry = next;
+                        next = advance();
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = headers.size();
+                for (String name : headers.keySet()) {
+                    if (isHidden(name)) size--;
+                }
+                return size;
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.beanplanet.restclient;
 import org.beanplanet.core.net.http.HttpRequest;
 import org.beanplanet.core.net.http.HttpResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * A Service Provider Interface (SPI) for the underlying HTTP Implementations.
  */
@@ -14,4 +16,36 @@ public interface HttpImplemention {
      * @return the HTTP response, returned by the server.
      */
     HttpResponse execute(HttpRequest request);
+
+    /**
+     * Executes the given HTTP request synchronously, returning as soon as the response headers have been received.
+     * The body of the returned response is a {@link StreamingResponseBody} over the live response stream, which the
+     * caller is responsible for closing.
+     *
+     * <p>This default implementation delegates to {@link #execute(HttpRequest)}, returning a buffered response.</p>
+     *
+     * @param request the HTTP request to be executed.
+     * @return the HTTP response, returned by the server, whose body may be streamed.
+     */
+    default HttpResponse executeStreaming(HttpRequest request) {
+        return execute(request);
+    }
+
+    /**
+     * Executes the given HTTP request asynchronously, returning a future which will complete with the response.
+     *
+     * <p>This default implementation runs the synchronous {@link #execute(HttpRequest)} on a dedicated executor for
+     * blocking calls, on a virtual thread where the JVM supports them, and otherwise on a thread of a pool kept apart
+     * from the common pool, so a thread is still held for the duration of the exchange. The timeouts of the
+     * execution are bound to that thread, as they would be to the calling thread of a synchronous execution.
+     * Implementations capable of non-blocking I/O should override this method.</p>
+     *
+     * @param request the HTTP request to be executed.
+     * @return a future completing with the HTTP response returned by the server, or exceptionally if the request
+     * could not be sent.
+     */
+    default CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        return CompletableFuture.supplyAsync(() -> timeouts == null ? execute(request) : timeouts.bind(() -> execute(request)), BlockingExecutor.get());
+    }
 }
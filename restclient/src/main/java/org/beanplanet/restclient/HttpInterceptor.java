@@ -0,0 +1,85 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An interceptor of the requests executed by a {@link RestClient}, forming one stage of an ordered chain around the
+ * underlying {@link HttpImplemention}. Interceptors may inspect or replace the request, short-circuit the chain with a
+ * response of their own, or proceed down the chain and inspect or replace the response - the building blocks for
+ * cross-cutting features such as caching, retries, compression and metrics.
+ *
+ * <pre>
+ * RestClient client = RestClient.builder()
+ *     .interceptor((request, chain) -&gt; chain.proceed(request.merge(HttpRequest.builder().header("X-Trace", traceId()).build())))
+ *     .build();
+ * </pre>
+ */
+@FunctionalInterface
+public interface HttpInterceptor {
+    /**
+     * Intercepts a request executed synchronously.
+     *
+     * @param request the HTTP request to be executed.
+     * @param chain the remainder of the chain, through which the request may proceed.
+     * @return the HTTP response.
+     */
+    HttpResponse intercept(HttpRequest request, Chain chain);
+
+    /**
+     * Intercepts a request executed asynchronously. This default implementation runs the synchronous
+     * {@link #intercept(HttpRequest, Chain)} on a dedicated executor for blocking calls, kept apart from the common
+     * pool, with the caller's {@link Deadline}, if any, bound to its thread, so that the interceptor sees the same
+     * deadline as it would on the synchronous path. The remainder of the chain is then executed synchronously, holding
+     * that thread for the exchange, so interceptors which are used on the asynchronous path should override this
+     * method, proceeding with {@link Chain#proceedAsync(HttpRequest)}.
+     *
+     * @param request the HTTP request to be executed.
+     * @param chain the remainder of the chain, through which the request may proceed.
+     * @return a future completing with the HTTP response.
+     */
+    default CompletableFuture<HttpResponse> interceptAsync(HttpRequest request, Chain chain) {
+        final Deadline deadline = Deadline.current().orElse(null);
+        return CompletableFuture.supplyAsync(() -> deadline == null ? intercept(request, chain) : deadline.supply(() -> intercept(request, chain)), BlockingExecutor.get());
+    }
+
+    /**
+     * The remainder of an interceptor chain, ending with the {@link HttpImplemention} of the client.
+     */
+    interface Chain {
+        /**
+         * Proceeds with the request to the next stage of the chain. The request is executed in the same mode as the
+         * original execution, so its response body will be a {@link StreamingResponseBody} if {@link #isStreaming()}.
+         *
+         * @param request the request, which may differ from the one intercepted.
+         * @return the response from the remainder of the chain.
+         */
+        HttpResponse proceed(HttpRequest request);
+
+        /**
+         * Proceeds asynchronously with the request to the next stage of the chain.
+         *
+         * @param request the request, which may differ from the one intercepted.
+         * @return a future completing with the response from the remainder of the chain.
+         */
+        CompletableFuture<HttpResponse> proceedAsync(HttpRequest request);
+
+        /**
+         * Whether the request is being executed in streaming mode, by {@link RestClient.RequestBuilder#executeStreaming()}.
+         *
+         * @return true if the response body will be streamed, false if it will be buffered.
+         */
+        boolean isStreaming();
+
+        /**
+         * The attributes of the request, set with {@link RestClient.RequestBuilder#attribute(String, Object)}, with
+         * which interceptors may be configured per request. Attributes are not sent with the request.
+         *
+         * @return an unmodifiable map of the request attributes, which may be empty.
+         */
+        Map<String, Object> attributes();
+    }
+}
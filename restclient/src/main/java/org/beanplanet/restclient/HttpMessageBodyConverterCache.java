@@ -0,0 +1,69 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.MediaType;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverter;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent cache of converter lookups in front of a {@link HttpMessageBodyConverterRegistry}, so that resolving
+ * the converter for a request or response body costs a single hash lookup rather than a search of all registered
+ * converters. Both hits and misses are cached.
+ *
+ * <p>The cache does not block while holding a monitor: lookups are computed outside of any lock and published with
+ * {@link ConcurrentMap#putIfAbsent}, so virtual threads are never pinned when resolving converters.</p>
+ */
+final class HttpMessageBodyConverterCache {
+    /** The maximum number of entries cached before the cache is cleared, guarding against unbounded media type parameters. */
+    static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private record Key(MediaType mediaType, Class<?> type) {}
+
+    private final HttpMessageBodyConverterRegistry registry;
+    private final int maximumSize;
+    private final ConcurrentMap<Key, Optional<HttpMessageBodyConverter<?>>> converters = new ConcurrentHashMap<>();
+
+    HttpMessageBodyConverterCache(final HttpMessageBodyConverterRegistry registry, final int maximumSize) {
+        this.registry = registry;
+        this.maximumSize = maximumSize;
+    }
+
+    HttpMessageBodyConverterCache(final HttpMessageBodyConverterRegistry registry) {
+        this(registry, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Finds the first converter in the registry able to convert between the given media type and Java type, in either
+     * direction: the registry offers a single lookup for converting to and from bodies.
+     *
+     * @param mediaType the media type of the body.
+     * @param type the Java type to be converted to or from.
+     * @return the converter, or empty if the registry has no converter between the given types.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Optional<HttpMessageBodyConverter<T>> findConverter(final MediaType mediaType, final Class<T> type) {
+        final Key key = new Key(mediaType, type);
+        Optional<HttpMessageBodyConverter<?>> converter = converters.get(key);
+
+        if (converter == null) {
+            converter = registry.findFromConverters(mediaType, type).findFirst().map(c -> c);
+            if (converters.size() >= maximumSize) {
+                converters.clear();
+            }
+            Optional<HttpMessageBodyConverter<?>> existing = converters.putIfAbsent(key, converter);
+            if (existing != null) converter = existing;
+        }
+
+        return (Optional<HttpMessageBodyConverter<T>>) (Optional<?>) converter;
+    }
+
+    /**
+     * Invalidates all cached lookups. To be called whenever converters are added to or removed from the registry.
+     */
+    void invalidate() {
+        converters.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The ordered chain of {@link HttpInterceptor}s around the {@link HttpImplemention} of a client, built once when the
+ * client is built. Interceptors are applied in the order registered, the first being the outermost. When no
+ * interceptors are registered requests go straight to the implementation, so the chain costs nothing.
+ *
+ * <p>The chain ends by enforcing the {@link ExchangeTimeouts} of an execution, so that each attempt made by an
+ * interceptor, such as a retry, is refused once the deadline of the execution has passed.</p>
+ */
+final class InterceptorChain {
+    private final HttpInterceptor[] interceptors;
+    private final HttpImplemention httpImplemention;
+
+    InterceptorChain(final List<HttpInterceptor> interceptors, final HttpImplemention httpImplemention) {
+        this.interceptors = interceptors.toArray(new HttpInterceptor[0]);
+        this.httpImplemention = httpImplemention;
+    }
+
+    HttpResponse execute(final HttpRequest request, final Map<String, Object> attributes) {
+        if (interceptors.length == 0) return exchange(request, attributes, false);
+
+        return new Stage(0, attributes, false).proceed(request);
+    }
+
+    HttpResponse executeStreaming(final HttpRequest request, final Map<String, Object> attributes) {
+        if (interceptors.length == 0) return exchange(request, attributes, true);
+
+        return new Stage(0, attributes, true).proceed(request);
+    }
+
+    CompletableFuture<HttpResponse> executeAsync(final HttpRequest request, final Map<String, Object> attributes) {
+        if (interceptors.length == 0) return exchangeAsync(request, attributes);
+
+        return new Stage(0, attributes, false).proceedAsync(request);
+    }
+
+    /**
+     * Sends a request with the HTTP implementation, unless its deadline has already passed, with its timeouts bound
+     * to the calling thread for the implementation to apply.
+     */
+    private HttpResponse exchange(final HttpRequest request, final Map<String, Object> attributes, final boolean streaming) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.of(attributes);
+        if (timeouts == null) {
+            return streaming ? httpImplemention.executeStreaming(request) : httpImplemention.execute(request);
+        }
+
+        timeouts.checkDeadline(request);
+        return timeouts.bind(() -> streaming ? httpImplemention.executeStreaming(request) : httpImplemention.execute(request));
+    }
+
+    /**
+     * Sends a request asynchronously with the HTTP implementation, unless its deadline has already passed. The
+     * returned future completes exceptionally with a {@link DeadlineExceededException} if the deadline passes first,
+     * cancelling the exchange.
+     */
+    private CompletableFuture<HttpResponse> exchangeAsync(final HttpRequest request, final Map<String, Object> attributes) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.of(attributes);
+        if (timeouts == null) return httpImplemention.executeAsync(request);
+
+        try {
+            timeouts.checkDeadline(request);
+        } catch (DeadlineExceededException deadlineEx) {
+            return CompletableFuture.failedFuture(deadlineEx);
+        }
+
+        final CompletableFuture<HttpResponse> exchange = timeouts.bind(() -> httpImplemention.executeAsync(request));
+        if (timeouts.deadline() == null) return exchange;
+
+        // Bound a copy, so that both a timeout and cancellation by the caller cancel the exchange itself
+        final CompletableFuture<HttpResponse> bounded = exchange.copy()
+                                                                .orTimeout(timeouts.deadline().remainingNanos(), TimeUnit.NANOSECONDS)
+                                                                .handle((response, failure) -> {
+                                                                    if (failure == null) return response;
+
+                                                                    final Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                                                                    if (cause instanceof TimeoutException) {
+                                                                        throw new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed before its response was received", cause);
+                                                                    }
+                                                                    throw failure instanceof CompletionException completionEx ? completionEx : new CompletionException(failure);
+                                                                });
+        bounded.whenComplete((ignored, failure) -> {
+            if (failure != null) exchange.cancel(true);
+        });
+        return bounded;
+    }
+
+    /**
+     * The remainder of the chain, from a given interceptor onward, for a single execution.
+     */
+    private final class Stage implements HttpInterceptor.Chain {
+        private final int index;
+        private final Map<String, Object> attributes;
+        private final boolean streaming;
+
+        private Stage(final int index, final Map<String, Object> attributes, final boolean streaming) {
+            this.index = index;
+            this.attributes = attributes;
+            this.streaming = streaming;
+        }
+
+        @Override
+        public HttpResponse proceed(final HttpRequest request) {
+            if (index == interceptors.length) return exchange(request, attributes, streaming);
+
+            return interceptors[index].intercept(request, new Stage(index + 1, attributes, streaming));
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse> proceedAsync(final HttpRequest request) {
+            if (index == interceptors.length) return exchangeAsync(request, attributes);
+
+            return interceptors[index].interceptAsync(request, new Stage(index + 1, attributes, false));
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        @Override
+        public Map<String, Object> attributes() {
+            return attributes;
+        }
+    }
+}
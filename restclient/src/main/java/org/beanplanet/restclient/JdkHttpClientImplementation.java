@@ -1,35 +1,221 @@
 package org.beanplanet.restclient;
 
 import org.beanplanet.core.io.IoException;
-import org.beanplanet.core.io.IoUtil;
 import org.beanplanet.core.io.resource.ByteArrayOutputStreamResource;
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.io.resource.CharSequenceResource;
+import org.beanplanet.core.io.resource.FileResource;
+import org.beanplanet.core.io.resource.Resource;
 import org.beanplanet.core.net.http.HttpRequest;
 import org.beanplanet.core.net.http.HttpResponse;
 import org.beanplanet.core.net.http.Request;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpTimeoutException;
 import java.net.http.HttpRequest.BodyPublisher;
 import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A Http implementation using the standard JDK (11+) {@link java.net.http.HttpClient} to execute requests.
+ *
+ * <p>The response and total timeouts of requests executed by a {@link RestClient} are applied to each exchange: the
+ * wait for the response headers is bounded by the JDK request timeout, and a buffered exchange with a deadline is
+ * abandoned, and its connection released, once the deadline passes. The connect timeout is a property of the
+ * underlying client, so is set once with {@link JdkHttpClientImplementationBuilder#connectTimeout(Duration)}.</p>
+ *
+ * <p>Unless a request sets its own <code>Accept-Encoding</code>, <code>gzip</code> and <code>deflate</code> are
+ * advertised and compressed responses are transparently decoded, within the limits set by
+ * {@link JdkHttpClientImplementationBuilder#maximumDecompressedSize(long)} and
+ * {@link JdkHttpClientImplementationBuilder#maximumCompressionRatio(int)}. Buffered bodies are decoded as they are read
+ * from the network, and streamed bodies as they are consumed by the caller.</p>
+ *
+ * <p>How long idle connections are kept for reuse cannot be set per client: the JDK client reads it, JVM-wide, from
+ * the <code>jdk.httpclient.keepalive.timeout</code> system property, in seconds, when its connection pool is first
+ * used, and keeps them for 20 minutes by default. Set it at launch, for example
+ * <code>-Djdk.httpclient.keepalive.timeout=30</code>, to match the idle timeout of the servers and load balancers
+ * called.</p>
  */
 public class JdkHttpClientImplementation implements HttpImplemention {
+    private static final String CONTENT_LENGTH = "Content-Length";
+    /** Headers which the JDK client sets itself, in lower case, as listed by <code>jdk.httpclient.allowRestrictedHeaders</code>. */
+    private static final Set<String> RESTRICTED_HEADER_NAMES = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
     private HttpClient client;
+    private final boolean decompression;
+    private final long maximumDecompressedSize;
+    private final int maximumCompressionRatio;
+    private final ConnectionLimiter connectionLimiter;
 
     public JdkHttpClientImplementation(final HttpClient client) {
+        this(client, builder());
+    }
+
+    private JdkHttpClientImplementation(final HttpClient client, final JdkHttpClientImplementationBuilder builder) {
         this.client = client;
+        this.decompression = builder.decompression;
+        this.maximumDecompressedSize = builder.maximumDecompressedSize;
+        this.maximumCompressionRatio = builder.maximumCompressionRatio;
+        this.connectionLimiter = builder.maximumConnectionsPerHost > 0 ? new ConnectionLimiter(builder.maximumConnectionsPerHost) : null;
     }
 
     public JdkHttpClientImplementation() {
-        this(HttpClient.newBuilder()
-                       .version(HttpClient.Version.HTTP_1_1)
-                       .followRedirects(HttpClient.Redirect.NORMAL)
-                       .build());
+        this(builder().httpClient());
+    }
+
+    /**
+     * Creates a builder for creating {@link JdkHttpClientImplementation} configured instances.
+     *
+     * @return a new builder for creating JDK HTTP client implementations.
+     */
+    public static JdkHttpClientImplementationBuilder builder() {
+        return new JdkHttpClientImplementationBuilder();
+    }
+
+    public static class JdkHttpClientImplementationBuilder {
+        private Executor executor;
+        private Duration connectTimeout;
+        private HttpClient.Version version = HttpClient.Version.HTTP_1_1;
+        private int maximumConnectionsPerHost;
+        private boolean decompression = true;
+        private long maximumDecompressedSize = ContentDecoding.DEFAULT_MAXIMUM_DECODED_SIZE;
+        private int maximumCompressionRatio = ContentDecoding.DEFAULT_MAXIMUM_RATIO;
+
+        /**
+         * The executor on which the underlying {@link HttpClient} runs asynchronous tasks and dependent actions.
+         *
+         * @param executor the executor to use, or null for the JDK default.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Configures the underlying {@link HttpClient} with a virtual thread per task executor. Requires Java 21+.
+         *
+         * @return this builder, for method chaining.
+         * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+         */
+        public JdkHttpClientImplementationBuilder virtualThreads() {
+            return executor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+        }
+
+        /**
+         * Sets the time allowed to establish each new connection.
+         *
+         * @param connectTimeout the connect timeout, or null to wait as long as the operating system allows.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder connectTimeout(final Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets whether compressed responses are requested and transparently decoded.
+         *
+         * @param decompression true to advertise and decode <code>gzip</code> and <code>deflate</code>, the default.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder decompression(final boolean decompression) {
+            this.decompression = decompression;
+            return this;
+        }
+
+        /**
+         * Sets the size beyond which decoding a compressed response body fails, guarding against decompression bombs.
+         *
+         * @param maximumDecompressedSize the maximum decoded size of a response body, in bytes, 256 MiB by default.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder maximumDecompressedSize(final long maximumDecompressedSize) {
+            if (maximumDecompressedSize <= 0) throw new IllegalArgumentException("The maximum decompressed size must be positive");
+            this.maximumDecompressedSize = maximumDecompressedSize;
+            return this;
+        }
+
+        /**
+         * Sets the ratio of decoded to encoded size beyond which decoding a compressed response body of more than
+         * 1 MiB fails, guarding against decompression bombs.
+         *
+         * @param maximumCompressionRatio the maximum compression ratio, 100 by default.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder maximumCompressionRatio(final int maximumCompressionRatio) {
+            if (maximumCompressionRatio < 1) throw new IllegalArgumentException("The maximum compression ratio must be at least one");
+            this.maximumCompressionRatio = maximumCompressionRatio;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP version preferred for requests which do not specify one. With {@link HttpClient.Version#HTTP_2}
+         * requests are multiplexed over a single connection per origin where the server supports HTTP/2, negotiated by
+         * ALPN for <code>https</code> or by upgrade for <code>http</code>, falling back to HTTP/1.1 otherwise.
+         *
+         * @param version the preferred HTTP version, HTTP/1.1 by default.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder version(final HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Bounds the number of exchanges in flight to each origin, and so the number of HTTP/1.1 connections opened to
+         * it; with HTTP/2 this bounds the streams multiplexed over its connection instead. Exchanges beyond the limit
+         * wait for one to complete. A streamed exchange holds its slot until its body has been read or closed.
+         *
+         * @param maximumConnectionsPerHost the maximum number of exchanges in flight to each origin, or zero, the
+         * default, for no limit.
+         * @return this builder, for method chaining.
+         */
+        public JdkHttpClientImplementationBuilder maximumConnectionsPerHost(final int maximumConnectionsPerHost) {
+            if (maximumConnectionsPerHost < 0) throw new IllegalArgumentException("The maximum number of connections per host must not be negative");
+            this.maximumConnectionsPerHost = maximumConnectionsPerHost;
+            return this;
+        }
+
+        HttpClient httpClient() {
+            HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                                                             .version(version)
+                                                             .followRedirects(HttpClient.Redirect.NORMAL);
+            if (executor != null) {
+                httpClientBuilder.executor(executor);
+            }
+            if (connectTimeout != null) {
+                httpClientBuilder.connectTimeout(connectTimeout);
+            }
+
+            return httpClientBuilder.build();
+        }
+
+        public JdkHttpClientImplementation build() {
+            return new JdkHttpClientImplementation(httpClient(), this);
+        }
     }
 
     /**
@@ -40,51 +226,429 @@ public class JdkHttpClientImplementation implements HttpImplemention {
      */
     @Override
     public HttpResponse execute(final HttpRequest request) {
+        java.net.http.HttpRequest jdkRequest = toJdkRequest(request);
+        if (connectionLimiter == null) return send(request, jdkRequest);
+
+        final String origin = ConnectionLimiter.originOf(request.getUri());
+        connectionLimiter.acquire(origin);
+        try {
+            return send(request, jdkRequest);
+        } finally {
+            connectionLimiter.release(origin);
+        }
+    }
+
+    private HttpResponse send(final HttpRequest request, final java.net.http.HttpRequest jdkRequest) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        if (timeouts != null && timeouts.deadline() != null) {
+            return executeWithin(request, jdkRequest, timeouts.deadline());
+        }
+
+        try {
+            java.net.http.HttpResponse<BufferedBody> response = client.send(jdkRequest, bufferedBodyHandler(isDecoding(request), true));
+
+            return toHttpResponse(response, response.body().read());
+        } catch (IOException ioEx) {
+            throw new IoException("Error sending HTTP request [" + request.getUri() + "]: " + ioEx.getMessage(), ioEx);
+        } catch (InterruptedException intEx) {
+            throw new IoException("Interrupted sending HTTP request [" + request.getUri() + "]: " + intEx.getMessage(), intEx);
+        }
+    }
+
+    /**
+     * Executes a request synchronously within a deadline which bounds the whole exchange, including reading the
+     * response body, which the request timeout of the JDK client does not.
+     */
+    private HttpResponse executeWithin(final HttpRequest request, final java.net.http.HttpRequest jdkRequest, final Deadline deadline) {
+        final CompletableFuture<java.net.http.HttpResponse<BufferedBody>> exchange = client.sendAsync(jdkRequest, bufferedBodyHandler(isDecoding(request), false));
+        try {
+            java.net.http.HttpResponse<BufferedBody> response = exchange.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+
+            return toHttpResponse(response, response.body().read());
+        } catch (IOException ioEx) {
+            throw new IoException("Error reading HTTP response [" + request.getUri() + "]: " + ioEx.getMessage(), ioEx);
+        } catch (TimeoutException timeoutEx) {
+            exchange.cancel(true);
+            throw new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed before its response was received", timeoutEx);
+        } catch (ExecutionException execEx) {
+            throw toFailure(request, execEx.getCause(), ExchangeTimeouts.current());
+        } catch (InterruptedException intEx) {
+            exchange.cancel(true);
+            throw new IoException("Interrupted sending HTTP request [" + request.getUri() + "]: " + intEx.getMessage(), intEx);
+        }
+    }
+
+    /**
+     * Executes the given HTTP request synchronously, returning once the response headers have been received. The
+     * response body is not buffered and is instead returned as a {@link StreamingResponseBody} over the live
+     * response stream, to be closed by the caller. Unless it is decoded, the body is backed by the publisher of the
+     * exchange, so it may also be consumed without blocking, with demand forwarded to the connection.
+     *
+     * @param request the HTTP request to be executed.
+     * @return the HTTP response, returned by the server, with a streaming body.
+     */
+    @Override
+    public HttpResponse executeStreaming(final HttpRequest request) {
+        java.net.http.HttpRequest jdkRequest = toJdkRequest(request);
+        final String origin = connectionLimiter != null ? ConnectionLimiter.originOf(request.getUri()) : null;
+        if (origin != null) connectionLimiter.acquire(origin);
+
+        boolean slotHeldByBody = false;
+        try {
+            java.net.http.HttpResponse<Flow.Publisher<List<ByteBuffer>>> response = client.send(jdkRequest, java.net.http.HttpResponse.BodyHandlers.ofPublisher());
+            Flow.Publisher<List<ByteBuffer>> bodyPublisher = response.body();
+            if (bodyPublisher == null) return toHttpResponse(response, null);
+
+            if (origin != null) {
+                // The connection is only returned to the pool once the body has been read, cancelled or closed
+                bodyPublisher = new ReleasingPublisher(bodyPublisher, () -> connectionLimiter.release(origin));
+                slotHeldByBody = true;
+            }
+
+            final String contentEncoding = contentEncoding(request, response.headers());
+            if (contentEncoding != null) {
+                final InputStream bodyIs = new StreamingResponseBody(bodyPublisher, -1).getInputStream();
+                return toHttpResponse(response, new StreamingResponseBody(ContentDecoding.decode(bodyIs, contentEncoding, maximumDecompressedSize, maximumCompressionRatio), -1));
+            }
+            long contentLength = response.headers().firstValueAsLong(CONTENT_LENGTH).orElse(-1L);
+
+            return toHttpResponse(response, new StreamingResponseBody(bodyPublisher, contentLength));
+        } catch (IOException ioEx) {
+            throw toFailure(request, ioEx, ExchangeTimeouts.current());
+        } catch (InterruptedException intEx) {
+            throw new IoException("Interrupted sending HTTP request [" + request.getUri() + "]: " + intEx.getMessage(), intEx);
+        } finally {
+            if (origin != null && !slotHeldByBody) connectionLimiter.release(origin);
+        }
+    }
+
+    /**
+     * Executes the given HTTP request asynchronously, using the non-blocking {@link HttpClient#sendAsync} so that
+     * no thread is held while the exchange is in flight.
+     *
+     * @param request the HTTP request to be executed.
+     * @return a future completing with the HTTP response returned by the server, or exceptionally with an
+     * {@link IoException} if the request could not be sent.
+     */
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(final HttpRequest request) {
+        // The JDK request, with its timeouts, is built on the calling thread even if its exchange must wait for a slot
+        java.net.http.HttpRequest jdkRequest = toJdkRequest(request);
+        if (connectionLimiter == null) return sendAsync(request, jdkRequest);
+
+        final String origin = ConnectionLimiter.originOf(request.getUri());
+        final CompletableFuture<Void> slot = connectionLimiter.acquireAsync(origin);
+        final CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+        slot.thenRun(() -> {
+            final CompletableFuture<HttpResponse> exchange;
+            try {
+                exchange = sendAsync(request, jdkRequest);
+            } catch (RuntimeException ex) {
+                connectionLimiter.release(origin);
+                response.completeExceptionally(ex);
+                return;
+            }
+
+            exchange.whenComplete((jdkResponse, failure) -> {
+                connectionLimiter.release(origin);
+                if (failure != null) {
+                    response.completeExceptionally(failure);
+                } else {
+                    response.complete(jdkResponse);
+                }
+            });
+            response.whenComplete((ignored, failure) -> {
+                if (failure instanceof CancellationException) exchange.cancel(true);
+            });
+        });
+
+        // Cancelling while waiting for a slot gives up the place in the queue
+        response.whenComplete((ignored, failure) -> {
+            if (failure instanceof CancellationException) slot.cancel(false);
+        });
+        return response;
+    }
+
+    private CompletableFuture<HttpResponse> sendAsync(final HttpRequest request, final java.net.http.HttpRequest jdkRequest) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        final CompletableFuture<java.net.http.HttpResponse<BufferedBody>> exchange = client.sendAsync(jdkRequest, bufferedBodyHandler(isDecoding(request), false));
+        final CompletableFuture<HttpResponse> response = exchange.handle((jdkResponse, failure) -> {
+            if (failure != null) {
+                throw toFailure(request, failure, timeouts);
+            }
+            try {
+                return toHttpResponse(jdkResponse, jdkResponse.body().read());
+            } catch (IOException ioEx) {
+                throw toIoException(request, ioEx);
+            }
+        });
+
+        // Cancelling the returned future, such as the losing request of a hedged pair, aborts the exchange itself
+        response.whenComplete((ignored, failure) -> {
+            if (failure instanceof CancellationException) exchange.cancel(true);
+        });
+        return response;
+    }
+
+    /**
+     * Opens connections to an origin ahead of use, so that the first requests to it do not pay for DNS resolution,
+     * the TCP connection and the TLS handshake. The JDK client has no means of opening a connection alone, so the
+     * given number of concurrent <code>HEAD</code> requests are sent to the URI, leaving their connections pooled;
+     * with HTTP/2 a single connection is opened and shared. The number of connections is bounded by any
+     * {@link JdkHttpClientImplementationBuilder#maximumConnectionsPerHost(int) maximum per host}.
+     *
+     * @param uri a URI on the origin, ideally a cheap resource such as a health check.
+     * @param connections the number of connections to open.
+     * @return a future completing once the connections have been opened, or exceptionally if any could not be.
+     */
+    public CompletableFuture<Void> preOpenConnections(final URI uri, final int connections) {
+        final int count = connectionLimiter != null ? Math.min(connections, connectionLimiter.getMaximumPerHost()) : connections;
+        final java.net.http.HttpRequest headRequest = java.net.http.HttpRequest.newBuilder(uri)
+                                                                                .method("HEAD", BodyPublishers.noBody())
+                                                                                .build();
+
+        final CompletableFuture<?>[] exchanges = new CompletableFuture<?>[Math.max(0, count)];
+        for (int n = 0; n < exchanges.length; n++) {
+            exchanges[n] = client.sendAsync(headRequest, java.net.http.HttpResponse.BodyHandlers.discarding());
+        }
+        return CompletableFuture.allOf(exchanges);
+    }
+
+    java.net.http.HttpRequest toJdkRequest(final HttpRequest request) {
         java.net.http.HttpRequest.Builder jdkRequestBuilder = java.net.http.HttpRequest.newBuilder();
 
         // URI
         jdkRequestBuilder.uri(request.getUri());
 
-        // Version
-        jdkRequestBuilder.version(toJdkHttpClientVersion(request.getHttpVersion()));
+        // Version, where the request requires one, otherwise the version preferred by the client
+        if (request.getHttpVersion() != null) {
+            jdkRequestBuilder.version(toJdkHttpClientVersion(request.getHttpVersion()));
+        }
 
         for (Map.Entry<String, List<String>> headersByName : request.getHeaders().getAll().entrySet()) {
+            // Headers such as Content-Length are managed by the JDK client, which rejects them if set explicitly
+            if (RESTRICTED_HEADER_NAMES.contains(headersByName.getKey().toLowerCase(Locale.ROOT))) continue;
+
             for (String headerValue : headersByName.getValue()) {
                 jdkRequestBuilder.header(headersByName.getKey(), headerValue);
             }
         }
 
-        BodyPublisher bodyPublisher = request.getBody() != null ? BodyPublishers.ofInputStream(() -> request.getBody().getInputStream()) : BodyPublishers.noBody();
+        if (isDecoding(request)) {
+            jdkRequestBuilder.header(ContentDecoding.ACCEPT_ENCODING, ContentDecoding.SUPPORTED_ENCODINGS);
+        }
 
-        jdkRequestBuilder.method(request.getMethod(), bodyPublisher); // toBodyHandler(request));
+        jdkRequestBuilder.method(request.getMethod(), toBodyPublisher(request));
 
-        java.net.http.HttpRequest jdkRequest = jdkRequestBuilder.build();
+        // Bounds the wait for the response headers by the response timeout and by what remains of any deadline
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        final Duration responseTimeout = timeouts != null ? timeouts.effectiveResponseTimeout() : null;
+        if (responseTimeout != null) {
+            jdkRequestBuilder.timeout(responseTimeout);
+        }
 
-        try {
-            ByteArrayOutputStreamResource responseBody = null;
-            java.net.http.HttpResponse<InputStream> response = client.send(jdkRequest, java.net.http.HttpResponse.BodyHandlers.ofInputStream());
-            InputStream bodyIs = response.body();
+        return jdkRequestBuilder.build();
+    }
+
+    /**
+     * Whether the response to a request is to be decoded: only if decompression is enabled and the caller has not
+     * negotiated content codings itself, in which case the body is returned as received.
+     */
+    private boolean isDecoding(final HttpRequest request) {
+        return decompression && request.getHeaders().get(ContentDecoding.ACCEPT_ENCODING).isEmpty();
+    }
 
-            if (bodyIs != null) {
-                responseBody = new ByteArrayOutputStreamResource();
-                IoUtil.transferAndClose(bodyIs, responseBody.getOutputStream());
+    /**
+     * Returns the content coding of a response which is to be decoded.
+     *
+     * @return the decodable content coding of the response, or null if its body is to be returned as received.
+     */
+    private String contentEncoding(final HttpRequest request, final HttpHeaders headers) {
+        if (!isDecoding(request)) return null;
+
+        final String contentEncoding = headers.firstValue(ContentDecoding.CONTENT_ENCODING).orElse(null);
+        return ContentDecoding.isDecodable(contentEncoding) ? contentEncoding : null;
+    }
+
+    /**
+     * Returns a handler of buffered response bodies. An uncompressed body is buffered straight into a sized byte
+     * array: this avoids the repeated copies of a growing (and synchronized) ByteArrayOutputStream, which would also
+     * pin a virtual thread to its carrier. A compressed body is decoded as it is read: from the live response stream
+     * when the body is read on the calling thread, so only the decoded body is buffered, or otherwise from the
+     * compressed bytes once received, so no client thread blocks on the network.
+     *
+     * @param decoding whether compressed bodies are to be decoded.
+     * @param fromStream whether compressed bodies are to be decoded from the live response stream.
+     * @return the body handler, whose body is read, on the calling thread, once the exchange has completed.
+     */
+    private BodyHandler<BufferedBody> bufferedBodyHandler(final boolean decoding, final boolean fromStream) {
+        return responseInfo -> {
+            final String contentEncoding = decoding ? responseInfo.headers().firstValue(ContentDecoding.CONTENT_ENCODING).orElse(null) : null;
+            if (!ContentDecoding.isDecodable(contentEncoding)) {
+                return BodySubscribers.mapping(BodySubscribers.ofByteArray(), bytes -> () -> bytes != null ? new ByteArrayResource(bytes) : null);
             }
+            if (fromStream) {
+                return BodySubscribers.mapping(BodySubscribers.ofInputStream(), bodyIs -> () -> decodeFully(bodyIs, contentEncoding));
+            }
+            return BodySubscribers.mapping(BodySubscribers.ofByteArray(), bytes -> () -> decodeFully(new ByteArrayInputStream(bytes), contentEncoding));
+        };
+    }
 
-            return HttpResponse.builder()
-                               .body(responseBody)
-                               .statusCode(response.statusCode())
-                               .headers(response.headers().map())
-                               .build();
-        } catch (IOException ioEx) {
-            throw new IoException("Error sending HTTP request [" + request.getUri() + "]: " + ioEx.getMessage(), ioEx);
-        } catch (InterruptedException intEx) {
-            throw new IoException("Interrupted sending HTTP request [" + request.getUri() + "]: " + intEx.getMessage(), intEx);
+    private Resource decodeFully(final InputStream encoded, final String contentEncoding) throws IOException {
+        return ContentDecoding.readFully(ContentDecoding.decode(encoded, contentEncoding, maximumDecompressedSize, maximumCompressionRatio));
+    }
+
+    /**
+     * A response body which is read once the exchange has completed.
+     */
+    @FunctionalInterface
+    private interface BufferedBody {
+        Resource read() throws IOException;
+    }
+
+    /**
+     * Chooses a body publisher for the request body, based on the type of the body resource. Where the size of the
+     * body is known up front the publisher is sized, so the request is sent with a <code>Content-Length</code> rather
+     * than with chunked transfer encoding.
+     *
+     * @param request the request whose body is to be published.
+     * @return a publisher of the request body, sized where the content length is known.
+     */
+    private BodyPublisher toBodyPublisher(final HttpRequest request) {
+        final Resource body = request.getBody();
+        if (body == null) return BodyPublishers.noBody();
+
+        if (body instanceof FileResource) {
+            try {
+                return BodyPublishers.ofFile(body.getFileSystemFile().toPath());
+            } catch (FileNotFoundException fnfEx) {
+                throw new IoException("Unable to send HTTP request [" + request.getUri() + "] file body: " + fnfEx.getMessage(), fnfEx);
+            }
         }
+
+        if (body instanceof ByteArrayResource
+            || body instanceof ByteArrayOutputStreamResource
+            || body instanceof CharSequenceResource) {
+            return BodyPublishers.ofByteArray(body.readFullyAsBytes());
+        }
+
+        // A body compressed as it is sent has no length up front, whatever the Content-Length of the uncompressed body
+        if (body instanceof RequestBodyCompressor.CompressedBody) return BodyPublishers.ofInputStream(body::getInputStream);
+
+        final long contentLength = contentLength(request);
+        return contentLength >= 0
+               ? BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(body::getInputStream), contentLength)
+               : BodyPublishers.ofInputStream(body::getInputStream);
     }
 
-    private HttpClient.Version toJdkHttpClientVersion(final Request.Version version) {
-        if (version == null) return HttpClient.Version.HTTP_1_1;
+    private long contentLength(final HttpRequest request) {
+        try {
+            return request.getHeaders().get(CONTENT_LENGTH).map(String::trim).map(Long::parseLong).orElse(-1L);
+        } catch (NumberFormatException nfEx) {
+            throw new RestClientException("Invalid " + CONTENT_LENGTH + " header for HTTP request [" + request.getUri() + "]: " + nfEx.getMessage(), nfEx);
+        }
+    }
+
+    private HttpResponse toHttpResponse(final java.net.http.HttpResponse<?> response, final Resource responseBody) {
+        return HttpResponse.builder()
+                           .body(responseBody)
+                           .statusCode(response.statusCode())
+                           .headers(isDecoded(responseBody) ? decodedHeaders(response.headers()) : response.headers().map())
+                           .build();
+    }
+
+    /**
+     * A response body publisher which runs an action once, when the body has been read to the end, has failed or its
+     * subscription has been cancelled.
+     */
+    private static final class ReleasingPublisher implements Flow.Publisher<List<ByteBuffer>> {
+        private final Flow.Publisher<List<ByteBuffer>> delegate;
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingPublisher(final Flow.Publisher<List<ByteBuffer>> delegate, final Runnable release) {
+            this.delegate = delegate;
+            this.release = release;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+            delegate.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    subscriber.onSubscribe(new Flow.Subscription() {
+                        @Override
+                        public void request(final long n) {
+                            subscription.request(n);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            subscription.cancel();
+                            release();
+                        }
+                    });
+                }
 
+                @Override
+                public void onNext(final List<ByteBuffer> buffers) {
+                    subscriber.onNext(buffers);
+                }
+
+                @Override
+                public void onError(final Throwable failure) {
+                    release();
+                    subscriber.onError(failure);
+                }
+
+                @Override
+                public void onComplete() {
+                    release();
+                    subscriber.onComplete();
+                }
+            });
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) release.run();
+        }
+    }
+
+    private static boolean isDecoded(final Resource responseBody) {
+        return responseBody instanceof ContentDecoding.DecodedBody
+               || (responseBody instanceof StreamingResponseBody streamingBody
+                   && !streamingBody.isPublisherBacked()
+                   && streamingBody.getInputStream() instanceof ContentDecoding.DecodingInputStream);
+    }
+
+    /**
+     * Returns the headers of a decoded response, without the content coding and length which described the body as
+     * it was received.
+     */
+    private static Map<String, List<String>> decodedHeaders(final HttpHeaders headers) {
+        return HeaderBridge.without(headers.map(), ContentDecoding.CONTENT_ENCODING, CONTENT_LENGTH);
+    }
+
+    /**
+     * Returns the exception with which to fail an exchange: a {@link DeadlineExceededException} if the response timeout
+     * of the JDK request elapsed because the deadline passed, otherwise an {@link IoException}.
+     */
+    private RuntimeException toFailure(final HttpRequest request, final Throwable failure, final ExchangeTimeouts timeouts) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof HttpTimeoutException && timeouts != null && timeouts.deadline() != null && timeouts.deadline().isExpired()) {
+            return new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed before its response was received", cause);
+        }
+        return toIoException(request, cause);
+    }
+
+    private IoException toIoException(final HttpRequest request, final Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof IoException ioEx) return ioEx;
+
+        return new IoException("Error sending HTTP request [" + request.getUri() + "]: " + cause.getMessage(), cause);
+    }
+
+    private HttpClient.Version toJdkHttpClientVersion(final Request.Version version) {
         return switch (version) {
             case HTTP_1_1 -> HttpClient.Version.HTTP_1_1;
             case HTTP_2 -> HttpClient.Version.HTTP_2;
@@ -0,0 +1,69 @@
+package org.beanplanet.restclient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads JSON response bodies with Jackson straight from the live response stream, so that a streamed response is
+ * parsed as it arrives from the network rather than first being copied into a byte array. Peak memory is then that of
+ * the parsed object alone, and parsing overlaps the transfer.
+ *
+ * <p>An {@link ObjectReader} is resolved once per type and cached: readers are immutable and thread-safe, and reuse
+ * skips the per-call root deserializer lookup of {@link ObjectMapper#readValue}. Like the converter cache, readers are
+ * published with {@link ConcurrentMap#putIfAbsent} so virtual threads are never pinned resolving them.</p>
+ */
+final class JsonStreamReader {
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    JsonStreamReader(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether a body of the given media type is JSON: <code>application/json</code> or a structured syntax suffix of
+     * <code>+json</code>, such as <code>application/problem+json</code>.
+     *
+     * @param mediaType the media type of the body.
+     * @return true if the body is JSON.
+     */
+    static boolean isJson(final MediaType mediaType) {
+        final String name = mediaType.getName();
+        if (name == null) return false;
+
+        final String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        return lowerCaseName.endsWith("/json") || lowerCaseName.endsWith("+json");
+    }
+
+    /**
+     * Parses a JSON body from a stream, as it is read.
+     *
+     * @param type the type to read.
+     * @param bodyIs the stream of the body.
+     * @return the value read from the body.
+     */
+    <T> T read(final Class<T> type, final InputStream bodyIs) {
+        try {
+            return readerFor(type).readValue(bodyIs);
+        } catch (IOException ioEx) {
+            throw new IoException("Error reading JSON response body as type [" + type.getName() + "]: " + ioEx.getMessage(), ioEx);
+        }
+    }
+
+    private ObjectReader readerFor(final Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        if (reader != null) return reader;
+
+        final ObjectReader created = objectMapper.readerFor(type);
+        reader = readers.putIfAbsent(type, created);
+        return reader != null ? reader : created;
+    }
+}
@@ -0,0 +1,193 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.AbstractResource;
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses request bodies with the <code>gzip</code> content coding, as a streaming stage between the conversion of
+ * a request body and its publication by the HTTP implementation. The compressed body is produced as it is read, a
+ * buffer at a time, so neither the whole body nor the whole compressed body is ever held on the heap; a body which
+ * can be read more than once, such as for a retry, is compressed afresh on each read.
+ *
+ * <p>Bodies smaller than the threshold, where compression saves little and costs latency, and bodies which already
+ * have a content coding are sent as they are. Deflaters hold native memory and are costly to create, so are pooled.</p>
+ */
+final class RequestBodyCompressor {
+    /** The default size below which bodies are not compressed: 8 KiB. */
+    static final long DEFAULT_THRESHOLD = 8 * 1024;
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+    /** The gzip member header: magic number, deflate method, no flags, no modification time, no extra flags, unknown OS. */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final long threshold;
+    private final ArrayBlockingQueue<Deflater> deflaterPool = new ArrayBlockingQueue<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+    RequestBodyCompressor(final long threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("The request compression threshold must not be negative");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compresses the body of a request, unless it is smaller than the threshold or already has a content coding.
+     * Bodies of unknown size are compressed.
+     *
+     * @param request the request whose body is to be compressed.
+     * @return the request with a compressed body and a <code>Content-Encoding</code>, or the request as given.
+     */
+    HttpRequest compress(final HttpRequest request) {
+        final Resource body = request.getBody();
+        if (body == null || body instanceof CompressedBody || request.getHeaders().get(CONTENT_ENCODING).isPresent()) return request;
+
+        final long contentLength = body.getContentLength();
+        if (contentLength >= 0 && contentLength < threshold) return request;
+
+        return request.merge(HttpRequest.builder()
+                                        .method(request.getMethod())
+                                        .header(CONTENT_ENCODING, GZIP)
+                                        .body(new CompressedBody(body))
+                                        .build());
+    }
+
+    int getPooledDeflaterCount() {
+        return deflaterPool.size();
+    }
+
+    private Deflater acquireDeflater() {
+        final Deflater deflater = deflaterPool.poll();
+        return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    private void releaseDeflater(final Deflater deflater) {
+        deflater.reset();
+        if (!deflaterPool.offer(deflater)) deflater.end();
+    }
+
+    /**
+     * A request body compressed as it is read. Its compressed length is not known up front, so it is sent with chunked
+     * transfer encoding, or as HTTP/2 frames, rather than with a <code>Content-Length</code>.
+     */
+    final class CompressedBody extends AbstractResource {
+        private final Resource uncompressed;
+
+        CompressedBody(final Resource uncompressed) {
+            this.uncompressed = uncompressed;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new GzipInputStream(uncompressed.getInputStream());
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+    }
+
+    /**
+     * A stream of the gzip compressed form of another stream, deflating straight into the reader's buffer. A pooled
+     * deflater is taken on the first read and returned once the stream is exhausted or closed.
+     */
+    private final class GzipInputStream extends InputStream {
+        private final InputStream uncompressed;
+        private final byte[] input = new byte[BUFFER_SIZE];
+        private final CRC32 crc = new CRC32();
+        private final byte[] trailer = new byte[8];
+        private final byte[] single = new byte[1];
+        private Deflater deflater;
+        private int headerPosition;
+        private int trailerPosition = -1;
+        private boolean closed;
+
+        private GzipInputStream(final InputStream uncompressed) {
+            this.uncompressed = uncompressed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            if (closed) throw new IOException("Compressed request body stream closed");
+            if (len == 0) return 0;
+
+            if (headerPosition < GZIP_HEADER.length) {
+                final int count = Math.min(len, GZIP_HEADER.length - headerPosition);
+                System.arraycopy(GZIP_HEADER, headerPosition, buf, off, count);
+                headerPosition += count;
+                return count;
+            }
+
+            while (trailerPosition < 0) {
+                if (deflater == null) deflater = acquireDeflater();
+
+                final int deflated = deflater.deflate(buf, off, len);
+                if (deflated > 0) return deflated;
+
+                if (deflater.finished()) {
+                    writeTrailer();
+                } else if (deflater.needsInput()) {
+                    final int read = uncompressed.read(input);
+                    if (read < 0) {
+                        deflater.finish();
+                    } else if (read > 0) {
+                        crc.update(input, 0, read);
+                        deflater.setInput(input, 0, read);
+                    }
+                }
+            }
+
+            if (trailerPosition == trailer.length) return -1;
+
+            final int count = Math.min(len, trailer.length - trailerPosition);
+            System.arraycopy(trailer, trailerPosition, buf, off, count);
+            trailerPosition += count;
+            return count;
+        }
+
+        /**
+         * Completes the gzip member with the CRC-32 and size, modulo 2^32, of the uncompressed data, both little-endian.
+         */
+        private void writeTrailer() {
+            final long checksum = crc.getValue();
+            final long size = deflater.getBytesRead();
+            for (int n = 0; n < 4; n++) {
+                trailer[n] = (byte) (checksum >> (8 * n));
+                trailer[4 + n] = (byte) (size >> (8 * n));
+            }
+            trailerPosition = 0;
+            release();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+
+            closed = true;
+            try {
+                uncompressed.close();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (deflater == null) return;
+
+            releaseDeflater(deflater);
+            deflater = null;
+        }
+    }
+}
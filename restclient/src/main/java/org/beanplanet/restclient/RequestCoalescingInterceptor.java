@@ -0,0 +1,130 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An interceptor which coalesces concurrent, identical {@code GET} and {@code HEAD} requests into a single execution,
+ * so that a burst of callers asking for the same resource - typically when a cached response expires - results in one
+ * upstream call rather than one per caller. Requests are identical if their method, URI and headers are equal.
+ *
+ * <p>The first caller executes the request and the others wait for, and share, its buffered response, whose body
+ * may be read by each of them. Failures are shared in the same way. Each waiting caller remains bound by its own
+ * response timeout and deadline, rather than the first caller's, and gives up waiting once they pass. Requests with a
+ * body and streaming executions are never coalesced, as a live response stream cannot be shared.</p>
+ *
+ * @see RestClient.RestClientBuilder#coalesceRequests()
+ */
+final class RequestCoalescingInterceptor implements HttpInterceptor {
+    private static final Set<String> COALESCABLE_METHODS = Set.of("GET", "HEAD");
+
+    private final ConcurrentHashMap<Key, CompletableFuture<HttpResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private record Key(String method, URI uri, Map<String, List<String>> headers) {}
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        if (chain.isStreaming() || !isCoalescable(request)) return chain.proceed(request);
+
+        final Key key = keyFor(request);
+        final CompletableFuture<HttpResponse> leader = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) return join(request, existing, ExchangeTimeouts.of(chain.attributes()));
+
+        try {
+            HttpResponse response = chain.proceed(request);
+            leader.complete(response);
+            return response;
+        } catch (Throwable failure) {
+            // Any failure, an Error included, must release the callers waiting on this execution
+            leader.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        if (!isCoalescable(request)) return chain.proceedAsync(request);
+
+        final Key key = keyFor(request);
+        final CompletableFuture<HttpResponse> leader = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) return bounded(existing.thenApply(response -> response), ExchangeTimeouts.of(chain.attributes()));
+
+        try {
+            chain.proceedAsync(request).whenComplete((response, failure) -> {
+                inFlight.remove(key, leader);
+                if (failure != null) {
+                    leader.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                } else {
+                    leader.complete(response);
+                }
+            });
+        } catch (Throwable failure) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(failure);
+        }
+        return leader.thenApply(response -> response);
+    }
+
+    private static boolean isCoalescable(final HttpRequest request) {
+        return COALESCABLE_METHODS.contains(request.getMethod().toUpperCase(Locale.ROOT)) && request.getBody() == null;
+    }
+
+    private static Key keyFor(final HttpRequest request) {
+        return new Key(request.getMethod().toUpperCase(Locale.ROOT), request.getUri(), request.getHeaders().getAll());
+    }
+
+    /**
+     * Waits for the response of the execution of an identical request, for no longer than the timeouts of the waiting
+     * request allow.
+     */
+    private static HttpResponse join(final HttpRequest request, final CompletableFuture<HttpResponse> execution, final ExchangeTimeouts timeouts) {
+        final Duration timeout = timeouts != null ? timeouts.effectiveResponseTimeout() : null;
+        try {
+            return timeout == null ? execution.get() : execution.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException executionEx) {
+            final Throwable cause = executionEx.getCause();
+            if (cause instanceof RuntimeException runtimeEx) throw runtimeEx;
+            if (cause instanceof Error error) throw error;
+            throw new RestClientException("Error executing coalesced HTTP request [" + request.getUri() + "]", cause);
+        } catch (TimeoutException timeoutEx) {
+            throw timedOut(request, timeouts);
+        } catch (InterruptedException intEx) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted waiting for the response of coalesced HTTP request [" + request.getUri() + "]", intEx);
+        }
+    }
+
+    /**
+     * Bounds the wait of an asynchronous caller for the response of an identical request by its own timeouts.
+     */
+    private static CompletableFuture<HttpResponse> bounded(final CompletableFuture<HttpResponse> follower, final ExchangeTimeouts timeouts) {
+        final Duration timeout = timeouts != null ? timeouts.effectiveResponseTimeout() : null;
+        return timeout == null ? follower : follower.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static RuntimeException timedOut(final HttpRequest request, final ExchangeTimeouts timeouts) {
+        if (timeouts.deadline() != null && timeouts.deadline().isExpired()) {
+            return new DeadlineExceededException("The deadline of HTTP request [" + request.getUri() + "] passed waiting for the response of an identical request");
+        }
+        return new IoException("Timed out waiting for the response of coalesced HTTP request [" + request.getUri() + "]", new HttpTimeoutException("request timed out"));
+    }
+}
@@ -0,0 +1,30 @@
+package org.beanplanet.restclient;
+
+/**
+ * An exception thrown when a request is rejected without being sent, to fail fast rather than wait on a degraded
+ * upstream - for example, because the circuit breaker for its host is open or the concurrency limit for its host has
+ * been reached.
+ */
+public class RequestRejectedException extends RestClientException {
+    private final String host;
+
+    /**
+     * Constructs a new request rejected exception.
+     *
+     * @param host the host to which the request was addressed.
+     * @param message the message describing why the request was rejected.
+     */
+    public RequestRejectedException(final String host, final String message) {
+        super(message);
+        this.host = host;
+    }
+
+    /**
+     * Returns the host to which the rejected request was addressed.
+     *
+     * @return the host, including its port if explicit in the request URI.
+     */
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,67 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.Request;
+
+/**
+ * A request prototype, compiled once when a {@link RestClient} is built, which supplies the static defaults of every
+ * request the client executes.
+ *
+ * <p>The prototype is captured as a single immutable request, with its headers already merged, and is layered under
+ * each request, its body included, with one {@link HttpRequest#merge(HttpRequest)}, so that URIs, headers, cookies,
+ * the method and the body combine exactly as the library defines. A prototype which carries no defaults at all is
+ * compiled to {@link #NONE}, for which no merge is performed.</p>
+ */
+final class RequestTemplate {
+    /** The template of a client configured without a request prototype. */
+    static final RequestTemplate NONE = new RequestTemplate(null);
+
+    private static final String DEFAULT_METHOD = "GET";
+
+    private final HttpRequest prototype;
+
+    private RequestTemplate(final HttpRequest prototype) {
+        this.prototype = prototype;
+    }
+
+    /**
+     * Compiles the given request prototype into a template.
+     *
+     * @param prototype the request prototype, which may be null.
+     * @return the compiled template, or {@link #NONE} if the prototype is null or supplies no defaults.
+     */
+    static RequestTemplate compile(final HttpRequest prototype) {
+        return isEmpty(prototype) ? NONE : new RequestTemplate(prototype);
+    }
+
+    /**
+     * Layers the given request over this template.
+     *
+     * @param request the request, whose values take precedence over those of the template.
+     * @return the request with the defaults of this template applied, which is the request itself if this template
+     * supplies no defaults.
+     */
+    HttpRequest apply(final HttpRequest request) {
+        return prototype == null ? request : prototype.merge(request);
+    }
+
+    /**
+     * Returns the request to describe the given request to a converter of its body: the request itself, unless it
+     * leaves its content type to this template.
+     *
+     * @param request the request, before this template is applied.
+     * @return the request or prototype whose content type the body is to be converted to.
+     */
+    Request conversionContext(final HttpRequest request) {
+        return prototype == null || request.getContentType().isPresent() || prototype.getContentType().isEmpty() ? request : prototype;
+    }
+
+    private static boolean isEmpty(final HttpRequest prototype) {
+        return prototype == null
+               || (prototype.getUri() == null
+                   && prototype.getHttpVersion() == null
+                   && prototype.getBody() == null
+                   && (prototype.getMethod() == null || DEFAULT_METHOD.equals(prototype.getMethod()))
+                   && prototype.getHeaders().getAll().isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package org.beanplanet.restclient;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.beanplanet.core.io.resource.CharSequenceResource;
 import org.beanplanet.core.io.resource.Resource;
 import org.beanplanet.core.lang.Assert;
@@ -8,28 +9,61 @@ import org.beanplanet.core.net.http.*;
 import org.beanplanet.core.net.http.converter.HttpMessageBodyConverter;
 import org.beanplanet.core.net.http.converter.HttpMessageBodyConverterRegistry;
 import org.beanplanet.core.net.http.converter.SystemHttpMessageBodyConverterRegistry;
+import org.beanplanet.restclient.cache.HttpResponseCache;
+import org.beanplanet.restclient.metrics.HttpClientMetricsRecorder;
+import org.beanplanet.restclient.metrics.MeteredHttpImplementation;
+import org.beanplanet.restclient.metrics.SimpleHttpClientMetrics;
+import org.beanplanet.restclient.resilience.AdaptiveConcurrencyLimiter;
+import org.beanplanet.restclient.resilience.CircuitBreaker;
+import org.beanplanet.restclient.resilience.HedgingInterceptor;
+import org.beanplanet.restclient.resilience.HedgingPolicy;
+import org.beanplanet.restclient.resilience.RetryInterceptor;
+import org.beanplanet.restclient.resilience.RetryPolicy;
 
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
+import java.util.stream.Stream;
 
 /**
  * REST client main service and entry point.
  */
 public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient.RequestBuilder> {
     private final boolean applyDefaultClientServerErrorResponseHandlers;
-    private final HttpImplemention httpImplemention;
-    private final HttpMessageBodyConverterRegistry handlerRegistry;
-    private HttpRequest requestPrototype;
+    private final InterceptorChain interceptorChain;
+    private final HttpMessageBodyConverterCache converterCache;
+    private final RequestTemplate requestTemplate;
+    private final boolean hedging;
+    private final Duration defaultResponseTimeout;
+    private final Duration defaultRequestTimeout;
+    private final RequestBodyCompressor requestBodyCompressor;
+    private final JsonStreamReader jsonStreamReader;
+    private final JdkHttpClientImplementation jdkHttpImplementation;
+    private volatile boolean warm;
 
     private RestClient(final RestClientBuilder builder) {
+        if (builder.httpImplemention != null && !builder.preOpenConnections.isEmpty()) {
+            throw new IllegalStateException("Connections can only be pre-opened by the default JDK HTTP implementation, not by one set explicitly");
+        }
+
+        // Each client built has its own default implementation, so building twice neither shares nor pre-opens twice
+        this.jdkHttpImplementation = builder.httpImplemention == null ? builder.jdkHttpClientImplementationBuilder.build() : null;
+        final HttpImplemention httpImplemention = builder.httpImplemention != null ? builder.httpImplemention : jdkHttpImplementation;
         this.applyDefaultClientServerErrorResponseHandlers = builder.applyDefaultClientServerErrorResponseHandlers;
-        this.httpImplemention = builder.httpImplemention;
-        this.handlerRegistry = builder.handlerRegistry;
-        this.requestPrototype = builder.requestPrototype;
+        this.interceptorChain = new InterceptorChain(builder.interceptors, builder.metered(httpImplemention));
+        this.converterCache = new HttpMessageBodyConverterCache(builder.handlerRegistry);
+        this.requestTemplate = RequestTemplate.compile(builder.requestPrototype);
+        this.hedging = builder.hedging;
+        this.defaultResponseTimeout = builder.responseTimeout;
+        this.defaultRequestTimeout = builder.requestTimeout;
+        this.requestBodyCompressor = builder.requestBodyCompressor;
+        this.jsonStreamReader = builder.jsonStreamReader;
+
+        // Best effort: a failure to pre-open connections is left to surface on the first real request
+        if (jdkHttpImplementation != null) builder.preOpenConnections.forEach(jdkHttpImplementation::preOpenConnections);
     }
 
     private RestClient() {
@@ -48,7 +82,16 @@ public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient
 
     public static class RestClientBuilder {
         private boolean applyDefaultClientServerErrorResponseHandlers = true;
-        private HttpImplemention httpImplemention = new JdkHttpClientImplementation();
+        private HttpImplemention httpImplemention;
+        private final JdkHttpClientImplementation.JdkHttpClientImplementationBuilder jdkHttpClientImplementationBuilder = JdkHttpClientImplementation.builder();
+        private HttpClientMetricsRecorder metricsRecorder;
+        private final List<HttpInterceptor> interceptors = new ArrayList<>();
+        private boolean hedging;
+        private Duration responseTimeout;
+        private Duration requestTimeout;
+        private RequestBodyCompressor requestBodyCompressor;
+        private JsonStreamReader jsonStreamReader;
+        private final Map<URI, Integer> preOpenConnections = new LinkedHashMap<>();
         private HttpMessageBodyConverterRegistry handlerRegistry = SystemHttpMessageBodyConverterRegistry.getInstance();
         private HttpRequest requestPrototype;
 
@@ -70,11 +113,294 @@ public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient
             return this;
         }
 
+        /**
+         * Configures the default JDK HTTP implementation to run on a virtual thread per task executor, so that
+         * blocking calls scale in the same way as asynchronous ones. Requires Java 21+. Has no effect if an HTTP
+         * implementation is set explicitly with {@link #httpImplementation(HttpImplemention)}.
+         *
+         * @return this builder, for method chaining.
+         * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+         * @see RestClient#invokeAllOnVirtualThreads(Collection)
+         */
+        public RestClientBuilder virtualThreads() {
+            jdkHttpClientImplementationBuilder.virtualThreads();
+            return this;
+        }
+
+        /**
+         * Sets the time allowed to establish each new connection of the default JDK HTTP implementation. Has no effect
+         * if an HTTP implementation is set explicitly with {@link #httpImplementation(HttpImplemention)}, which should
+         * be configured with its own connect timeout.
+         *
+         * @param connectTimeout the connect timeout.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder connectTimeout(final Duration connectTimeout) {
+            jdkHttpClientImplementationBuilder.connectTimeout(connectTimeout);
+            return this;
+        }
+
+        /**
+         * Prefers HTTP/2 for requests which do not specify a version, multiplexing requests to each origin over a
+         * single connection where the server supports it and falling back to HTTP/1.1 where it does not. Has no effect
+         * if an HTTP implementation is set explicitly with {@link #httpImplementation(HttpImplemention)}.
+         *
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder preferHttp2() {
+            jdkHttpClientImplementationBuilder.version(java.net.http.HttpClient.Version.HTTP_2);
+            return this;
+        }
+
+        /**
+         * Bounds the number of requests in flight to each origin with the default JDK HTTP implementation, and so
+         * the number of connections opened to it, queueing requests beyond the limit.
+         *
+         * @param maximumConnectionsPerHost the maximum number of requests in flight to each origin.
+         * @return this builder, for method chaining.
+         * @see JdkHttpClientImplementation.JdkHttpClientImplementationBuilder#maximumConnectionsPerHost(int)
+         */
+        public RestClientBuilder maximumConnectionsPerHost(final int maximumConnectionsPerHost) {
+            jdkHttpClientImplementationBuilder.maximumConnectionsPerHost(maximumConnectionsPerHost);
+            return this;
+        }
+
+        /**
+         * Opens connections to an origin in the background when the client is built, so that a burst of traffic
+         * after startup does not pay for connection and TLS handshakes. Applies to the default JDK HTTP implementation
+         * only: building a client which also has an HTTP implementation set explicitly, with
+         * {@link #httpImplementation(HttpImplemention)}, fails. Each client built opens its own connections.
+         *
+         * @param uri a URI on the origin to be sent <code>HEAD</code> requests, ideally a cheap resource such as a
+         * health check.
+         * @param connections the number of connections to open.
+         * @return this builder, for method chaining.
+         * @see JdkHttpClientImplementation#preOpenConnections(URI, int)
+         */
+        public RestClientBuilder preOpenConnections(final URI uri, final int connections) {
+            preOpenConnections.put(uri, connections);
+            return this;
+        }
+
+        /**
+         * Sets whether the default JDK HTTP implementation requests compressed responses and transparently decodes
+         * them, which it does by default. Has no effect if an HTTP implementation is set explicitly with
+         * {@link #httpImplementation(HttpImplemention)}.
+         *
+         * @param decompression true to advertise and decode <code>gzip</code> and <code>deflate</code> content codings.
+         * @return this builder, for method chaining.
+         * @see ContentDecoding
+         */
+        public RestClientBuilder decompression(final boolean decompression) {
+            jdkHttpClientImplementationBuilder.decompression(decompression);
+            return this;
+        }
+
+        /**
+         * Compresses the bodies of requests of at least 8 KiB, or of unknown size, with the <code>gzip</code> content
+         * coding. Only enable request compression for servers known to accept compressed request bodies.
+         *
+         * @return this builder, for method chaining.
+         * @see #requestCompression(long)
+         */
+        public RestClientBuilder requestCompression() {
+            return requestCompression(RequestBodyCompressor.DEFAULT_THRESHOLD);
+        }
+
+        /**
+         * Compresses the bodies of requests of at least the given size, or of unknown size, with the <code>gzip</code>
+         * content coding. Bodies are compressed as they are sent, without buffering either the body or its compressed
+         * form, and so are sent without a <code>Content-Length</code>. Bodies which already have a
+         * <code>Content-Encoding</code> are sent as they are.
+         *
+         * @param threshold the size, in bytes, below which request bodies are not compressed.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder requestCompression(final long threshold) {
+            this.requestBodyCompressor = new RequestBodyCompressor(threshold);
+            return this;
+        }
+
+        /**
+         * Sets the default time to wait for the response headers of each request, once sent. Each attempt of a retried
+         * request has the full response timeout. May be overridden per request with
+         * {@link RequestBuilder#responseTimeout(Duration)}.
+         *
+         * @param responseTimeout the response timeout, or null for no limit.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder responseTimeout(final Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the default total time allowed for each request, from when it is executed until its response has been
+         * received, including any retries. May be overridden per request with {@link RequestBuilder#timeout(Duration)}.
+         *
+         * @param requestTimeout the total request timeout, or null for no limit.
+         * @return this builder, for method chaining.
+         * @see Deadline
+         */
+        public RestClientBuilder requestTimeout(final Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Records the latency, payload sizes, status and concurrency of every request executed by the client, tagged by
+         * host and templated path.
+         *
+         * @param metricsRecorder the recorder of request metrics, such as a {@link SimpleHttpClientMetrics} or a bridge
+         * to a metrics library.
+         * @return this builder, for method chaining.
+         * @see MeteredHttpImplementation
+         */
+        public RestClientBuilder metrics(final HttpClientMetricsRecorder metricsRecorder) {
+            this.metricsRecorder = metricsRecorder;
+            return this;
+        }
+
+        /**
+         * Adds an interceptor to the end of the chain of interceptors around the HTTP implementation. Interceptors
+         * are applied in the order added, the first added being the outermost.
+         *
+         * @param interceptor the interceptor to add.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder interceptor(final HttpInterceptor interceptor) {
+            interceptors.add(interceptor);
+            return this;
+        }
+
+        /**
+         * Adds interceptors, in order, to the end of the chain of interceptors around the HTTP implementation.
+         *
+         * @param interceptors the interceptors to add.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder interceptors(final List<HttpInterceptor> interceptors) {
+            this.interceptors.addAll(interceptors);
+            return this;
+        }
+
+        /**
+         * Caches the responses to GET requests executed by the client, according to their caching headers. The cache
+         * is added to the end of the chain of interceptors, so interceptors added after it see only the requests which
+         * are not served from the cache.
+         *
+         * @param responseCache the response cache.
+         * @return this builder, for method chaining.
+         * @see HttpResponseCache
+         */
+        public RestClientBuilder responseCache(final HttpResponseCache responseCache) {
+            return interceptor(responseCache);
+        }
+
+        /**
+         * Coalesces concurrent, identical GET and HEAD requests into a single execution whose buffered response is
+         * shared by every caller, protecting upstreams from bursts of identical requests. Coalescing is added to the
+         * end of the chain of interceptors, so it applies to requests not already served by interceptors added before
+         * it, such as a {@link #responseCache(HttpResponseCache) response cache}.
+         *
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder coalesceRequests() {
+            return interceptor(new RequestCoalescingInterceptor());
+        }
+
+        /**
+         * Retries failed requests according to the given policy. The retry interceptor is added to the end of the chain
+         * of interceptors, so interceptors added after it are applied to every attempt.
+         *
+         * @param retryPolicy the policy by which requests are retried.
+         * @return this builder, for method chaining.
+         * @see RetryInterceptor
+         */
+        public RestClientBuilder retryPolicy(final RetryPolicy retryPolicy) {
+            return interceptor(new RetryInterceptor(retryPolicy));
+        }
+
+        /**
+         * Applies a circuit breaker per host, failing requests to a degraded host fast with a
+         * {@link RequestRejectedException}. The circuit breaker is added to the end of the chain of interceptors.
+         *
+         * @param circuitBreaker the circuit breaker.
+         * @return this builder, for method chaining.
+         * @see CircuitBreaker
+         */
+        public RestClientBuilder circuitBreaker(final CircuitBreaker circuitBreaker) {
+            return interceptor(circuitBreaker);
+        }
+
+        /**
+         * Applies an adaptive concurrency limit per host, rejecting requests beyond the limit with a
+         * {@link RequestRejectedException}. The limiter is added to the end of the chain of interceptors.
+         *
+         * @param concurrencyLimiter the concurrency limiter.
+         * @return this builder, for method chaining.
+         * @see AdaptiveConcurrencyLimiter
+         */
+        public RestClientBuilder concurrencyLimiter(final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            return interceptor(concurrencyLimiter);
+        }
+
+        /**
+         * Enables hedging of requests marked with {@link RequestBuilder#hedged()}: if such a request has not been
+         * answered within the hedge delay, a second copy is sent and the first response returned. The hedging
+         * interceptor is added to the end of the chain of interceptors, and should be added last so that the losing
+         * request can be cancelled.
+         *
+         * @param hedgingPolicy the policy by which requests are hedged.
+         * @return this builder, for method chaining.
+         * @see HedgingInterceptor
+         */
+        public RestClientBuilder hedgingPolicy(final HedgingPolicy hedgingPolicy) {
+            hedging = true;
+            return interceptor(new HedgingInterceptor(hedgingPolicy));
+        }
+
+        private HttpImplemention metered(final HttpImplemention httpImplemention) {
+            return metricsRecorder != null ? new MeteredHttpImplementation(httpImplemention, metricsRecorder) : httpImplemention;
+        }
+
+        /**
+         * Reads JSON bodies of streamed responses with the given Jackson object mapper, parsing them straight from the
+         * network as they arrive rather than through the {@link #messageBodyHandlers(HttpMessageBodyConverterRegistry)
+         * message body converters}. Applies to requests executed with {@link RequestBuilder#executeStreaming()} or
+         * {@link RequestBuilder#retrieve(Class)}; buffered responses are converted as before.
+         *
+         * @param objectMapper the object mapper with which JSON response bodies are read.
+         * @return this builder, for method chaining.
+         */
+        public RestClientBuilder streamingJson(final ObjectMapper objectMapper) {
+            this.jsonStreamReader = new JsonStreamReader(objectMapper);
+            return this;
+        }
+
+        /**
+         * Reads JSON bodies of streamed responses with a default Jackson object mapper, parsing them straight from the
+         * network as they arrive.
+         *
+         * @return this builder, for method chaining.
+         * @see #streamingJson(ObjectMapper)
+         */
+        public RestClientBuilder streamingJson() {
+            return streamingJson(new ObjectMapper());
+        }
+
         public RestClientBuilder messageBodyHandlers(final HttpMessageBodyConverterRegistry handlerRegistry) {
             this.handlerRegistry = handlerRegistry;
             return this;
         }
 
+        /**
+         * Sets the prototype supplying the defaults of every request executed by the client, such as a base URI and
+         * common headers. The prototype is compiled once, when the client is built, and layered under each request.
+         *
+         * @param requestPrototype the request prototype.
+         * @return this builder, for method chaining.
+         */
         public RestClientBuilder requestPrototype(final HttpRequest requestPrototype) {
             this.requestPrototype = requestPrototype;
             return this;
@@ -94,6 +420,9 @@ public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient
     public class RequestBuilder implements HttpRequest.HttpRequestBuilderSpec<RequestBuilder> {
         private final HttpRequest.HttpRequestBuilder<?, ?> httpRequestBuilder;
         private Object body;
+        private Map<String, Object> attributes = Collections.emptyMap();
+        private Duration timeout;
+        private Duration responseTimeout;
 
         private Request request;
 
@@ -190,28 +519,270 @@ public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient
             return this;
         }
 
+        /**
+         * Sets an attribute of the request, which is made available to interceptors through
+         * {@link HttpInterceptor.Chain#attributes()} but is not sent with the request.
+         *
+         * @param name the name of the attribute.
+         * @param value the value of the attribute.
+         * @return this builder, for method chaining.
+         */
+        public RequestBuilder attribute(final String name, final Object value) {
+            if (attributes.isEmpty()) {
+                attributes = new HashMap<>();
+            }
+            attributes.put(name, value);
+            return this;
+        }
+
+        /**
+         * Marks the request as safe to retry under a {@link RestClientBuilder#retryPolicy(RetryPolicy) retry policy},
+         * even though its method is not idempotent, for example a POST carrying an idempotency key.
+         *
+         * @return this builder, for method chaining.
+         */
+        public RequestBuilder retryable() {
+            return attribute(RetryPolicy.RETRYABLE_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        /**
+         * Hedges the request, if it is a read, after the delay of the client's
+         * {@link RestClientBuilder#hedgingPolicy(HedgingPolicy) hedging policy}.
+         *
+         * @return this builder, for method chaining.
+         * @throws IllegalStateException if the client has no hedging policy.
+         */
+        public RequestBuilder hedged() {
+            return hedged(Boolean.TRUE);
+        }
+
+        /**
+         * Hedges the request, if it is a read, after the given delay.
+         *
+         * @param delay the delay after which a second copy of the request is sent if no response has been received.
+         * @return this builder, for method chaining.
+         * @throws IllegalStateException if the client has no hedging policy.
+         */
+        public RequestBuilder hedged(final Duration delay) {
+            return hedged((Object) delay);
+        }
+
+        /**
+         * Sets the total time allowed for the request, from when it is executed until its response has been received,
+         * including any retries, overriding the client's {@link RestClientBuilder#requestTimeout(Duration) request
+         * timeout}. A shorter {@link Deadline} bound to the executing thread takes precedence.
+         *
+         * @param timeout the total request timeout.
+         * @return this builder, for method chaining.
+         */
+        public RequestBuilder timeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the time to wait for the response headers of the request, once sent, overriding the client's
+         * {@link RestClientBuilder#responseTimeout(Duration) response timeout}.
+         *
+         * @param responseTimeout the response timeout.
+         * @return this builder, for method chaining.
+         */
+        public RequestBuilder responseTimeout(final Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        private RequestBuilder hedged(final Object hedge) {
+            if (!hedging) throw new IllegalStateException("Hedging requires a client configured with a hedging policy");
+            return attribute(HedgingPolicy.HEDGE_ATTRIBUTE, hedge);
+        }
+
         @SuppressWarnings("unchecked")
         private <T> Resource bodyFromConversion(final T body) {
             Assert.notNull(request, "Something has occurred out of order - the HTTP request has not yet been built!");
             MediaType mediaType = request.getContentType().orElse(MediaTypes.Application.OCTET_STREAM);
-            HttpMessageBodyConverter<T> handler = handlerRegistry.findFromConverters(mediaType, (Class<T>) body.getClass())
-                                                                 .findFirst().orElseThrow(() -> new RestClientException("No handler configured to send request body [" + body.getClass() + "] of media type [" + mediaType.getName() + "]."));
+            HttpMessageBodyConverter<T> handler = converterCache.findConverter(mediaType, (Class<T>) body.getClass())
+                                                                .orElseThrow(() -> new RestClientException("No handler configured to send request body [" + body.getClass() + "] of media type [" + mediaType.getName() + "]."));
             return handler.convertTo(body, request);
         }
 
-        public ExecutedRequest execute() {
-            HttpRequest request = requestPrototype != null ? requestPrototype.merge(httpRequestBuilder.build()) : httpRequestBuilder.build();
-            this.request = request;
+        private Map<String, Object> requestAttributes() {
+            final ExchangeTimeouts timeouts = exchangeTimeouts();
+            if (timeouts != null) {
+                attribute(ExchangeTimeouts.ATTRIBUTE, timeouts);
+            }
+            return attributes.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(attributes);
+        }
+
+        /**
+         * Resolves the timeouts of an execution of the request, starting its total timeout, if any, now.
+         *
+         * @return the timeouts of the execution, or null if it has none.
+         */
+        private ExchangeTimeouts exchangeTimeouts() {
+            final Duration totalTimeout = timeout != null ? timeout : defaultRequestTimeout;
+            final Duration headersTimeout = responseTimeout != null ? responseTimeout : defaultResponseTimeout;
+
+            Deadline deadline = Deadline.current().orElse(null);
+            if (totalTimeout != null) {
+                deadline = Deadline.after(totalTimeout).earliest(deadline);
+            }
+
+            return headersTimeout == null && deadline == null ? null : new ExchangeTimeouts(headersTimeout, deadline);
+        }
 
-            if (body != null) {
-                request = request.merge(HttpRequest.builder().method(request.getMethod()).body(bodyFromConversion(body)).build());
+        private HttpRequest buildRequest() {
+            final HttpRequest specificRequest = httpRequestBuilder.build();
+            this.request = requestTemplate.conversionContext(specificRequest);
+
+            // The converted body is set on the request itself, so that it is layered over the prototype in one merge
+            HttpRequest request = requestTemplate.apply(body == null ? specificRequest : httpRequestBuilder.body(bodyFromConversion(body)).build());
+            if (requestBodyCompressor != null) {
+                request = requestBodyCompressor.compress(request);
             }
 
-            HttpResponse response = httpImplemention.execute(request);
+            return request;
+        }
+
+        public ExecutedRequest execute() {
+            HttpRequest request = buildRequest();
+            HttpResponse response = interceptorChain.execute(request, requestAttributes());
             return new ExecutedRequest(request, response);
         }
 
-        public class ExecutedRequest {
+        /**
+         * Executes the request, returning as soon as the response headers have been received and without buffering
+         * the response body. The body is read from the network as it is consumed, so the returned request must be
+         * closed once finished with, ideally with try-with-resources:
+         *
+         * <pre>
+         * try (ExecutedRequest executed = client.get(uri).executeStreaming()) {
+         *     return executed.body(Export.class);
+         * }
+         * </pre>
+         *
+         * @return the executed request, whose response body is backed by the live response stream.
+         */
+        public ExecutedRequest executeStreaming() {
+            HttpRequest request = buildRequest();
+            HttpResponse response = interceptorChain.executeStreaming(request, requestAttributes());
+            return new ExecutedRequest(request, response);
+        }
+
+        /**
+         * Executes the request and reads the response body as the given type, streaming the body from the network
+         * into its conversion rather than buffering it first, and releasing the response once read. With
+         * {@link RestClientBuilder#streamingJson()} JSON bodies are parsed as they arrive.
+         *
+         * @param responseType the type to read the response body as.
+         * @return the response body, converted to the given type.
+         * @throws RestErrorResponseException if the response is unsuccessful and default error handling is applied.
+         */
+        public <T> T retrieve(final Class<T> responseType) throws RestErrorResponseException {
+            try (ExecutedRequest executed = executeStreaming()) {
+                return executed.body(responseType);
+            }
+        }
+
+        /**
+         * Returns a publisher of the elements of a long-lived streamed response, such as newline-delimited JSON or
+         * server-sent events, each decoded as JSON to the given type.
+         *
+         * @param elementType the type to decode each element as.
+         * @return a publisher executing the request when first asked for elements.
+         * @see #executePublisher(Class, MediaType)
+         */
+        public <T> Flow.Publisher<T> executePublisher(final Class<T> elementType) {
+            return executePublisher(elementType, MediaTypes.Application.JSON);
+        }
+
+        /**
+         * Returns a publisher of the elements of a long-lived streamed response, each decoded to the given type by the
+         * message body converters as a body of the given media type. A <code>text/event-stream</code> response is
+         * read as server-sent events, whose data are the elements; any other as newline-delimited elements, such as
+         * NDJSON. String elements are published as they are read, undecoded.
+         *
+         * <p>The request is executed, streaming, when the subscriber first signals demand, and elements are read from
+         * the network only as they are asked for, so a slow subscriber slows the transfer rather than elements
+         * accumulating in memory. Cancelling the subscription releases the connection. The publisher allows a single
+         * subscriber; an unsuccessful response is signalled as an error, as
+         * {@link RestErrorResponseException}, when default error handling is applied. A {@link Deadline} bound to the
+         * thread calling this method bounds the execution of the request, although it is executed on another.</p>
+         *
+         * <pre>
+         * client.get(pricesUri).executePublisher(PriceTick.class).subscribe(priceSubscriber);
+         * </pre>
+         *
+         * @param elementType the type to decode each element as.
+         * @param elementMediaType the media type of each element.
+         * @return a publisher executing the request when first asked for elements.
+         * @throws RestClientException if no message body converter can decode elements of the media type to the type.
+         */
+        public <T> Flow.Publisher<T> executePublisher(final Class<T> elementType, final MediaType elementMediaType) {
+            final Function<String, T> decoder = elementDecoderFor(elementType, elementMediaType);
+            final Supplier<HttpResponse> execution = () -> {
+                final ExecutedRequest executed = executeStreaming();
+                if (applyDefaultClientServerErrorResponseHandlers && !executed.response.getStatus().is2xxSuccessful()) {
+                    executed.close();
+                    throw new RestErrorResponseException(executed.request.getUri().toString(), executed.response.getStatusCode());
+                }
+                return executed.response;
+            };
+
+            // The request is executed on a thread of the publisher, so the deadline of the calling thread is bound there
+            final Deadline deadline = Deadline.current().orElse(null);
+            return new ElementStreamPublisher<>(deadline == null ? execution : () -> deadline.supply(execution), decoder);
+        }
+
+        private <T> Function<String, T> elementDecoderFor(final Class<T> elementType, final MediaType elementMediaType) {
+            if (elementType == String.class) return elementType::cast;
+
+            // Resolved once for the stream, rather than for each element
+            final HttpMessageBodyConverter<T> converter = converterCache.findConverter(elementMediaType, elementType)
+                                                                        .orElseThrow(() -> new RestClientException("Unable to read type [" + TypeUtil.getBaseName(elementType)
+                                                                                + "] from streamed response elements of media type [" + elementMediaType.getName()
+                                                                                + "]: no HTTP message converter between those types was found"));
+            final String contentType = elementMediaType.getCanonicalForm();
+            return element -> converter.convertFrom(elementType, HttpResponse.builder()
+                                                                             .statusCode(200)
+                                                                             .header(HttpHeaders.CONTENT_TYPE, contentType)
+                                                                             .body(new CharSequenceResource(element))
+                                                                             .build());
+        }
+
+        /**
+         * Executes the request asynchronously. The request, including any body conversion, is built on the calling
+         * thread but the exchange itself is delegated to {@link HttpImplemention#executeAsync(HttpRequest)}, so
+         * no thread is held for the round trip when the underlying implementation is non-blocking.
+         *
+         * @return a future which completes with the executed request once the response has been received.
+         */
+        public CompletableFuture<ExecutedRequest> executeAsync() {
+            return executeAsync(buildRequest());
+        }
+
+        /**
+         * Builds the request, including any body conversion, ready to be executed later.
+         *
+         * @return the request as it is to be sent.
+         */
+        HttpRequest prepare() {
+            return buildRequest();
+        }
+
+        /**
+         * Executes a request previously {@link #prepare() prepared} by this builder asynchronously, starting any total
+         * timeout now.
+         *
+         * @param request the prepared request.
+         * @return a future which completes with the executed request once the response has been received.
+         */
+        CompletableFuture<ExecutedRequest> executeAsync(final HttpRequest request) {
+            return interceptorChain.executeAsync(request, requestAttributes())
+                                   .thenApply(response -> new ExecutedRequest(request, response));
+        }
+
+        public class ExecutedRequest implements AutoCloseable {
             private final HttpRequest request;
             private final HttpResponse response;
 
@@ -459,21 +1030,199 @@ public class RestClient implements HttpRequest.HttpRequestBuilderSpec<RestClient
                 return response;
             }
 
+            /**
+             * Releases any resources held by the response. For responses obtained by {@link #executeStreaming()} this
+             * closes the live response body stream; for buffered responses this is a no-op.
+             */
+            @Override
+            public void close() {
+                if (response.getBody() instanceof StreamingResponseBody streamingBody) {
+                    streamingBody.close();
+                }
+            }
+
             private <T> Function<Response, T> bodyConverterFor(final Class<T> responseType) {
                 return response -> {
                     final MediaType mediaType = response.getContentType().orElse(MediaTypes.Application.OCTET_STREAM);
-                    return handlerRegistry.findFromConverters(mediaType, responseType)
-                                          .findFirst()
-                                          .map(h -> h.convertFrom(responseType, response))
-                                          .orElseThrow(() -> new RestClientException("Unable to read type [" + TypeUtil.getBaseName(responseType)
-                                                  + "] from HTTP response media type [" + mediaType.getName()
-                                                  + "]: no HTTP message converter between those types was found"
-                                          ));
+                    try {
+                        if (jsonStreamReader != null && response.getBody() instanceof StreamingResponseBody streamingBody && JsonStreamReader.isJson(mediaType)) {
+                            return jsonStreamReader.read(responseType, streamingBody.getInputStream());
+                        }
+
+                        return converterCache.findConverter(mediaType, responseType)
+                                             .map(h -> h.convertFrom(responseType, response))
+                                             .orElseThrow(() -> new RestClientException("Unable to read type [" + TypeUtil.getBaseName(responseType)
+                                                     + "] from HTTP response media type [" + mediaType.getName()
+                                                     + "]: no HTTP message converter between those types was found"
+                                             ));
+                    } finally {
+                        // A streamed body can only be read once, so release the connection as soon as it is converted
+                        close();
+                    }
                 };
             }
         }
     }
 
+    /**
+     * Invalidates the cache of converter lookups held by this client. The client resolves the converter for each
+     * media type and Java type once, so this must be called if converters are subsequently added to or removed from
+     * the {@link HttpMessageBodyConverterRegistry} the client was built with.
+     */
+    public void invalidateConverterCache() {
+        converterCache.invalidate();
+    }
+
+    /**
+     * Warms the client up, ahead of it taking traffic: resolves the hosts warmed, opens connections to them and
+     * executes synthetic requests through the client, converting their bodies, so that the JIT has compiled the
+     * request and conversion paths. The steps run in that order, each step's work concurrently, and the client is
+     * {@link #isWarm() warm} once all have succeeded.
+     *
+     * @param warmUp what to warm up.
+     * @return a future completing once the client is warm, or exceptionally with the first failure, such as a
+     * synthetic request failing with a {@link RestErrorResponseException}.
+     */
+    public CompletableFuture<Void> warmUp(final ClientWarmUp warmUp) {
+        return CompletableFuture.allOf(resolveHosts(warmUp))
+                                .thenCompose(resolved -> CompletableFuture.allOf(openConnections(warmUp)))
+                                .thenCompose(connected -> CompletableFuture.allOf(warmUp.getRequests().stream()
+                                                                                         .map(this::executeSynthetic)
+                                                                                         .toArray(CompletableFuture<?>[]::new)))
+                                .thenRun(() -> warm = true);
+    }
+
+    /**
+     * Whether a {@link #warmUp(ClientWarmUp) warm-up} of the client has completed successfully, for use in a
+     * readiness check.
+     *
+     * @return true if the client has been warmed up.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    private static CompletableFuture<?>[] resolveHosts(final ClientWarmUp warmUp) {
+        // Without a DNS cache, hosts are resolved through the JVM's address cache as connections are opened to them
+        final DnsCache dnsCache = warmUp.getDnsCache();
+        if (dnsCache == null) return new CompletableFuture<?>[0];
+
+        return warmUp.getHosts().stream()
+                     .map(dnsCache::keepWarm)
+                     .toArray(CompletableFuture<?>[]::new);
+    }
+
+    private CompletableFuture<?>[] openConnections(final ClientWarmUp warmUp) {
+        // Connections can only be opened ahead of use with the default JDK HTTP implementation
+        if (jdkHttpImplementation == null) return new CompletableFuture<?>[0];
+
+        return warmUp.getConnections().entrySet().stream()
+                     .map(connections -> jdkHttpImplementation.preOpenConnections(connections.getKey(), connections.getValue()))
+                     .toArray(CompletableFuture<?>[]::new);
+    }
+
+    private CompletableFuture<Void> executeSynthetic(final ClientWarmUp.SyntheticRequest synthetic) {
+        // Executed one after another, so as to exercise the same paths repeatedly rather than flood the upstream
+        CompletableFuture<Void> executions = CompletableFuture.completedFuture(null);
+        for (int n = 0; n < synthetic.repetitions(); n++) {
+            executions = executions.thenCompose(previous -> method("GET").uri(synthetic.uri()).executeAsync())
+                                   .thenAccept(executed -> executed.body(synthetic.responseType()));
+        }
+        return executions;
+    }
+
+    /**
+     * Executes a batch of requests with bounded concurrency, returning their results as they complete.
+     *
+     * @param requests the requests to execute, read lazily as the results are consumed.
+     * @param maximumConcurrency the maximum number of requests in flight or completed but not yet consumed.
+     * @return the execution, iterating over the results in the order they complete.
+     * @see #executeAll(Iterable, int, int)
+     */
+    public BatchExecution executeAll(final Iterable<? extends RequestBuilder> requests, final int maximumConcurrency) {
+        return executeAll(requests, maximumConcurrency, maximumConcurrency);
+    }
+
+    /**
+     * Executes a batch of requests with bounded concurrency and per-host fairness, returning their results as they
+     * complete. Requests are executed asynchronously and dispatched from the consuming thread as results are taken,
+     * so a slow consumer holds back dispatch rather than results accumulating in memory, and the requests themselves
+     * are read lazily, a little ahead of dispatch:
+     *
+     * <pre>
+     * try (Stream&lt;BatchExecution.Result&gt; results = client.executeAll(ids.stream().map(id -&gt; client.get(ordersUri + id)), 32, 8).stream()) {
+     *     results.map(result -&gt; result.body(Order.class)).forEach(orders::index);
+     * }
+     * </pre>
+     *
+     * @param requests the requests to execute, read lazily as the results are consumed.
+     * @param maximumConcurrency the maximum number of requests in flight or completed but not yet consumed.
+     * @param maximumConcurrencyPerHost the maximum number of requests in flight to any one origin.
+     * @return the execution, iterating over the results in the order they complete.
+     * @see BatchExecution
+     */
+    public BatchExecution executeAll(final Iterable<? extends RequestBuilder> requests, final int maximumConcurrency, final int maximumConcurrencyPerHost) {
+        return new BatchExecution(requests.iterator(), maximumConcurrency, maximumConcurrencyPerHost, () -> {});
+    }
+
+    /**
+     * Executes a stream of requests with bounded concurrency, returning their results as they complete. The stream is
+     * closed when the execution is closed.
+     *
+     * @param requests the requests to execute, read lazily as the results are consumed.
+     * @param maximumConcurrency the maximum number of requests in flight or completed but not yet consumed.
+     * @return the execution, iterating over the results in the order they complete.
+     * @see #executeAll(Iterable, int, int)
+     */
+    public BatchExecution executeAll(final Stream<? extends RequestBuilder> requests, final int maximumConcurrency) {
+        return executeAll(requests, maximumConcurrency, maximumConcurrency);
+    }
+
+    /**
+     * Executes a stream of requests with bounded concurrency and per-host fairness, returning their results as they
+     * complete. The stream is closed when the execution is closed.
+     *
+     * @param requests the requests to execute, read lazily as the results are consumed.
+     * @param maximumConcurrency the maximum number of requests in flight or completed but not yet consumed.
+     * @param maximumConcurrencyPerHost the maximum number of requests in flight to any one origin.
+     * @return the execution, iterating over the results in the order they complete.
+     * @see #executeAll(Iterable, int, int)
+     */
+    public BatchExecution executeAll(final Stream<? extends RequestBuilder> requests, final int maximumConcurrency, final int maximumConcurrencyPerHost) {
+        return new BatchExecution(requests.iterator(), maximumConcurrency, maximumConcurrencyPerHost, requests::close);
+    }
+
+    /**
+     * Runs a batch of blocking calls concurrently, each on its own virtual thread, and waits for them all to complete.
+     * This allows the simple, blocking {@link RequestBuilder#execute()} style to be used for fan-out without
+     * holding a platform thread per call. Requires Java 21+.
+     *
+     * @param calls the blocking calls to run, typically each executing a request with this client.
+     * @return the results of the calls, in the same order as the calls were given.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     * @throws RestClientException if any call failed with a checked exception, or the caller was interrupted. Unchecked
+     * exceptions thrown by a call are rethrown as-is.
+     */
+    public <T> List<T> invokeAllOnVirtualThreads(final Collection<? extends Callable<T>> calls) {
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            List<T> results = new ArrayList<>(calls.size());
+            for (Future<T> future : executor.invokeAll(calls)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException execEx) {
+            if (execEx.getCause() instanceof RuntimeException runtimeEx) throw runtimeEx;
+            if (execEx.getCause() instanceof Error error) throw error;
+            throw new RestClientException("Error running blocking call on virtual thread: " + execEx.getCause().getMessage(), execEx.getCause());
+        } catch (InterruptedException intEx) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted waiting for blocking calls on virtual threads", intEx);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Creates a builder of HTTP Requests, ready to then be executed,
      *
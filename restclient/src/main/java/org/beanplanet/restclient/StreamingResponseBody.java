@@ -0,0 +1,126 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.io.resource.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A response body resource backed by the live input stream of an HTTP exchange. Unlike a buffered body, the content
+ * may only be read once, as it arrives from the network, and the resource must be closed by the caller to release
+ * the underlying connection.
+ *
+ * <p>A body may instead be backed by a publisher of the byte buffers of the exchange, which requests more of the body
+ * from the connection only as its subscriber signals demand. Such a body can be consumed without blocking, through
+ * {@link #getPublisher()}, or read as a stream, through {@link #getInputStream()}, but not both.</p>
+ */
+public class StreamingResponseBody extends AbstractResource implements AutoCloseable {
+    private final Flow.Publisher<List<ByteBuffer>> publisher;
+    private final long contentLength;
+    private final ReentrantLock lock = new ReentrantLock();
+    private InputStream inputStream;
+    private boolean published;
+
+    /**
+     * Constructs a new streaming response body over the given live input stream.
+     *
+     * @param inputStream the input stream of the HTTP response body, as it is received.
+     * @param contentLength the length of the content, if known from the response headers, or -1 if unknown.
+     */
+    public StreamingResponseBody(final InputStream inputStream, final long contentLength) {
+        this.publisher = null;
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Constructs a new streaming response body over the given live publisher of the body.
+     *
+     * @param publisher the publisher of the HTTP response body, as it is received, which may be subscribed to once.
+     * @param contentLength the length of the content, if known from the response headers, or -1 if unknown.
+     */
+    public StreamingResponseBody(final Flow.Publisher<List<ByteBuffer>> publisher, final long contentLength) {
+        this.publisher = publisher;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Returns the live input stream of the response. The same stream is returned on every call, so the body can
+     * only be consumed once.
+     *
+     * @return the input stream of the response body.
+     * @throws IllegalStateException if the body has already been consumed through {@link #getPublisher()}.
+     */
+    @Override
+    public InputStream getInputStream() {
+        lock.lock();
+        try {
+            if (inputStream == null) {
+                if (published) throw new IllegalStateException("The streamed response body is already being consumed by a subscriber");
+
+                final BodySubscriber<InputStream> streamSubscriber = BodySubscribers.ofInputStream();
+                publisher.subscribe(streamSubscriber);
+                inputStream = streamSubscriber.getBody().toCompletableFuture().join();
+            }
+            return inputStream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the live publisher of the response, through which the body may be consumed without blocking, with
+     * demand forwarded to the connection. The body is then consumed by the subscriber, which is responsible for
+     * cancelling its subscription to release the connection if it does not read the body to the end.
+     *
+     * @return the publisher of the response body, or empty if the body is not backed by one or has already been
+     * consumed.
+     */
+    public Optional<Flow.Publisher<List<ByteBuffer>>> getPublisher() {
+        lock.lock();
+        try {
+            if (publisher == null || inputStream != null || published) return Optional.empty();
+
+            published = true;
+            return Optional.of(publisher);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the body is backed by a publisher, so its input stream is an adaptation of it rather than decoded.
+     */
+    boolean isPublisherBacked() {
+        return publisher != null;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Closes the underlying input stream, releasing the connection back to the HTTP implementation. A body being
+     * consumed through {@link #getPublisher()} is left to its subscriber.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!published) getInputStream().close();
+        } catch (IOException ioEx) {
+            throw new IoException("Error closing HTTP response body stream: " + ioEx.getMessage(), ioEx);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
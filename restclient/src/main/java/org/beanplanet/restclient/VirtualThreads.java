@@ -0,0 +1,55 @@
+package org.beanplanet.restclient;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, where the running JVM supports them (Java 21+). The library itself is compiled for
+ * Java 17, so the virtual thread factory methods are looked up reflectively.
+ */
+final class VirtualThreads {
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {}
+
+    /**
+     * Whether virtual threads are supported by the running JVM.
+     *
+     * @return true if virtual threads are available, false otherwise.
+     */
+    static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a new executor which starts a new virtual thread for each task.
+     *
+     * @return a new virtual thread per task executor.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM [" + Runtime.version()
+                    + "]: Java 21 or later is required.");
+        }
+
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable th) {
+            throw new RestClientException("Unable to create virtual thread executor: " + th.getMessage(), th);
+        }
+    }
+
+    private static MethodHandle findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException notSupportedEx) {
+            return null;
+        }
+    }
+}
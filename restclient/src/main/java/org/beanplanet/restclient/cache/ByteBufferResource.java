@@ -0,0 +1,101 @@
+package org.beanplanet.restclient.cache;
+
+import org.beanplanet.core.io.resource.AbstractResource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A read-only resource over the remaining content of a {@link ByteBuffer}, which may be a heap, direct or
+ * memory-mapped buffer. Each stream or read of the resource is over an independent view of the buffer, so the resource
+ * may be read any number of times and by concurrent readers.
+ */
+public class ByteBufferResource extends AbstractResource {
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a new resource over the remaining content of the given buffer.
+     *
+     * @param buffer the buffer, whose position and limit are not modified.
+     */
+    public ByteBufferResource(final ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns an independent, read-only view of the content of this resource.
+     *
+     * @return a read-only buffer over the content.
+     */
+    public ByteBuffer getByteBuffer() {
+        return buffer.duplicate();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public boolean canRead() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public byte[] readFullyAsBytes() {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String readFullyAsString(final Charset charset) {
+        return charset.decode(buffer.duplicate()).toString();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
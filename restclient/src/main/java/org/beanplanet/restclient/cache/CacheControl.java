@@ -0,0 +1,86 @@
+package org.beanplanet.restclient.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The directives of a {@code Cache-Control} header, as defined by RFC 9111 section 5.2. Directive names are
+ * case-insensitive and quoted argument values are unquoted.
+ */
+final class CacheControl {
+    static final CacheControl NONE = new CacheControl(Collections.emptyMap());
+
+    static final String MAX_AGE = "max-age";
+    static final String MAX_STALE = "max-stale";
+    static final String MIN_FRESH = "min-fresh";
+    static final String MUST_REVALIDATE = "must-revalidate";
+    static final String NO_CACHE = "no-cache";
+    static final String NO_STORE = "no-store";
+    static final String ONLY_IF_CACHED = "only-if-cached";
+    static final String PUBLIC = "public";
+    static final String S_MAXAGE = "s-maxage";
+
+    /** The value of a directive whose argument is absent or is not a valid number of seconds. */
+    static final long UNSPECIFIED = -1;
+
+    private static final long MAXIMUM_DELTA_SECONDS = 1L << 31;
+
+    private final Map<String, String> directives;
+
+    private CacheControl(final Map<String, String> directives) {
+        this.directives = directives;
+    }
+
+    static CacheControl parse(final Optional<String> header) {
+        return header.map(CacheControl::parse).orElse(NONE);
+    }
+
+    static CacheControl parse(final String header) {
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : header.split(",")) {
+            int equals = directive.indexOf('=');
+            String name = (equals < 0 ? directive : directive.substring(0, equals)).trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) continue;
+
+            String value = equals < 0 ? "" : directive.substring(equals + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            directives.putIfAbsent(name, value);
+        }
+        return directives.isEmpty() ? NONE : new CacheControl(directives);
+    }
+
+    boolean has(final String directive) {
+        return directives.containsKey(directive);
+    }
+
+    /**
+     * Returns the argument of a directive whose value is a number of seconds, such as {@code max-age}.
+     *
+     * @param directive the directive name.
+     * @return the number of seconds, or {@link #UNSPECIFIED} if the directive is absent or has no valid argument.
+     */
+    long seconds(final String directive) {
+        return deltaSeconds(directives.get(directive));
+    }
+
+    /**
+     * Parses a delta-seconds value, as used by directive arguments and the {@code Age} header.
+     *
+     * @param value the value to parse, which may be null.
+     * @return the number of seconds, or {@link #UNSPECIFIED} if the value is absent or invalid.
+     */
+    static long deltaSeconds(final String value) {
+        if (value == null || value.isEmpty()) return UNSPECIFIED;
+
+        for (int n = 0; n < value.length(); n++) {
+            if (value.charAt(n) < '0' || value.charAt(n) > '9') return UNSPECIFIED;
+        }
+        // Per RFC 9111 section 1.2.2, delta-seconds too large to represent are treated as 2^31
+        return value.length() > 10 ? MAXIMUM_DELTA_SECONDS : Math.min(Long.parseLong(value), MAXIMUM_DELTA_SECONDS);
+    }
+}
@@ -0,0 +1,144 @@
+package org.beanplanet.restclient.cache;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * An immutable response held by a {@link HttpCacheStore}: the status, headers and body of the response together with
+ * the times it was requested and received, from which its age is calculated, and the request header values it was
+ * selected by, as nominated by its {@code Vary} header.
+ */
+public final class CachedResponse {
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final ByteBuffer body;
+    private final Map<String, String> varyValues;
+    private final long requestTimeMillis;
+    private final long responseTimeMillis;
+    private final long weight;
+
+    /**
+     * Constructs a new cached response.
+     *
+     * @param statusCode the status code of the response.
+     * @param headers the headers of the response.
+     * @param body the body of the response, whose remaining content is cached. The buffer is not copied.
+     * @param varyValues the values of the request headers nominated by the {@code Vary} header of the response, keyed
+     * by header name, with an empty value for headers absent from the request.
+     * @param requestTimeMillis the time the request was sent, in milliseconds since the epoch.
+     * @param responseTimeMillis the time the response was received, in milliseconds since the epoch.
+     */
+    public CachedResponse(final int statusCode,
+                          final Map<String, List<String>> headers,
+                          final ByteBuffer body,
+                          final Map<String, String> varyValues,
+                          final long requestTimeMillis,
+                          final long responseTimeMillis) {
+        this.statusCode = statusCode;
+        this.headers = caseInsensitiveCopy(headers);
+        this.body = body.asReadOnlyBuffer();
+        this.varyValues = Collections.unmodifiableMap(new TreeMap<>(varyValues));
+        this.requestTimeMillis = requestTimeMillis;
+        this.responseTimeMillis = responseTimeMillis;
+        this.weight = weigh(this.headers, this.body);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the headers of the response.
+     *
+     * @return an unmodifiable, case-insensitive map of the response headers.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the values of the named header, combined into a single comma-separated value.
+     *
+     * @param name the header name, which is case-insensitive.
+     * @return the combined header value, or empty if the header is absent.
+     */
+    public Optional<String> getHeader(final String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? Optional.empty() : Optional.of(String.join(", ", values));
+    }
+
+    /**
+     * Returns an independent, read-only view of the response body.
+     *
+     * @return a read-only buffer over the response body.
+     */
+    public ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * Returns the values of the request headers nominated by the {@code Vary} header of the response.
+     *
+     * @return an unmodifiable map of request header values, keyed by header name.
+     */
+    public Map<String, String> getVaryValues() {
+        return varyValues;
+    }
+
+    public long getRequestTimeMillis() {
+        return requestTimeMillis;
+    }
+
+    public long getResponseTimeMillis() {
+        return responseTimeMillis;
+    }
+
+    /**
+     * Returns the approximate memory footprint of this response, by which stores bounded in size weigh it.
+     *
+     * @return the approximate size of this response, in bytes.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns a copy of this response with the headers, request and response times of a {@code 304 Not Modified}
+     * response which validated it. The headers of the validating response replace those of the same name, other than
+     * {@code Content-Length} which describes the stored body.
+     *
+     * @param validatingHeaders the headers of the validating response.
+     * @param requestTimeMillis the time the validating request was sent, in milliseconds since the epoch.
+     * @param responseTimeMillis the time the validating response was received, in milliseconds since the epoch.
+     * @return the updated response.
+     */
+    public CachedResponse revalidated(final Map<String, List<String>> validatingHeaders, final long requestTimeMillis, final long responseTimeMillis) {
+        Map<String, List<String>> updatedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        updatedHeaders.putAll(headers);
+        validatingHeaders.forEach((name, values) -> {
+            if (!"Content-Length".equalsIgnoreCase(name)) {
+                updatedHeaders.put(name, values);
+            }
+        });
+        return new CachedResponse(statusCode, updatedHeaders, body, varyValues, requestTimeMillis, responseTimeMillis);
+    }
+
+    private static long weigh(final Map<String, List<String>> headers, final ByteBuffer body) {
+        long weight = ENTRY_OVERHEAD + body.remaining();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return weight;
+    }
+
+    private static Map<String, List<String>> caseInsensitiveCopy(final Map<String, List<String>> headers) {
+        Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,437 @@
+package org.beanplanet.restclient.cache;
+
+import org.beanplanet.core.io.IoException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache store, holding responses in memory-mapped segment files on local disk so that they survive
+ * restarts and their bodies are served straight from the page cache, through a {@link ByteBufferResource} over the
+ * mapped file, without a copy onto the heap.
+ *
+ * <p>Segments are append-only logs of records, each holding a cache key, the response metadata and the response body.
+ * A compact index of the location of the latest record for each key is kept in memory and rebuilt by scanning the
+ * segments when the store is opened. Removal appends a tombstone record. When the total size of the segments exceeds
+ * the maximum size of the store, the oldest segment is deleted together with the responses it holds.</p>
+ *
+ * <p>Each record carries a CRC32 checksum of its key, metadata and body, which is verified as the segments are
+ * scanned. The operating system may write the pages of a mapped segment back to disk in any order, so a crash can
+ * leave a record's leading marker on disk without the whole of its body; such a record fails its checksum and is
+ * ignored, along with the remainder of its segment, when the store is next opened. Records are not forced to disk as
+ * they are written, so the responses stored shortly before a crash may be lost, but a corrupt response is never
+ * served.</p>
+ *
+ * <p>Mapped segments cannot be unmapped explicitly, so the files of deleted segments may remain in use until the
+ * responses served from them have been garbage collected. Platforms which prevent the deletion of files in use may
+ * therefore retain deleted segments until the next restart.</p>
+ *
+ * @see TieredHttpCacheStore
+ */
+public class DiskHttpCacheStore implements HttpCacheStore, Closeable {
+    /** The default maximum total size of the segment files, 256MiB. */
+    public static final long DEFAULT_MAXIMUM_SIZE = 256L * 1024 * 1024;
+    /** The default size of each segment file, 16MiB. */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".dat";
+    private static final int RECORD_MARKER = 0x52434332;
+    private static final int TOMBSTONE = -1;
+    /** The offset within a record of its key length, from which its checksum is calculated. */
+    private static final int CHECKSUMMED_OFFSET = 2 * Integer.BYTES;
+    /** The marker, checksum, key length, metadata length and body length of a record. */
+    private static final int RECORD_HEADER_SIZE = 5 * Integer.BYTES;
+
+    private final Path directory;
+    private final long maximumSize;
+    private final int segmentSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private long nextSegmentNumber;
+
+    private DiskHttpCacheStore(final DiskHttpCacheStoreBuilder builder) {
+        this.directory = builder.directory;
+        this.maximumSize = builder.maximumSize;
+        this.segmentSize = builder.segmentSize;
+        if (directory == null) throw new IllegalArgumentException("The directory of the disk cache store must be set");
+        if (segmentSize <= RECORD_HEADER_SIZE || maximumSize < segmentSize) {
+            throw new IllegalArgumentException("The maximum size of the disk cache store must be at least the size of a segment");
+        }
+
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException ioEx) {
+            throw new IoException("Unable to open the disk cache store in [" + directory + "]", ioEx);
+        }
+    }
+
+    /**
+     * Creates a builder for creating {@link DiskHttpCacheStore} configured instances.
+     *
+     * @return a new builder for creating disk cache stores.
+     */
+    public static DiskHttpCacheStoreBuilder builder() {
+        return new DiskHttpCacheStoreBuilder();
+    }
+
+    public static class DiskHttpCacheStoreBuilder {
+        private Path directory;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+        /**
+         * Sets the directory holding the segment files, which is created if it does not exist. The directory should
+         * be used by a single store only.
+         *
+         * @param directory the directory of the store.
+         * @return this builder, for method chaining.
+         */
+        public DiskHttpCacheStoreBuilder directory(final Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total size of the segment files.
+         *
+         * @param maximumSize the maximum size of the store, in bytes.
+         * @return this builder, for method chaining.
+         */
+        public DiskHttpCacheStoreBuilder maximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the size of each segment file, which bounds the size of the largest response the store will hold.
+         *
+         * @param segmentSize the size of each segment, in bytes.
+         * @return this builder, for method chaining.
+         */
+        public DiskHttpCacheStoreBuilder segmentSize(final int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        public DiskHttpCacheStore build() {
+            return new DiskHttpCacheStore(this);
+        }
+    }
+
+    @Override
+    public CachedResponse get(final String key) {
+        Location location = index.get(key);
+        if (location == null) return null;
+
+        final ByteBuffer buffer = location.segment.buffer;
+        final int metadataLengthOffset = location.offset + 3 * Integer.BYTES + location.keyLength;
+        final int metadataLength = buffer.getInt(metadataLengthOffset);
+        final int bodyOffset = metadataLengthOffset + 2 * Integer.BYTES + metadataLength;
+        return readMetadata(buffer.slice(metadataLengthOffset + Integer.BYTES, metadataLength), buffer.slice(bodyOffset, location.bodyLength));
+    }
+
+    @Override
+    public void put(final String key, final CachedResponse response) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] metadata = writeMetadata(response);
+        final ByteBuffer body = response.getBody();
+        if ((long) RECORD_HEADER_SIZE + keyBytes.length + metadata.length + body.remaining() > segmentSize) {
+            remove(key);
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            Location location = append(keyBytes, metadata, body);
+            index.put(key, location);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(final String key) {
+        writeLock.lock();
+        try {
+            if (index.remove(key) != null) {
+                append(key.getBytes(StandardCharsets.UTF_8), new byte[0], null);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            index.clear();
+            while (!segments.isEmpty()) {
+                delete(segments.removeFirst());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of responses held by this store.
+     *
+     * @return the number of stored responses.
+     */
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the total size of the segment files of this store.
+     *
+     * @return the size of the store on disk, in bytes.
+     */
+    public long getSize() {
+        writeLock.lock();
+        try {
+            return (long) segments.size() * segmentSize;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the segments of this store to disk and releases their files. Responses already served from the store
+     * remain readable.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+            index.clear();
+            segments.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> segmentFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFiles = files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_FILE_PREFIX))
+                                .filter(file -> file.getFileName().toString().endsWith(SEGMENT_FILE_SUFFIX))
+                                .sorted()
+                                .toList();
+        }
+
+        for (Path segmentFile : segmentFiles) {
+            Segment segment = new Segment(segmentFile, map(segmentFile, Files.size(segmentFile)));
+            segments.addLast(segment);
+            scan(segment);
+            nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segmentFile) + 1);
+        }
+    }
+
+    /**
+     * Indexes the records of a segment, up to the first record which was not written in full or fails its checksum,
+     * and clears anything written beyond it so that the remainder of the segment may be appended to.
+     */
+    private void scan(final Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer;
+        final int capacity = buffer.capacity();
+        int offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= capacity && buffer.getInt(offset) == RECORD_MARKER) {
+            final int keyLength = buffer.getInt(offset + CHECKSUMMED_OFFSET);
+            if (keyLength < 0 || offset + RECORD_HEADER_SIZE + keyLength > capacity) break;
+            final int metadataLength = buffer.getInt(offset + 3 * Integer.BYTES + keyLength);
+            if (metadataLength < 0 || offset + RECORD_HEADER_SIZE + keyLength + metadataLength > capacity) break;
+            final int bodyLengthOffset = offset + 4 * Integer.BYTES + keyLength + metadataLength;
+            final int bodyLength = buffer.getInt(bodyLengthOffset);
+            if (bodyLength < TOMBSTONE || bodyLengthOffset + Integer.BYTES + Math.max(0, bodyLength) > capacity) break;
+            final int recordEnd = bodyLengthOffset + Integer.BYTES + Math.max(0, bodyLength);
+            if (buffer.getInt(offset + Integer.BYTES) != checksum(buffer, offset, recordEnd)) break;
+
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(offset + 3 * Integer.BYTES, keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            if (bodyLength == TOMBSTONE) {
+                index.remove(key);
+            } else {
+                index.put(key, new Location(segment, offset, keyLength, bodyLength));
+            }
+            offset = recordEnd;
+        }
+        segment.writePosition = offset;
+
+        if (offset + Long.BYTES <= capacity && buffer.getLong(offset) != 0) {
+            final byte[] zeros = new byte[Math.min(8192, capacity - offset)];
+            for (int position = offset; position < capacity; position += zeros.length) {
+                buffer.put(position, zeros, 0, Math.min(zeros.length, capacity - position));
+            }
+        }
+    }
+
+    /**
+     * Appends a record to the active segment, rolling over to a new segment if there is insufficient space remaining.
+     * Must be called holding the write lock.
+     *
+     * @param body the response body, or null for a tombstone record.
+     */
+    private Location append(final byte[] keyBytes, final byte[] metadata, final ByteBuffer body) {
+        final int bodyLength = body == null ? TOMBSTONE : body.remaining();
+        final int recordLength = RECORD_HEADER_SIZE + keyBytes.length + metadata.length + Math.max(0, bodyLength);
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.writePosition + recordLength > segment.buffer.capacity()) {
+            segment = newSegment();
+        }
+
+        final MappedByteBuffer buffer = segment.buffer;
+        final int offset = segment.writePosition;
+        int position = offset + CHECKSUMMED_OFFSET;
+        buffer.putInt(position, keyBytes.length);
+        buffer.put(position += Integer.BYTES, keyBytes);
+        buffer.putInt(position += keyBytes.length, metadata.length);
+        buffer.put(position += Integer.BYTES, metadata);
+        buffer.putInt(position += metadata.length, bodyLength);
+        if (body != null) {
+            buffer.put(position + Integer.BYTES, body, body.position(), bodyLength);
+        }
+        buffer.putInt(offset + Integer.BYTES, checksum(buffer, offset, offset + recordLength));
+        // The marker is written last, so that a record still being written is never indexed
+        buffer.putInt(offset, RECORD_MARKER);
+        segment.writePosition = offset + recordLength;
+
+        return new Location(segment, offset, keyBytes.length, Math.max(0, bodyLength));
+    }
+
+    /**
+     * Calculates the checksum of a record, over everything from its key length to the end of its body.
+     */
+    private static int checksum(final ByteBuffer buffer, final int recordOffset, final int recordEnd) {
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.slice(recordOffset + CHECKSUMMED_OFFSET, recordEnd - recordOffset - CHECKSUMMED_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private Segment newSegment() {
+        while (!segments.isEmpty() && (long) (segments.size() + 1) * segmentSize > maximumSize) {
+            Segment oldest = segments.removeFirst();
+            index.values().removeIf(location -> location.segment == oldest);
+            delete(oldest);
+        }
+
+        Path segmentFile = directory.resolve(String.format("%s%016d%s", SEGMENT_FILE_PREFIX, nextSegmentNumber++, SEGMENT_FILE_SUFFIX));
+        try {
+            Segment segment = new Segment(segmentFile, map(segmentFile, segmentSize));
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException ioEx) {
+            throw new IoException("Unable to create disk cache segment [" + segmentFile + "]", ioEx);
+        }
+    }
+
+    private static MappedByteBuffer map(final Path segmentFile, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void delete(final Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException ignored) {
+            // The segment is no longer indexed; a file which cannot be deleted whilst mapped is ignored
+        }
+    }
+
+    private static long segmentNumber(final Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()));
+        } catch (NumberFormatException numberEx) {
+            return 0;
+        }
+    }
+
+    private static byte[] writeMetadata(final CachedResponse response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(response.getStatusCode());
+            out.writeLong(response.getRequestTimeMillis());
+            out.writeLong(response.getResponseTimeMillis());
+            out.writeInt(response.getHeaders().size());
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeInt(header.getValue().size());
+                for (String value : header.getValue()) {
+                    out.writeUTF(value);
+                }
+            }
+            out.writeInt(response.getVaryValues().size());
+            for (Map.Entry<String, String> varyValue : response.getVaryValues().entrySet()) {
+                out.writeUTF(varyValue.getKey());
+                out.writeUTF(varyValue.getValue());
+            }
+        } catch (IOException ioEx) {
+            throw new IoException("Unable to write cached response metadata", ioEx);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CachedResponse readMetadata(final ByteBuffer metadata, final ByteBuffer body) {
+        try (DataInputStream in = new DataInputStream(new ByteBufferResource(metadata).getInputStream())) {
+            final int statusCode = in.readInt();
+            final long requestTimeMillis = in.readLong();
+            final long responseTimeMillis = in.readLong();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int headerCount = in.readInt(); headerCount > 0; headerCount--) {
+                String name = in.readUTF();
+                List<String> values = new ArrayList<>();
+                for (int valueCount = in.readInt(); valueCount > 0; valueCount--) {
+                    values.add(in.readUTF());
+                }
+                headers.put(name, values);
+            }
+            Map<String, String> varyValues = new LinkedHashMap<>();
+            for (int varyCount = in.readInt(); varyCount > 0; varyCount--) {
+                varyValues.put(in.readUTF(), in.readUTF());
+            }
+            return new CachedResponse(statusCode, headers, body, varyValues, requestTimeMillis, responseTimeMillis);
+        } catch (IOException ioEx) {
+            throw new IoException("Unable to read cached response metadata", ioEx);
+        }
+    }
+
+    /**
+     * A segment file, mapped into memory for its whole size.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(final Path file, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * The location of the latest record for a key: its segment, offset and the lengths needed to slice it.
+     */
+    private record Location(Segment segment, int offset, int keyLength, int bodyLength) {}
+}
@@ -0,0 +1,41 @@
+package org.beanplanet.restclient.cache;
+
+/**
+ * The storage of a {@link HttpResponseCache}, holding at most one {@link CachedResponse} per cache key. Keys are
+ * derived from the request method and URI and, for responses which vary by request headers, the values of those
+ * headers, so that a store need only index by key.
+ *
+ * <p>Implementations must be thread-safe.</p>
+ *
+ * @see InMemoryHttpCacheStore
+ */
+public interface HttpCacheStore {
+    /**
+     * Returns the response stored under the given key.
+     *
+     * @param key the cache key.
+     * @return the stored response, or null if there is none.
+     */
+    CachedResponse get(String key);
+
+    /**
+     * Stores a response under the given key, replacing any stored previously. A store may decline to hold the response,
+     * for example if it is larger than the store allows.
+     *
+     * @param key the cache key.
+     * @param response the response to store.
+     */
+    void put(String key, CachedResponse response);
+
+    /**
+     * Removes the response stored under the given key, if any.
+     *
+     * @param key the cache key.
+     */
+    void remove(String key);
+
+    /**
+     * Removes all stored responses.
+     */
+    void clear();
+}
@@ -0,0 +1,531 @@
+package org.beanplanet.restclient.cache;
+
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.HttpInterceptor;
+import org.beanplanet.restclient.StreamingResponseBody;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static org.beanplanet.restclient.cache.CacheControl.*;
+
+/**
+ * A private HTTP cache of the responses to {@code GET} requests, following the caching model of RFC 9111. Installed as
+ * an interceptor, with {@link org.beanplanet.restclient.RestClient.RestClientBuilder#responseCache(HttpResponseCache)},
+ * it sits in front of the HTTP implementation of a client:
+ *
+ * <ul>
+ *     <li>fresh responses are served from the cache without a round trip, their freshness being determined by the
+ *     {@code Cache-Control: max-age} or {@code Expires} headers or, failing those, heuristically from
+ *     {@code Last-Modified};</li>
+ *     <li>stale responses with a validator are revalidated with a conditional request, carrying {@code If-None-Match}
+ *     or {@code If-Modified-Since}, and served from the cache if the origin responds {@code 304 Not Modified};</li>
+ *     <li>responses are selected by the request headers nominated by their {@code Vary} header, and a response is
+ *     held for each combination of their normalised values, so that requests alternating between, say, two
+ *     {@code Accept} values are each served from the cache;</li>
+ *     <li>the request directives {@code no-cache}, {@code no-store}, {@code max-age}, {@code max-stale},
+ *     {@code min-fresh} and {@code only-if-cached}, and the response directives {@code no-cache}, {@code no-store} and
+ *     {@code must-revalidate} are honoured;</li>
+ *     <li>a successful unsafe request, such as a {@code POST}, invalidates the response cached for its URI;</li>
+ *     <li>as RFC 9111 section 3.5 requires of a shared cache, the response to a request carrying
+ *     {@code Authorization} is not stored unless the response allows it, with {@code public}, {@code s-maxage} or
+ *     {@code must-revalidate}, so that a client sending per-caller credentials never serves one caller's response
+ *     to another.</li>
+ * </ul>
+ *
+ * <p>Streaming executions are served from the cache and revalidated, but their responses are not stored, since
+ * storing them would buffer the body the caller asked to stream.</p>
+ *
+ * <pre>
+ * HttpResponseCache cache = HttpResponseCache.builder()
+ *     .maximumSize(64 * 1024 * 1024)
+ *     .secondTier(DiskHttpCacheStore.builder().directory(Path.of("http-cache")).build())
+ *     .build();
+ * RestClient client = RestClient.builder().responseCache(cache).build();
+ * </pre>
+ */
+public class HttpResponseCache implements HttpInterceptor {
+    /** The default maximum size of the in-memory store, 32MiB. */
+    public static final long DEFAULT_MAXIMUM_SIZE = 32L * 1024 * 1024;
+
+    private static final String GET = "GET";
+    private static final Set<String> SAFE_METHODS = Set.of(GET, "HEAD", "OPTIONS", "TRACE");
+    /** The status codes which are cacheable by default, per RFC 9110 section 15.1. */
+    private static final Set<Integer> HEURISTICALLY_CACHEABLE_STATUS_CODES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+    private static final int NOT_MODIFIED = 304;
+    private static final int GATEWAY_TIMEOUT = 504;
+    private static final long MAXIMUM_HEURISTIC_FRESHNESS_MILLIS = Duration.ofDays(1).toMillis();
+    private static final long UNKNOWN = -1;
+    /**
+     * The status code of the record stored under the key of a URI whose responses vary: rather than a response, it
+     * lists the request headers nominated by {@code Vary}, under which the variants themselves are stored.
+     */
+    private static final int VARIANTS = 0;
+    /** The header of a variants record which distinguishes its variants from those of any it replaced. */
+    private static final String VARIANTS_GENERATION = "Variants-Generation";
+    private static final Pattern PARAMETER_WHITESPACE = Pattern.compile("\\s*;\\s*");
+
+    private final HttpCacheStore store;
+    private final Clock clock;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder conditionalHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private HttpResponseCache(final HttpResponseCacheBuilder builder) {
+        HttpCacheStore firstTier = builder.store != null ? builder.store : new InMemoryHttpCacheStore(builder.maximumSize);
+        this.store = builder.secondTier != null ? new TieredHttpCacheStore(firstTier, builder.secondTier) : firstTier;
+        this.clock = builder.clock;
+    }
+
+    /**
+     * Creates a builder for creating {@link HttpResponseCache} configured instances.
+     *
+     * @return a new builder for creating response caches.
+     */
+    public static HttpResponseCacheBuilder builder() {
+        return new HttpResponseCacheBuilder();
+    }
+
+    public static class HttpResponseCacheBuilder {
+        private HttpCacheStore store;
+        private HttpCacheStore secondTier;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Sets the store of cached responses, in place of the default in-memory store.
+         *
+         * @param store the store of cached responses.
+         * @return this builder, for method chaining.
+         */
+        public HttpResponseCacheBuilder store(final HttpCacheStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Adds a second tier behind the store, such as a persistent {@link DiskHttpCacheStore}, to which responses are
+         * written through and from which those no longer held by the first tier are promoted.
+         *
+         * @param secondTier the second tier store.
+         * @return this builder, for method chaining.
+         * @see TieredHttpCacheStore
+         */
+        public HttpResponseCacheBuilder secondTier(final HttpCacheStore secondTier) {
+            this.secondTier = secondTier;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of the default in-memory store. Has no effect if a store is set explicitly with
+         * {@link #store(HttpCacheStore)}.
+         *
+         * @param maximumSize the maximum total size of the cached responses, in bytes.
+         * @return this builder, for method chaining.
+         */
+        public HttpResponseCacheBuilder maximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the clock against which the age and freshness of cached responses are measured.
+         *
+         * @param clock the clock.
+         * @return this builder, for method chaining.
+         */
+        public HttpResponseCacheBuilder clock(final Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public HttpResponseCache build() {
+            return new HttpResponseCache(this);
+        }
+    }
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        if (!GET.equalsIgnoreCase(request.getMethod())) {
+            return invalidateOnSuccess(request, chain.proceed(request));
+        }
+
+        Lookup lookup = lookup(request);
+        if (lookup.response != null) return lookup.response;
+
+        final long requestTimeMillis = clock.millis();
+        return onResponse(request, lookup, chain.proceed(lookup.request), requestTimeMillis, chain.isStreaming());
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        if (!GET.equalsIgnoreCase(request.getMethod())) {
+            return chain.proceedAsync(request).thenApply(response -> invalidateOnSuccess(request, response));
+        }
+
+        Lookup lookup = lookup(request);
+        if (lookup.response != null) return CompletableFuture.completedFuture(lookup.response);
+
+        final long requestTimeMillis = clock.millis();
+        return chain.proceedAsync(lookup.request)
+                    .thenApply(response -> onResponse(request, lookup, response, requestTimeMillis, false));
+    }
+
+    /**
+     * Returns the store of cached responses.
+     *
+     * @return the cache store.
+     */
+    public HttpCacheStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the number of requests served from the cache without contacting the origin.
+     *
+     * @return the number of fresh cache hits.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of requests served from the cache after revalidation with the origin.
+     *
+     * @return the number of requests validated by a {@code 304 Not Modified} response.
+     */
+    public long getConditionalHitCount() {
+        return conditionalHitCount.sum();
+    }
+
+    /**
+     * Returns the number of cacheable requests whose response was not served from the cache.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * The outcome of looking up a request in the cache: either a response served from the cache or the request to
+     * forward, which is conditional if a stored response is being revalidated.
+     */
+    private record Lookup(HttpResponse response, HttpRequest request, CachedResponse stored, CacheControl requestCacheControl) {}
+
+    private Lookup lookup(final HttpRequest request) {
+        CacheControl requestCacheControl = requestCacheControl(request);
+        final String key = keyFor(request);
+        CachedResponse stored = store.get(key);
+        if (stored != null && stored.getStatusCode() == VARIANTS) {
+            stored = store.get(variantKey(key, stored, varyValuesOf(request, stored.getHeader("Vary").orElse(""))));
+        }
+        if (stored != null && !varyValuesMatch(stored, request)) {
+            stored = null;
+        }
+
+        if (stored != null) {
+            final long nowMillis = clock.millis();
+            final long ageMillis = currentAgeMillis(stored, nowMillis);
+            CacheControl responseCacheControl = CacheControl.parse(stored.getHeader("Cache-Control"));
+            if (!requestCacheControl.has(NO_CACHE)
+                && !responseCacheControl.has(NO_CACHE)
+                && isServable(ageMillis, freshnessLifetimeMillis(stored, responseCacheControl), requestCacheControl, responseCacheControl)) {
+                hitCount.increment();
+                return new Lookup(toHttpResponse(stored, ageMillis), request, stored, requestCacheControl);
+            }
+
+            Optional<HttpRequest> conditionalRequest = conditionalRequest(request, stored);
+            if (conditionalRequest.isPresent()) {
+                return new Lookup(null, conditionalRequest.get(), stored, requestCacheControl);
+            }
+        }
+
+        if (requestCacheControl.has(ONLY_IF_CACHED)) {
+            missCount.increment();
+            return new Lookup(HttpResponse.builder().statusCode(GATEWAY_TIMEOUT).build(), request, null, requestCacheControl);
+        }
+
+        return new Lookup(null, request, null, requestCacheControl);
+    }
+
+    private HttpResponse onResponse(final HttpRequest request,
+                                    final Lookup lookup,
+                                    final HttpResponse response,
+                                    final long requestTimeMillis,
+                                    final boolean streaming) {
+        final long responseTimeMillis = clock.millis();
+        if (lookup.stored != null && response.getStatusCode() == NOT_MODIFIED) {
+            closeQuietly(response.getBody());
+            CachedResponse revalidated = lookup.stored.revalidated(response.getHeaders().getAll(), requestTimeMillis, responseTimeMillis);
+            put(keyFor(request), revalidated);
+            conditionalHitCount.increment();
+            return toHttpResponse(revalidated, currentAgeMillis(revalidated, responseTimeMillis));
+        }
+
+        missCount.increment();
+        if (!streaming && isStorable(request, lookup.requestCacheControl, response)) {
+            put(keyFor(request), toCachedResponse(request, response, requestTimeMillis, responseTimeMillis));
+        }
+        return response;
+    }
+
+    /**
+     * Stores a response under the key of its request or, if it varies, as a variant alongside any others held for the
+     * same values of the same {@code Vary} headers. A change of the headers nominated starts a new generation of
+     * variants, as does the invalidation of the URI, leaving those of the previous generation unreachable.
+     */
+    private void put(final String key, final CachedResponse response) {
+        if (response.getVaryValues().isEmpty()) {
+            store.put(key, response);
+            return;
+        }
+
+        final String varyNames = String.join(",", response.getVaryValues().keySet());
+        CachedResponse variants = store.get(key);
+        if (variants == null || variants.getStatusCode() != VARIANTS || !variants.getHeader("Vary").orElse("").equals(varyNames)) {
+            variants = new CachedResponse(VARIANTS,
+                                          Map.of("Vary", List.of(varyNames), VARIANTS_GENERATION, List.of(Long.toHexString(ThreadLocalRandom.current().nextLong()))),
+                                          ByteBuffer.allocate(0),
+                                          Collections.emptyMap(),
+                                          response.getRequestTimeMillis(),
+                                          response.getResponseTimeMillis());
+            store.put(key, variants);
+        }
+        store.put(variantKey(key, variants, response.getVaryValues()), response);
+    }
+
+    /**
+     * Returns the key of a variant: the key of its URI followed by the generation of its variants and the normalised
+     * values of the headers it varies by.
+     */
+    private static String variantKey(final String key, final CachedResponse variants, final Map<String, String> varyValues) {
+        StringBuilder variantKey = new StringBuilder(key).append('\n').append(variants.getHeader(VARIANTS_GENERATION).orElse(""));
+        varyValues.forEach((name, value) -> variantKey.append('\n').append(name.toLowerCase(Locale.ROOT)).append(':').append(value));
+        return variantKey.toString();
+    }
+
+    private HttpResponse invalidateOnSuccess(final HttpRequest request, final HttpResponse response) {
+        final int statusCode = response.getStatusCode();
+        if (!SAFE_METHODS.contains(request.getMethod().toUpperCase(Locale.ROOT)) && statusCode >= 200 && statusCode < 400) {
+            store.remove(keyFor(GET, request));
+        }
+        return response;
+    }
+
+    private static boolean isServable(final long ageMillis,
+                                      final long freshnessLifetimeMillis,
+                                      final CacheControl requestCacheControl,
+                                      final CacheControl responseCacheControl) {
+        final long maxAge = requestCacheControl.seconds(MAX_AGE);
+        if (maxAge != UNSPECIFIED && ageMillis > maxAge * 1000) return false;
+
+        final long minFresh = requestCacheControl.seconds(MIN_FRESH);
+        if (minFresh != UNSPECIFIED) return freshnessLifetimeMillis - ageMillis >= minFresh * 1000;
+
+        if (freshnessLifetimeMillis > ageMillis) return true;
+
+        if (!requestCacheControl.has(MAX_STALE) || responseCacheControl.has(MUST_REVALIDATE)) return false;
+        final long maxStale = requestCacheControl.seconds(MAX_STALE);
+        return maxStale == UNSPECIFIED || ageMillis - freshnessLifetimeMillis <= maxStale * 1000;
+    }
+
+    private boolean isStorable(final HttpRequest request, final CacheControl requestCacheControl, final HttpResponse response) {
+        if (requestCacheControl.has(NO_STORE)) return false;
+
+        Map<String, List<String>> headers = response.getHeaders().getAll();
+        CacheControl responseCacheControl = CacheControl.parse(header(headers, "Cache-Control"));
+        if (responseCacheControl.has(NO_STORE)) return false;
+        if (header(request.getHeaders().getAll(), "Authorization").isPresent()
+            && !responseCacheControl.has(PUBLIC)
+            && !responseCacheControl.has(S_MAXAGE)
+            && !responseCacheControl.has(MUST_REVALIDATE)) {
+            return false;
+        }
+        if (header(headers, "Vary").map(vary -> vary.contains("*")).orElse(false)) return false;
+
+        final int statusCode = response.getStatusCode();
+        final boolean explicitlyFresh = responseCacheControl.has(MAX_AGE) || header(headers, "Expires").isPresent();
+        if (!HEURISTICALLY_CACHEABLE_STATUS_CODES.contains(statusCode)
+            && !(explicitlyFresh && statusCode >= 200 && statusCode != 206 && statusCode != NOT_MODIFIED)) {
+            return false;
+        }
+
+        // A response with neither freshness nor a validator could never be served from the cache
+        return explicitlyFresh || header(headers, "ETag").isPresent() || header(headers, "Last-Modified").isPresent();
+    }
+
+    private static CachedResponse toCachedResponse(final HttpRequest request,
+                                                   final HttpResponse response,
+                                                   final long requestTimeMillis,
+                                                   final long responseTimeMillis) {
+        Map<String, List<String>> headers = response.getHeaders().getAll();
+        Map<String, String> varyValues = varyValuesOf(request, header(headers, "Vary").orElse(""));
+
+        Resource body = response.getBody();
+        ByteBuffer bodyBuffer = body == null ? ByteBuffer.allocate(0) : ByteBuffer.wrap(body.readFullyAsBytes());
+        return new CachedResponse(response.getStatusCode(), headers, bodyBuffer, varyValues, requestTimeMillis, responseTimeMillis);
+    }
+
+    private static HttpResponse toHttpResponse(final CachedResponse stored, final long ageMillis) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(stored.getHeaders());
+        headers.put("Age", List.of(Long.toString(Math.max(0, ageMillis / 1000))));
+        return HttpResponse.builder()
+                           .statusCode(stored.getStatusCode())
+                           .headers(headers)
+                           .body(new ByteBufferResource(stored.getBody()))
+                           .build();
+    }
+
+    private static Optional<HttpRequest> conditionalRequest(final HttpRequest request, final CachedResponse stored) {
+        Optional<String> entityTag = stored.getHeader("ETag");
+        Optional<String> lastModified = stored.getHeader("Last-Modified");
+        if (entityTag.isEmpty() && lastModified.isEmpty()) return Optional.empty();
+
+        HttpRequest.HttpRequestBuilder<?, ?> conditions = HttpRequest.builder().method(request.getMethod());
+        if (entityTag.isPresent()) {
+            conditions.header("If-None-Match", entityTag.get());
+        } else {
+            conditions.header("If-Modified-Since", lastModified.get());
+        }
+        return Optional.of(request.merge(conditions.build()));
+    }
+
+    /**
+     * Calculates the current age of a stored response, per RFC 9111 section 4.2.3.
+     */
+    private static long currentAgeMillis(final CachedResponse stored, final long nowMillis) {
+        final long dateMillis = httpDateMillis(stored.getHeader("Date"));
+        final long apparentAgeMillis = dateMillis == UNKNOWN ? 0 : Math.max(0, stored.getResponseTimeMillis() - dateMillis);
+        final long ageValue = stored.getHeader("Age").map(age -> deltaSeconds(firstToken(age))).orElse(UNSPECIFIED);
+        final long responseDelayMillis = stored.getResponseTimeMillis() - stored.getRequestTimeMillis();
+        final long correctedAgeValueMillis = (ageValue == UNSPECIFIED ? 0 : ageValue * 1000) + responseDelayMillis;
+        final long correctedInitialAgeMillis = Math.max(apparentAgeMillis, correctedAgeValueMillis);
+        final long residentTimeMillis = nowMillis - stored.getResponseTimeMillis();
+        return correctedInitialAgeMillis + residentTimeMillis;
+    }
+
+    /**
+     * Calculates the freshness lifetime of a stored response, per RFC 9111 section 4.2.1, with a heuristic lifetime of
+     * a tenth of the time since the response was last modified, up to a day, if it specifies no explicit lifetime.
+     */
+    private static long freshnessLifetimeMillis(final CachedResponse stored, final CacheControl responseCacheControl) {
+        final long maxAge = responseCacheControl.seconds(MAX_AGE);
+        if (maxAge != UNSPECIFIED) return maxAge * 1000;
+
+        final long dateMillis = httpDateMillis(stored.getHeader("Date"));
+        final long originDateMillis = dateMillis == UNKNOWN ? stored.getResponseTimeMillis() : dateMillis;
+        Optional<String> expires = stored.getHeader("Expires");
+        if (expires.isPresent()) {
+            // An invalid Expires value represents a time in the past
+            final long expiresMillis = httpDateMillis(expires);
+            return expiresMillis == UNKNOWN ? 0 : Math.max(0, expiresMillis - originDateMillis);
+        }
+
+        final long lastModifiedMillis = httpDateMillis(stored.getHeader("Last-Modified"));
+        if (lastModifiedMillis != UNKNOWN && HEURISTICALLY_CACHEABLE_STATUS_CODES.contains(stored.getStatusCode())) {
+            return Math.min(MAXIMUM_HEURISTIC_FRESHNESS_MILLIS, Math.max(0, (originDateMillis - lastModifiedMillis) / 10));
+        }
+        return 0;
+    }
+
+    private static boolean varyValuesMatch(final CachedResponse stored, final HttpRequest request) {
+        for (Map.Entry<String, String> varyValue : stored.getVaryValues().entrySet()) {
+            if (!varyValue.getValue().equals(requestHeader(request, varyValue.getKey()))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the normalised values of the request headers nominated by a {@code Vary} header, keyed by lower case
+     * header name in order.
+     */
+    private static Map<String, String> varyValuesOf(final HttpRequest request, final String vary) {
+        Map<String, String> varyValues = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : vary.split(",")) {
+            if (!name.isBlank()) {
+                varyValues.put(name.trim().toLowerCase(Locale.ROOT), requestHeader(request, name.trim()));
+            }
+        }
+        return varyValues;
+    }
+
+    private static CacheControl requestCacheControl(final HttpRequest request) {
+        Optional<String> cacheControl = request.getHeaders().get("Cache-Control");
+        if (cacheControl.isEmpty() && request.getHeaders().get("Pragma").map(pragma -> pragma.contains(NO_CACHE)).orElse(false)) {
+            return CacheControl.parse(NO_CACHE);
+        }
+        return CacheControl.parse(cacheControl);
+    }
+
+    /**
+     * Returns the value of a request header, normalised for comparison: all of its values combined, with the
+     * whitespace around each comma-separated element removed.
+     */
+    private static String requestHeader(final HttpRequest request, final String name) {
+        Optional<String> value = header(request.getHeaders().getAll(), name);
+        if (value.isEmpty()) return "";
+
+        StringBuilder normalised = new StringBuilder();
+        for (String element : value.get().split(",")) {
+            if (element.isBlank()) continue;
+            if (normalised.length() > 0) normalised.append(',');
+            normalised.append(PARAMETER_WHITESPACE.matcher(element.trim()).replaceAll(";"));
+        }
+        return normalised.toString();
+    }
+
+    private static Optional<String> header(final Map<String, List<String>> headers, final String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() != null && header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return Optional.of(String.join(", ", header.getValue()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String firstToken(final String value) {
+        int comma = value.indexOf(',');
+        return (comma < 0 ? value : value.substring(0, comma)).trim();
+    }
+
+    private static long httpDateMillis(final Optional<String> value) {
+        if (value.isEmpty()) return UNKNOWN;
+
+        try {
+            return ZonedDateTime.parse(value.get().trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException parseEx) {
+            return UNKNOWN;
+        }
+    }
+
+    private static String keyFor(final HttpRequest request) {
+        return keyFor(GET, request);
+    }
+
+    private static String keyFor(final String method, final HttpRequest request) {
+        return method + " " + request.getUri();
+    }
+
+    private static void closeQuietly(final Resource body) {
+        if (body instanceof StreamingResponseBody streamingBody) {
+            try {
+                streamingBody.close();
+            } catch (RuntimeException ignored) {
+                // The body of a 304 response is empty, so there is nothing lost if it cannot be closed cleanly
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.beanplanet.restclient.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A heap-based cache store, bounded by the total weight of the responses it holds and evicting the least recently used
+ * response when full. Responses weighing more than an eighth of the maximum size are not stored, so that a single
+ * large payload cannot flush the rest of the cache.
+ *
+ * <p>Access is guarded by a lock rather than by monitors, so callers running on virtual threads are not pinned while
+ * waiting for the store.</p>
+ */
+public class InMemoryHttpCacheStore implements HttpCacheStore {
+    private final long maximumSize;
+    private final long maximumEntrySize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Constructs a new in-memory store.
+     *
+     * @param maximumSize the maximum total weight of the stored responses, in bytes.
+     * @see CachedResponse#getWeight()
+     */
+    public InMemoryHttpCacheStore(final long maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("The maximum cache size must be positive");
+
+        this.maximumSize = maximumSize;
+        this.maximumEntrySize = Math.max(1, maximumSize / 8);
+    }
+
+    @Override
+    public CachedResponse get(final String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(final String key, final CachedResponse response) {
+        final long weight = response.getWeight();
+        lock.lock();
+        try {
+            CachedResponse previous = weight > maximumEntrySize ? entries.remove(key) : entries.put(key, response);
+            if (previous != null) {
+                size -= previous.getWeight();
+            }
+            if (weight > maximumEntrySize) return;
+
+            size += weight;
+            Iterator<Map.Entry<String, CachedResponse>> leastRecentlyUsed = entries.entrySet().iterator();
+            while (size > maximumSize && leastRecentlyUsed.hasNext()) {
+                size -= leastRecentlyUsed.next().getValue().getWeight();
+                leastRecentlyUsed.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(final String key) {
+        lock.lock();
+        try {
+            CachedResponse previous = entries.remove(key);
+            if (previous != null) {
+                size -= previous.getWeight();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of responses held by this store.
+     *
+     * @return the number of stored responses.
+     */
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total weight of the responses held by this store.
+     *
+     * @return the total weight of the stored responses, in bytes.
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.beanplanet.restclient.cache;
+
+/**
+ * A two-tier cache store, typically a small, fast {@link InMemoryHttpCacheStore} in front of a larger, persistent
+ * {@link DiskHttpCacheStore}. Responses are written through to both tiers and those found only in the second tier are
+ * promoted to the first when read.
+ */
+public class TieredHttpCacheStore implements HttpCacheStore {
+    private final HttpCacheStore firstTier;
+    private final HttpCacheStore secondTier;
+
+    /**
+     * Constructs a new tiered store.
+     *
+     * @param firstTier the store consulted first.
+     * @param secondTier the store consulted when a response is not held by the first tier.
+     */
+    public TieredHttpCacheStore(final HttpCacheStore firstTier, final HttpCacheStore secondTier) {
+        this.firstTier = firstTier;
+        this.secondTier = secondTier;
+    }
+
+    @Override
+    public CachedResponse get(final String key) {
+        CachedResponse response = firstTier.get(key);
+        if (response != null) return response;
+
+        response = secondTier.get(key);
+        if (response != null) {
+            firstTier.put(key, response);
+        }
+        return response;
+    }
+
+    @Override
+    public void put(final String key, final CachedResponse response) {
+        firstTier.put(key, response);
+        secondTier.put(key, response);
+    }
+
+    @Override
+    public void remove(final String key) {
+        firstTier.remove(key);
+        secondTier.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        firstTier.clear();
+        secondTier.clear();
+    }
+
+    public HttpCacheStore getFirstTier() {
+        return firstTier;
+    }
+
+    public HttpCacheStore getSecondTier() {
+        return secondTier;
+    }
+}
@@ -0,0 +1,324 @@
+package org.beanplanet.restclient.inmemory;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.ExchangeTimeouts;
+import org.beanplanet.restclient.HttpImplemention;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A Http implementation which never touches a socket: requests are routed to handlers registered in-process. Latency,
+ * bandwidth and failures may be simulated, so that client overhead and retry, timeout and concurrency settings can be
+ * measured and tested under load without a network.
+ *
+ * <p>The {@link ExchangeTimeouts} of each execution are honoured as by a networked implementation: a simulated latency
+ * longer than the response timeout, or a latency and transfer time running past the deadline, fail the request once
+ * the timeout has elapsed, so that timeout settings can be tested too.</p>
+ *
+ * <pre>
+ * InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+ *     .route("GET", "/users/42", request -&gt; HttpResponse.builder().statusCode(200).build())
+ *     .latency(Duration.ofMillis(5), Duration.ofMillis(20))
+ *     .failureRate(0.01)
+ *     .build();
+ * RestClient client = RestClient.builder().httpImplementation(http).build();
+ * </pre>
+ */
+public class InMemoryHttpImplementation implements HttpImplemention {
+    private final List<Route> routes;
+    private final Function<HttpRequest, HttpResponse> fallbackHandler;
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final long bytesPerSecond;
+    private final double failureRate;
+    private final Function<HttpRequest, RuntimeException> failureFactory;
+    private final LongAdder requestCount = new LongAdder();
+
+    private record Route(Predicate<HttpRequest> matcher, Function<HttpRequest, HttpResponse> handler) {}
+
+    private InMemoryHttpImplementation(final InMemoryHttpImplementationBuilder builder) {
+        this.routes = List.copyOf(builder.routes);
+        this.fallbackHandler = builder.fallbackHandler;
+        this.minLatencyNanos = builder.minLatency.toNanos();
+        this.maxLatencyNanos = builder.maxLatency.toNanos();
+        this.bytesPerSecond = builder.bytesPerSecond;
+        this.failureRate = builder.failureRate;
+        this.failureFactory = builder.failureFactory;
+    }
+
+    /**
+     * Creates a builder for creating {@link InMemoryHttpImplementation} configured instances.
+     *
+     * @return a new builder for creating in-memory HTTP implementations.
+     */
+    public static InMemoryHttpImplementationBuilder builder() {
+        return new InMemoryHttpImplementationBuilder();
+    }
+
+    public static class InMemoryHttpImplementationBuilder {
+        private final List<Route> routes = new ArrayList<>();
+        private Function<HttpRequest, HttpResponse> fallbackHandler = request -> HttpResponse.builder().statusCode(404).build();
+        private Duration minLatency = Duration.ZERO;
+        private Duration maxLatency = Duration.ZERO;
+        private long bytesPerSecond;
+        private double failureRate;
+        private Function<HttpRequest, RuntimeException> failureFactory = request -> new IoException("Simulated failure sending HTTP request [" + request.getUri() + "]");
+
+        /**
+         * Routes requests matching the given predicate to a handler. Routes are tried in the order registered.
+         *
+         * @param matcher the predicate selecting the requests to route to the handler.
+         * @param handler the handler, producing the response to a request.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder route(final Predicate<HttpRequest> matcher, final Function<HttpRequest, HttpResponse> handler) {
+            routes.add(new Route(matcher, handler));
+            return this;
+        }
+
+        /**
+         * Routes requests with the given method and URI path to a handler.
+         *
+         * @param method the request method, such as <code>GET</code>.
+         * @param path the exact path of the request URI.
+         * @param handler the handler, producing the response to a request.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder route(final String method, final String path, final Function<HttpRequest, HttpResponse> handler) {
+            return route(request -> method.equalsIgnoreCase(request.getMethod()) && path.equals(request.getUri().getPath()), handler);
+        }
+
+        /**
+         * The handler of requests which match no route. By default, a <code>404 Not Found</code> response is returned.
+         *
+         * @param fallbackHandler the handler of unrouted requests.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder fallback(final Function<HttpRequest, HttpResponse> fallbackHandler) {
+            this.fallbackHandler = fallbackHandler;
+            return this;
+        }
+
+        /**
+         * Simulates a fixed latency before each response.
+         *
+         * @param latency the latency of every exchange.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder latency(final Duration latency) {
+            return latency(latency, latency);
+        }
+
+        /**
+         * Simulates a latency before each response, chosen uniformly at random between the given bounds.
+         *
+         * @param minLatency the minimum latency of an exchange.
+         * @param maxLatency the maximum latency of an exchange.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder latency(final Duration minLatency, final Duration maxLatency) {
+            if (minLatency.isNegative() || maxLatency.compareTo(minLatency) < 0) {
+                throw new IllegalArgumentException("Invalid latency range [" + minLatency + ", " + maxLatency + "]");
+            }
+            this.minLatency = minLatency;
+            this.maxLatency = maxLatency;
+            return this;
+        }
+
+        /**
+         * Simulates a link of limited bandwidth, delaying each exchange by the time taken to transfer the request and
+         * response bodies.
+         *
+         * @param bytesPerSecond the bandwidth of the simulated link, or zero for unlimited bandwidth.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder bandwidth(final long bytesPerSecond) {
+            if (bytesPerSecond < 0) throw new IllegalArgumentException("Bandwidth must not be negative: " + bytesPerSecond);
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Simulates failures of the transport, failing the given fraction of requests at random.
+         *
+         * @param failureRate the fraction of requests to fail, between 0 and 1.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder failureRate(final double failureRate) {
+            if (failureRate < 0 || failureRate > 1) throw new IllegalArgumentException("Failure rate must be between 0 and 1: " + failureRate);
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        /**
+         * The factory of the exceptions thrown for simulated failures. By default, an {@link IoException} is thrown, as
+         * would be for a failure of the network.
+         *
+         * @param failureFactory the factory of simulated failures, given the failed request.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder failure(final Function<HttpRequest, RuntimeException> failureFactory) {
+            this.failureFactory = failureFactory;
+            return this;
+        }
+
+        /**
+         * The factory of the exceptions thrown for simulated failures.
+         *
+         * @param failureFactory the factory of simulated failures.
+         * @return this builder, for method chaining.
+         */
+        public InMemoryHttpImplementationBuilder failure(final Supplier<RuntimeException> failureFactory) {
+            return failure(request -> failureFactory.get());
+        }
+
+        public InMemoryHttpImplementation build() {
+            return new InMemoryHttpImplementation(this);
+        }
+    }
+
+    /**
+     * Executes the given HTTP request synchronously, sleeping the calling thread for any simulated latency and transfer
+     * time.
+     *
+     * @param request the HTTP request to be executed.
+     * @return the HTTP response, returned by the matching handler.
+     */
+    @Override
+    public HttpResponse execute(final HttpRequest request) {
+        requestCount.increment();
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        final long latencyNanos = latencyNanos();
+        final long headersTimeoutNanos = headersTimeoutNanos(timeouts);
+        if (latencyNanos > headersTimeoutNanos) {
+            sleep(request, headersTimeoutNanos);
+            throw timeouts.timedOut(request);
+        }
+        sleep(request, latencyNanos);
+        failIfSimulated(request);
+
+        HttpResponse response = handlerFor(request).apply(request);
+        final long transferNanos = transferNanos(request, response);
+        final long remainingNanos = remainingNanos(timeouts);
+        if (transferNanos > remainingNanos) {
+            sleep(request, remainingNanos);
+            throw timeouts.timedOut(request);
+        }
+        sleep(request, transferNanos);
+        return response;
+    }
+
+    /**
+     * Executes the given HTTP request asynchronously. Simulated latency and transfer time are scheduled, rather than
+     * slept, so no thread is held while the exchange is in flight.
+     *
+     * @param request the HTTP request to be executed.
+     * @return a future completing with the HTTP response returned by the matching handler.
+     */
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(final HttpRequest request) {
+        requestCount.increment();
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.current();
+        final long latencyNanos = latencyNanos();
+        final long headersTimeoutNanos = headersTimeoutNanos(timeouts);
+        if (latencyNanos > headersTimeoutNanos) return timedOutAfter(request, timeouts, headersTimeoutNanos);
+
+        return CompletableFuture.supplyAsync(() -> {
+                                    failIfSimulated(request);
+                                    return handlerFor(request).apply(request);
+                                }, CompletableFuture.delayedExecutor(latencyNanos, TimeUnit.NANOSECONDS))
+                                .thenCompose(response -> {
+                                    long transferNanos = transferNanos(request, response);
+                                    if (transferNanos == 0) return CompletableFuture.completedFuture(response);
+
+                                    long remainingNanos = remainingNanos(timeouts);
+                                    return transferNanos > remainingNanos
+                                           ? timedOutAfter(request, timeouts, remainingNanos)
+                                           : CompletableFuture.supplyAsync(() -> response, CompletableFuture.delayedExecutor(transferNanos, TimeUnit.NANOSECONDS));
+                                });
+    }
+
+    /**
+     * Returns the number of requests executed by this implementation, including those failed by simulation.
+     *
+     * @return the number of requests executed.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    private Function<HttpRequest, HttpResponse> handlerFor(final HttpRequest request) {
+        for (Route route : routes) {
+            if (route.matcher().test(request)) return route.handler();
+        }
+        return fallbackHandler;
+    }
+
+    private void failIfSimulated(final HttpRequest request) {
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw failureFactory.apply(request);
+        }
+    }
+
+    private long latencyNanos() {
+        return maxLatencyNanos > minLatencyNanos
+               ? ThreadLocalRandom.current().nextLong(minLatencyNanos, maxLatencyNanos + 1)
+               : minLatencyNanos;
+    }
+
+    private long transferNanos(final HttpRequest request, final HttpResponse response) {
+        if (bytesPerSecond == 0) return 0;
+
+        long bytes = contentLength(request.getBody()) + contentLength(response.getBody());
+        return TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+    }
+
+    /**
+     * Returns the time to wait for the response headers under the given timeouts, or {@link Long#MAX_VALUE} for no
+     * limit.
+     */
+    private static long headersTimeoutNanos(final ExchangeTimeouts timeouts) {
+        final Duration timeout = timeouts == null ? null : timeouts.effectiveResponseTimeout();
+        return timeout == null ? Long.MAX_VALUE : timeout.toNanos();
+    }
+
+    /**
+     * Returns the time remaining until the deadline of the given timeouts, or {@link Long#MAX_VALUE} if there is none.
+     */
+    private static long remainingNanos(final ExchangeTimeouts timeouts) {
+        return timeouts == null || timeouts.deadline() == null ? Long.MAX_VALUE : Math.max(0, timeouts.deadline().remaining().toNanos());
+    }
+
+    private static CompletableFuture<HttpResponse> timedOutAfter(final HttpRequest request, final ExchangeTimeouts timeouts, final long nanos) {
+        return CompletableFuture.supplyAsync(() -> {
+            throw timeouts.timedOut(request);
+        }, CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    private static long contentLength(final Resource body) {
+        return body == null ? 0 : Math.max(0, body.getContentLength());
+    }
+
+    private static void sleep(final HttpRequest request, final long nanos) {
+        if (nanos <= 0) return;
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException intEx) {
+            Thread.currentThread().interrupt();
+            throw new IoException("Interrupted sending HTTP request [" + request.getUri() + "]: " + intEx.getMessage(), intEx);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.beanplanet.restclient.metrics;
+
+/**
+ * A recorder of HTTP client metrics, notified of the lifecycle of every request executed through a
+ * {@link MeteredHttpImplementation}. Implementations may aggregate the metrics themselves, as
+ * {@link SimpleHttpClientMetrics} does, or bridge them to a metrics library such as Micrometer.
+ *
+ * <p>Every notification is tagged by the host of the request and its templated path, in which identifiers have been
+ * replaced by placeholders. The number of distinct paths per host is capped by the {@link MeteredHttpImplementation},
+ * beyond which paths are tagged {@link MeteredHttpImplementation#OTHER_PATH}, but the number of hosts is that of the
+ * hosts called. Recorders are called on the hot path of every request and should avoid allocation and blocking.</p>
+ */
+public interface HttpClientMetricsRecorder {
+    /** Passed for a time or size which is not known. */
+    long UNKNOWN = -1;
+
+    /**
+     * Called when a request is about to be sent, before any network activity.
+     *
+     * @param host the host of the request URI.
+     * @param pathTemplate the templated path of the request URI.
+     */
+    void requestStarted(String host, String pathTemplate);
+
+    /**
+     * Called when a response has been received, and the body fully read or released.
+     *
+     * @param host the host of the request URI.
+     * @param pathTemplate the templated path of the request URI.
+     * @param statusCode the status code of the response.
+     * @param timeToHeadersNanos the time from the request starting until the response headers were received, or
+     * {@link #UNKNOWN} if the headers and body were received together.
+     * @param totalNanos the time from the request starting until the response body was fully received.
+     * @param requestBytes the size of the request body, or {@link #UNKNOWN}.
+     * @param responseBytes the size of the response body, or {@link #UNKNOWN}.
+     */
+    void requestCompleted(String host, String pathTemplate, int statusCode, long timeToHeadersNanos, long totalNanos, long requestBytes, long responseBytes);
+
+    /**
+     * Called when a compressed response body has been decoded, just before {@link #requestCompleted} is called for the
+     * response, whose response size is then the decoded size.
+     *
+     * <p>This default implementation does nothing.</p>
+     *
+     * @param host the host of the request URI.
+     * @param pathTemplate the templated path of the request URI.
+     * @param encodedBytes the size of the body as received from the network.
+     * @param decodedBytes the size of the body once decoded.
+     */
+    default void responseDecoded(String host, String pathTemplate, long encodedBytes, long decodedBytes) {
+    }
+
+    /**
+     * Called when a request failed without a response being received.
+     *
+     * @param host the host of the request URI.
+     * @param pathTemplate the templated path of the request URI.
+     * @param failure the cause of the failure.
+     * @param totalNanos the time from the request starting until it failed.
+     * @param requestBytes the size of the request body, or {@link #UNKNOWN}.
+     */
+    void requestFailed(String host, String pathTemplate, Throwable failure, long totalNanos, long requestBytes);
+}
@@ -0,0 +1,164 @@
+package org.beanplanet.restclient.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed-size histogram of latencies from one microsecond up to about a minute. Buckets are log-linear:
+ * each doubling of latency is divided into eight equal sub-buckets, so percentiles are estimated to within an eighth
+ * of their value. Recording a value is a single atomic increment, with no allocation, so the histogram may be left
+ * enabled at high request rates.
+ *
+ * <p>A histogram is cumulative unless created with a half-life, in which case the weight of the latencies it holds
+ * halves each half-life, and its percentiles follow current latency rather than the history since it was created.
+ * Weights are held in fixed point, with sixteen fractional bits, so that halving keeps the proportions of sparse
+ * buckets, such as those of a long tail holding a latency or two each, rather than rounding them away.</p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The exponent, in microseconds, at and beyond which latencies fall in the last bucket: 2^26us, about 67s. */
+    private static final int MAX_EXPONENT = 26;
+    /** The linear buckets below the first doubling, the sub-buckets of each doubling, and a last for longer latencies. */
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + 1;
+    private static final long MIN_BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    /** The weight of a single latency recorded in a decaying histogram: one, with sixteen fractional bits. */
+    private static final long DECAYING_UNIT = 1L << 16;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final long halfLifeNanos;
+    private final long unit;
+    private final AtomicLong nextDecayNanos;
+
+    /**
+     * Creates a cumulative histogram.
+     */
+    public LatencyHistogram() {
+        this.halfLifeNanos = 0;
+        this.unit = 1;
+        this.nextDecayNanos = null;
+    }
+
+    /**
+     * Creates a histogram whose latencies decay in weight, halving each half-life.
+     *
+     * @param halfLife the half-life of the latencies recorded.
+     */
+    public LatencyHistogram(final Duration halfLife) {
+        if (halfLife.isNegative() || halfLife.isZero()) throw new IllegalArgumentException("The half-life of a latency histogram must be positive");
+
+        this.halfLifeNanos = halfLife.toNanos();
+        this.unit = DECAYING_UNIT;
+        this.nextDecayNanos = new AtomicLong(System.nanoTime() + halfLifeNanos);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency to record, in nanoseconds.
+     */
+    public void record(final long nanos) {
+        if (nanos < 0) return;
+
+        decayIfDue();
+        buckets.addAndGet(bucketIndex(nanos), unit);
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of latencies recorded or, for a decaying histogram, their current weight, rounded.
+     *
+     * @return the count of recorded latencies.
+     */
+    public long getCount() {
+        if (nextDecayNanos == null) return count.sum();
+
+        decayIfDue();
+        long weight = 0;
+        for (int n = 0; n < BUCKET_COUNT; n++) {
+            weight += buckets.get(n);
+        }
+        return (weight + unit / 2) / unit;
+    }
+
+    /**
+     * Returns the mean of all the latencies recorded, without decay.
+     *
+     * @return the mean latency in nanoseconds, or zero if none have been recorded.
+     */
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * Estimates the given percentile of the latencies recorded, as the upper bound of the bucket containing it.
+     *
+     * @param percentile the percentile, between 0 and 1, such as 0.99.
+     * @return the estimated latency at the percentile in nanoseconds, or zero if none have been recorded.
+     */
+    public long getPercentileNanos(final double percentile) {
+        decayIfDue();
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int n = 0; n < BUCKET_COUNT; n++) {
+            snapshot[n] = buckets.get(n);
+            total += snapshot[n];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int n = 0; n < BUCKET_COUNT; n++) {
+            seen += snapshot[n];
+            if (seen >= rank) return bucketUpperBoundNanos(n);
+        }
+        return bucketUpperBoundNanos(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Halves the weight of every bucket once for each half-life elapsed since the last decay. Only the thread which
+     * advances the decay time applies it, so concurrent callers decay the histogram once.
+     */
+    private void decayIfDue() {
+        if (nextDecayNanos == null) return;
+
+        final long now = System.nanoTime();
+        final long due = nextDecayNanos.get();
+        if (now - due < 0) return;
+
+        final long halvings = (now - due) / halfLifeNanos + 1;
+        if (!nextDecayNanos.compareAndSet(due, due + halvings * halfLifeNanos)) return;
+
+        final int shift = (int) Math.min(Long.SIZE - 1, halvings);
+        for (int n = 0; n < BUCKET_COUNT; n++) {
+            buckets.getAndUpdate(n, weight -> weight >>> shift);
+        }
+    }
+
+    private static int bucketIndex(final long nanos) {
+        final long micros = nanos / MIN_BUCKET_NANOS;
+        if (micros < SUB_BUCKET_COUNT) return (int) micros;
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) return BUCKET_COUNT - 1;
+
+        final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBoundNanos(final int index) {
+        if (index == BUCKET_COUNT - 1) return Long.MAX_VALUE;
+        if (index < SUB_BUCKET_COUNT) return (index + 1) * MIN_BUCKET_NANOS;
+
+        final int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKET_COUNT;
+        return ((SUB_BUCKET_COUNT + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) * MIN_BUCKET_NANOS;
+    }
+}
@@ -0,0 +1,385 @@
+package org.beanplanet.restclient.metrics;
+
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.ContentDecoding;
+import org.beanplanet.restclient.HttpImplemention;
+import org.beanplanet.restclient.StreamingResponseBody;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import static org.beanplanet.restclient.metrics.HttpClientMetricsRecorder.UNKNOWN;
+
+/**
+ * A decorating Http implementation which records the latency, payload sizes, status and concurrency of every request
+ * executed by another implementation, through a {@link HttpClientMetricsRecorder}.
+ *
+ * <p>For buffered executions the headers and body are received together, so only the total latency is recorded. For
+ * streaming executions the time until the response headers were received is recorded when the response is returned,
+ * and the total latency and response size when the body has been fully read or closed. A body backed by a publisher
+ * is metered as it is published, and remains backed by a publisher, so that it can still be consumed without
+ * blocking.</p>
+ *
+ * <p>Response sizes are those of the bodies as returned to the caller. Where a compressed body was decoded, its size
+ * as received from the network is also recorded, with {@link HttpClientMetricsRecorder#responseDecoded}.</p>
+ *
+ * <p>The JDK HTTP client does not expose connection establishment separately from the exchange, so connection time is
+ * included within the time to response headers.</p>
+ *
+ * <p>Templating replaces only the path segments which look like identifiers, so other free-form segments, such as
+ * names or search terms, would still give each request a tag of its own. The number of distinct templated paths is
+ * therefore capped per host: once a host has been seen with the maximum, any further paths to it are tagged
+ * <code>{other}</code>. Supply a path template function which knows the routes of the API called for precise tags.</p>
+ */
+public class MeteredHttpImplementation implements HttpImplemention {
+    /** The templated path with which requests are tagged once their host has the maximum number of distinct paths. */
+    public static final String OTHER_PATH = "{other}";
+    /** The default maximum number of distinct templated paths with which requests to a single host are tagged. */
+    public static final int DEFAULT_MAXIMUM_PATHS_PER_HOST = 200;
+
+    private static final String UNKNOWN_HOST = "unknown";
+    private static final String ID_PLACEHOLDER = "{id}";
+
+    private final HttpImplemention delegate;
+    private final HttpClientMetricsRecorder recorder;
+    private final Function<URI, String> pathTemplate;
+    private final int maximumPathsPerHost;
+    private final ConcurrentMap<String, Set<String>> pathsByHost = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new metered implementation.
+     *
+     * @param delegate the implementation executing requests.
+     * @param recorder the recorder of the request metrics.
+     * @param pathTemplate the function deriving the templated path, with which metrics are tagged, from a request URI.
+     * @param maximumPathsPerHost the maximum number of distinct templated paths with which requests to a single host
+     * are tagged, beyond which they are tagged {@link #OTHER_PATH}.
+     */
+    public MeteredHttpImplementation(final HttpImplemention delegate, final HttpClientMetricsRecorder recorder, final Function<URI, String> pathTemplate,
+                                     final int maximumPathsPerHost) {
+        if (maximumPathsPerHost <= 0) throw new IllegalArgumentException("The maximum number of paths per host must be positive");
+
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.pathTemplate = pathTemplate;
+        this.maximumPathsPerHost = maximumPathsPerHost;
+    }
+
+    /**
+     * Constructs a new metered implementation, with at most {@link #DEFAULT_MAXIMUM_PATHS_PER_HOST} templated paths
+     * per host.
+     *
+     * @param delegate the implementation executing requests.
+     * @param recorder the recorder of the request metrics.
+     * @param pathTemplate the function deriving the templated path, with which metrics are tagged, from a request URI.
+     */
+    public MeteredHttpImplementation(final HttpImplemention delegate, final HttpClientMetricsRecorder recorder, final Function<URI, String> pathTemplate) {
+        this(delegate, recorder, pathTemplate, DEFAULT_MAXIMUM_PATHS_PER_HOST);
+    }
+
+    /**
+     * Constructs a new metered implementation, templating request paths with {@link #templatePath(URI)}, with at most
+     * {@link #DEFAULT_MAXIMUM_PATHS_PER_HOST} templated paths per host.
+     *
+     * @param delegate the implementation executing requests.
+     * @param recorder the recorder of the request metrics.
+     */
+    public MeteredHttpImplementation(final HttpImplemention delegate, final HttpClientMetricsRecorder recorder) {
+        this(delegate, recorder, MeteredHttpImplementation::templatePath);
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequest request) {
+        final String host = host(request);
+        final String path = path(host, request.getUri());
+        final long requestBytes = contentLength(request.getBody());
+
+        recorder.requestStarted(host, path);
+        final long start = System.nanoTime();
+        final HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (RuntimeException ex) {
+            recorder.requestFailed(host, path, ex, System.nanoTime() - start, requestBytes);
+            throw ex;
+        }
+
+        recordCompleted(host, path, response, UNKNOWN, System.nanoTime() - start, requestBytes);
+        return response;
+    }
+
+    @Override
+    public HttpResponse executeStreaming(final HttpRequest request) {
+        final String host = host(request);
+        final String path = path(host, request.getUri());
+        final long requestBytes = contentLength(request.getBody());
+
+        recorder.requestStarted(host, path);
+        final long start = System.nanoTime();
+        final HttpResponse response;
+        try {
+            response = delegate.executeStreaming(request);
+        } catch (RuntimeException ex) {
+            recorder.requestFailed(host, path, ex, System.nanoTime() - start, requestBytes);
+            throw ex;
+        }
+
+        final long timeToHeadersNanos = System.nanoTime() - start;
+        if (!(response.getBody() instanceof StreamingResponseBody streamingBody)) {
+            recordCompleted(host, path, response, timeToHeadersNanos, timeToHeadersNanos, requestBytes);
+            return response;
+        }
+
+        final LongConsumer completionListener = responseBytes -> recorder.requestCompleted(host, path, response.getStatusCode(), timeToHeadersNanos,
+                                                                                           System.nanoTime() - start, requestBytes, responseBytes);
+        final Optional<Flow.Publisher<List<ByteBuffer>>> publisher = streamingBody.getPublisher();
+        final StreamingResponseBody meteredBody;
+        if (publisher.isPresent()) {
+            meteredBody = new StreamingResponseBody(new MeteredPublisher(publisher.get(), completionListener), streamingBody.getContentLength());
+        } else {
+            final InputStream bodyInputStream = streamingBody.getInputStream();
+            meteredBody = new StreamingResponseBody(new MeteredInputStream(bodyInputStream, responseBytes -> {
+                if (bodyInputStream instanceof ContentDecoding.DecodingInputStream decoding) {
+                    recorder.responseDecoded(host, path, decoding.getEncodedBytes(), responseBytes);
+                }
+                completionListener.accept(responseBytes);
+            }), streamingBody.getContentLength());
+        }
+        return HttpResponse.builder()
+                           .statusCode(response.getStatusCode())
+                           .headers(response.getHeaders().getAll())
+                           .body(meteredBody)
+                           .build();
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(final HttpRequest request) {
+        final String host = host(request);
+        final String path = path(host, request.getUri());
+        final long requestBytes = contentLength(request.getBody());
+
+        recorder.requestStarted(host, path);
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse> execution = delegate.executeAsync(request);
+        final CompletableFuture<HttpResponse> metered = execution.whenComplete((response, failure) -> {
+            if (failure != null) {
+                recorder.requestFailed(host, path, failure, System.nanoTime() - start, requestBytes);
+            } else {
+                recordCompleted(host, path, response, UNKNOWN, System.nanoTime() - start, requestBytes);
+            }
+        });
+
+        metered.whenComplete((ignored, failure) -> {
+            if (failure instanceof CancellationException) execution.cancel(true);
+        });
+        return metered;
+    }
+
+    /**
+     * Templates the path of the given URI by replacing each path segment which looks like an identifier - all digits,
+     * a UUID or a long hexadecimal string - with <code>{id}</code>. The path is returned as-is, without allocation,
+     * if it contains no identifiers.
+     *
+     * @param uri the request URI.
+     * @return the templated path of the URI.
+     */
+    public static String templatePath(final URI uri) {
+        final String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) return "/";
+
+        StringBuilder templated = null;
+        int segmentStart = 0;
+        for (int n = 0; n <= path.length(); n++) {
+            if (n < path.length() && path.charAt(n) != '/') continue;
+
+            if (isIdentifier(path, segmentStart, n)) {
+                if (templated == null) templated = new StringBuilder(path.length()).append(path, 0, segmentStart);
+                templated.append(ID_PLACEHOLDER);
+            } else if (templated != null) {
+                templated.append(path, segmentStart, n);
+            }
+            if (templated != null && n < path.length()) templated.append('/');
+            segmentStart = n + 1;
+        }
+
+        return templated == null ? path : templated.toString();
+    }
+
+    private static boolean isIdentifier(final String path, final int start, final int end) {
+        final int length = end - start;
+        if (length == 0) return false;
+
+        boolean allDigits = true;
+        boolean allHexOrDash = true;
+        for (int n = start; n < end; n++) {
+            char ch = path.charAt(n);
+            allDigits &= ch >= '0' && ch <= '9';
+            allHexOrDash &= (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F') || ch == '-';
+        }
+        return allDigits || (allHexOrDash && length >= 16);
+    }
+
+    private void recordCompleted(final String host, final String path, final HttpResponse response, final long timeToHeadersNanos,
+                                 final long totalNanos, final long requestBytes) {
+        final long responseBytes = contentLength(response.getBody());
+        if (response.getBody() instanceof ContentDecoding.DecodedBody decodedBody) {
+            recorder.responseDecoded(host, path, decodedBody.getEncodedLength(), responseBytes);
+        }
+        recorder.requestCompleted(host, path, response.getStatusCode(), timeToHeadersNanos, totalNanos, requestBytes, responseBytes);
+    }
+
+    /**
+     * Returns the templated path with which to tag a request to the given host, or {@link #OTHER_PATH} if the host
+     * already has the maximum number of distinct paths. Concurrent first requests may overshoot the maximum slightly.
+     */
+    private String path(final String host, final URI uri) {
+        final String path = pathTemplate.apply(uri);
+        Set<String> paths = pathsByHost.get(host);
+        if (paths == null) {
+            paths = pathsByHost.computeIfAbsent(host, h -> ConcurrentHashMap.newKeySet());
+        }
+
+        if (paths.contains(path)) return path;
+        if (paths.size() >= maximumPathsPerHost) return OTHER_PATH;
+
+        paths.add(path);
+        return path;
+    }
+
+    private static String host(final HttpRequest request) {
+        final String host = request.getUri().getHost();
+        return host != null ? host : UNKNOWN_HOST;
+    }
+
+    private static long contentLength(final Resource body) {
+        if (body == null) return 0;
+
+        final long contentLength = body.getContentLength();
+        return contentLength >= 0 ? contentLength : UNKNOWN;
+    }
+
+    /**
+     * An input stream which counts the bytes read through it, notifying a listener once, when the stream is exhausted
+     * or closed.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+        private final LongConsumer completionListener;
+        private long bytesRead;
+        private boolean completed;
+
+        private MeteredInputStream(final InputStream in, final LongConsumer completionListener) {
+            super(in);
+            this.completionListener = completionListener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) complete();
+            else bytesRead++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            int read = super.read(buf, off, len);
+            if (read < 0) complete();
+            else bytesRead += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (completed) return;
+
+            completed = true;
+            completionListener.accept(bytesRead);
+        }
+    }
+
+    /**
+     * A publisher of a response body which counts the bytes published through it, notifying a listener once, when the
+     * body has been published in full, fails or its subscription is cancelled.
+     */
+    private static final class MeteredPublisher implements Flow.Publisher<List<ByteBuffer>> {
+        private final Flow.Publisher<List<ByteBuffer>> delegate;
+        private final LongConsumer completionListener;
+        private final LongAdder bytesPublished = new LongAdder();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private MeteredPublisher(final Flow.Publisher<List<ByteBuffer>> delegate, final LongConsumer completionListener) {
+            this.delegate = delegate;
+            this.completionListener = completionListener;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+            delegate.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    subscriber.onSubscribe(new Flow.Subscription() {
+                        @Override
+                        public void request(final long n) {
+                            subscription.request(n);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            subscription.cancel();
+                            complete();
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(final List<ByteBuffer> buffers) {
+                    for (ByteBuffer buffer : buffers) {
+                        bytesPublished.add(buffer.remaining());
+                    }
+                    subscriber.onNext(buffers);
+                }
+
+                @Override
+                public void onError(final Throwable failure) {
+                    complete();
+                    subscriber.onError(failure);
+                }
+
+                @Override
+                public void onComplete() {
+                    complete();
+                    subscriber.onComplete();
+                }
+            });
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) completionListener.accept(bytesPublished.sum());
+        }
+    }
+}
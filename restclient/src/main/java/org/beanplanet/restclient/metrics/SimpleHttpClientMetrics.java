@@ -0,0 +1,190 @@
+package org.beanplanet.restclient.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A self-contained, in-memory {@link HttpClientMetricsRecorder} which aggregates metrics per host and templated path.
+ * Meters are created on the first request to a host and path and thereafter looked up without allocation; all
+ * meters are lock-free. Meters are never removed, so their number is that of the hosts called times the paths of
+ * each, which {@link MeteredHttpImplementation} caps.
+ */
+public class SimpleHttpClientMetrics implements HttpClientMetricsRecorder {
+    private final ConcurrentMap<String, ConcurrentMap<String, HttpRequestMeters>> metersByHostAndPath = new ConcurrentHashMap<>();
+
+    /**
+     * The meters of the requests to a single host and templated path.
+     */
+    public static final class HttpRequestMeters {
+        private static final int FAILED = 0;
+
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder[] countsByStatusClass = new LongAdder[6];
+        private final LatencyHistogram timeToHeaders = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder encodedResponseBytes = new LongAdder();
+        private final LongAdder decodedResponseBytes = new LongAdder();
+
+        private HttpRequestMeters() {
+            for (int n = 0; n < countsByStatusClass.length; n++) {
+                countsByStatusClass[n] = new LongAdder();
+            }
+        }
+
+        /**
+         * Returns the number of requests currently in flight.
+         *
+         * @return the in-flight request gauge.
+         */
+        public long getInFlight() {
+            return inFlight.sum();
+        }
+
+        /**
+         * Returns the number of responses received with a status code in the given class.
+         *
+         * @param statusClass the status code class, from 1 (<code>1xx</code>) to 5 (<code>5xx</code>).
+         * @return the number of responses in the status class.
+         */
+        public long getCount(final int statusClass) {
+            if (statusClass < 1 || statusClass > 5) throw new IllegalArgumentException("Invalid HTTP status class: " + statusClass);
+            return countsByStatusClass[statusClass].sum();
+        }
+
+        /**
+         * Returns the number of requests which failed without a response.
+         *
+         * @return the number of failed requests.
+         */
+        public long getFailedCount() {
+            return countsByStatusClass[FAILED].sum();
+        }
+
+        /**
+         * Returns the histogram of times until the response headers were received, for streamed responses.
+         *
+         * @return the time-to-headers histogram.
+         */
+        public LatencyHistogram getTimeToHeaders() {
+            return timeToHeaders;
+        }
+
+        /**
+         * Returns the histogram of times until the response body was fully received, or the request failed.
+         *
+         * @return the total latency histogram.
+         */
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the total size of the request bodies sent, where known.
+         *
+         * @return the number of request body bytes.
+         */
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        /**
+         * Returns the total size of the response bodies received, where known.
+         *
+         * @return the number of response body bytes.
+         */
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        /**
+         * Returns the total size of the compressed response bodies, as received from the network.
+         *
+         * @return the number of compressed response body bytes received.
+         */
+        public long getEncodedResponseBytes() {
+            return encodedResponseBytes.sum();
+        }
+
+        /**
+         * Returns the total size of the compressed response bodies once decoded, which with
+         * {@link #getEncodedResponseBytes()} gives the compression ratio achieved.
+         *
+         * @return the number of decoded response body bytes.
+         */
+        public long getDecodedResponseBytes() {
+            return decodedResponseBytes.sum();
+        }
+    }
+
+    /**
+     * Returns the meters of requests to the given host and templated path.
+     *
+     * @param host the host of the requests.
+     * @param pathTemplate the templated path of the requests.
+     * @return the meters, or null if no request has been made to the host and path.
+     */
+    public HttpRequestMeters getMeters(final String host, final String pathTemplate) {
+        Map<String, HttpRequestMeters> metersByPath = metersByHostAndPath.get(host);
+        return metersByPath == null ? null : metersByPath.get(pathTemplate);
+    }
+
+    /**
+     * Returns the meters of all requests, by host and then by templated path.
+     *
+     * @return an unmodifiable view of all meters.
+     */
+    public Map<String, ? extends Map<String, HttpRequestMeters>> getMeters() {
+        return Collections.unmodifiableMap(metersByHostAndPath);
+    }
+
+    @Override
+    public void requestStarted(final String host, final String pathTemplate) {
+        meters(host, pathTemplate).inFlight.increment();
+    }
+
+    @Override
+    public void requestCompleted(final String host, final String pathTemplate, final int statusCode, final long timeToHeadersNanos,
+                                 final long totalNanos, final long requestBytes, final long responseBytes) {
+        HttpRequestMeters meters = meters(host, pathTemplate);
+        meters.inFlight.decrement();
+        meters.countsByStatusClass[Math.max(1, Math.min(5, statusCode / 100))].increment();
+        meters.timeToHeaders.record(timeToHeadersNanos);
+        meters.total.record(totalNanos);
+        if (requestBytes > 0) meters.requestBytes.add(requestBytes);
+        if (responseBytes > 0) meters.responseBytes.add(responseBytes);
+    }
+
+    @Override
+    public void responseDecoded(final String host, final String pathTemplate, final long encodedBytes, final long decodedBytes) {
+        HttpRequestMeters meters = meters(host, pathTemplate);
+        if (encodedBytes > 0) meters.encodedResponseBytes.add(encodedBytes);
+        if (decodedBytes > 0) meters.decodedResponseBytes.add(decodedBytes);
+    }
+
+    @Override
+    public void requestFailed(final String host, final String pathTemplate, final Throwable failure, final long totalNanos, final long requestBytes) {
+        HttpRequestMeters meters = meters(host, pathTemplate);
+        meters.inFlight.decrement();
+        meters.countsByStatusClass[HttpRequestMeters.FAILED].increment();
+        meters.total.record(totalNanos);
+        if (requestBytes > 0) meters.requestBytes.add(requestBytes);
+    }
+
+    private HttpRequestMeters meters(final String host, final String pathTemplate) {
+        ConcurrentMap<String, HttpRequestMeters> metersByPath = metersByHostAndPath.get(host);
+        if (metersByPath == null) {
+            metersByPath = metersByHostAndPath.computeIfAbsent(host, h -> new ConcurrentHashMap<>());
+        }
+
+        HttpRequestMeters meters = metersByPath.get(pathTemplate);
+        if (meters == null) {
+            meters = metersByPath.computeIfAbsent(pathTemplate, p -> new HttpRequestMeters());
+        }
+        return meters;
+    }
+}
@@ -0,0 +1,254 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.HttpInterceptor;
+import org.beanplanet.restclient.RequestRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.beanplanet.restclient.resilience.Hosts.hostOf;
+
+/**
+ * An interceptor limiting the number of concurrent requests to each host, rejecting requests beyond the limit with a
+ * {@link RequestRejectedException} rather than letting callers queue on a degraded host. The limit adapts to the
+ * host by additive-increase, multiplicative-decrease (AIMD):
+ *
+ * <ul>
+ *     <li>a call which succeeds within the latency threshold, while at least half the limit is in use, raises the limit
+ *     by one;</li>
+ *     <li>a call which fails or exceeds the latency threshold scales the limit down by the backoff ratio.</li>
+ * </ul>
+ *
+ * <p>The limit therefore grows to the concurrency the host can sustain and falls quickly when its latency climbs or
+ * it starts failing, shedding load before queues build up.</p>
+ *
+ * @see org.beanplanet.restclient.RestClient.RestClientBuilder#concurrencyLimiter(AdaptiveConcurrencyLimiter)
+ */
+public class AdaptiveConcurrencyLimiter implements HttpInterceptor {
+    private final int initialLimit;
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final Predicate<HttpResponse> failureResponse;
+    private final ConcurrentHashMap<String, HostLimit> limits = new ConcurrentHashMap<>();
+
+    private AdaptiveConcurrencyLimiter(final AdaptiveConcurrencyLimiterBuilder builder) {
+        if (builder.minimumLimit < 1 || builder.minimumLimit > builder.maximumLimit) {
+            throw new IllegalArgumentException("The minimum concurrency limit must be positive and no greater than the maximum limit");
+        }
+        if (builder.backoffRatio <= 0 || builder.backoffRatio >= 1) {
+            throw new IllegalArgumentException("The concurrency limit backoff ratio must be between 0 and 1");
+        }
+
+        this.minimumLimit = builder.minimumLimit;
+        this.maximumLimit = builder.maximumLimit;
+        this.initialLimit = Math.max(minimumLimit, Math.min(maximumLimit, builder.initialLimit));
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+        this.failureResponse = builder.failureResponse;
+    }
+
+    /**
+     * Creates a builder for creating {@link AdaptiveConcurrencyLimiter} configured instances.
+     *
+     * @return a new builder for creating concurrency limiters.
+     */
+    public static AdaptiveConcurrencyLimiterBuilder builder() {
+        return new AdaptiveConcurrencyLimiterBuilder();
+    }
+
+    public static class AdaptiveConcurrencyLimiterBuilder {
+        private int initialLimit = 20;
+        private int minimumLimit = 1;
+        private int maximumLimit = 200;
+        private double backoffRatio = 0.9;
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        private Predicate<HttpResponse> failureResponse = response -> response.getStatusCode() == 429 || response.getStatusCode() >= 500;
+
+        /**
+         * Sets the concurrency limit of each host before any calls have completed.
+         *
+         * @param initialLimit the initial limit, 20 by default.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder initialLimit(final int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the lowest concurrency limit of each host.
+         *
+         * @param minimumLimit the minimum limit, 1 by default.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder minimumLimit(final int minimumLimit) {
+            this.minimumLimit = minimumLimit;
+            return this;
+        }
+
+        /**
+         * Sets the highest concurrency limit of each host.
+         *
+         * @param maximumLimit the maximum limit, 200 by default.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder maximumLimit(final int maximumLimit) {
+            this.maximumLimit = maximumLimit;
+            return this;
+        }
+
+        /**
+         * Sets the ratio by which the limit is scaled down when a call fails or is slow.
+         *
+         * @param backoffRatio the backoff ratio, between 0 and 1 exclusive, 0.9 by default.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder backoffRatio(final double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Sets the latency beyond which a call is taken as a sign of congestion.
+         *
+         * @param latencyThreshold the latency threshold, 2 seconds by default.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder latencyThreshold(final Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the classifier of responses which are taken as a sign of congestion.
+         *
+         * @param failureResponse predicate returning true for a failed response, by default one with a 429 or 5xx status.
+         * @return this builder, for method chaining.
+         */
+        public AdaptiveConcurrencyLimiterBuilder failureResponse(final Predicate<HttpResponse> failureResponse) {
+            this.failureResponse = failureResponse;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() {
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        final String host = hostOf(request.getUri());
+        final HostLimit limit = limitFor(host);
+        final int inFlight = limit.acquire(host);
+
+        final long start = System.nanoTime();
+        final HttpResponse response;
+        try {
+            response = chain.proceed(request);
+        } catch (RequestRejectedException rejectedEx) {
+            limit.release();
+            throw rejectedEx;
+        } catch (RuntimeException ex) {
+            limit.onCompletion(inFlight, true, System.nanoTime() - start);
+            throw ex;
+        }
+
+        limit.onCompletion(inFlight, failureResponse.test(response), System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        final String host = hostOf(request.getUri());
+        final HostLimit limit = limitFor(host);
+        final int inFlight;
+        try {
+            inFlight = limit.acquire(host);
+        } catch (RequestRejectedException rejectedEx) {
+            return CompletableFuture.failedFuture(rejectedEx);
+        }
+
+        final long start = System.nanoTime();
+        return chain.proceedAsync(request).whenComplete((response, failure) -> {
+            if (failure != null && (failure instanceof RequestRejectedException || failure.getCause() instanceof RequestRejectedException)) {
+                limit.release();
+            } else {
+                limit.onCompletion(inFlight, failure != null || failureResponse.test(response), System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Returns the current concurrency limit of a host.
+     *
+     * @param host the host, including its port if explicit in request URIs.
+     * @return the concurrency limit of the host, which is the initial limit if no requests have been made to it.
+     */
+    public int getLimit(final String host) {
+        HostLimit limit = limits.get(host);
+        return limit == null ? initialLimit : limit.limit.get();
+    }
+
+    /**
+     * Returns the number of requests in flight to a host.
+     *
+     * @param host the host, including its port if explicit in request URIs.
+     * @return the number of requests in flight.
+     */
+    public int getInFlight(final String host) {
+        HostLimit limit = limits.get(host);
+        return limit == null ? 0 : limit.inFlight.get();
+    }
+
+    private HostLimit limitFor(final String host) {
+        HostLimit limit = limits.get(host);
+        if (limit != null) return limit;
+
+        HostLimit created = new HostLimit();
+        limit = limits.putIfAbsent(host, created);
+        return limit != null ? limit : created;
+    }
+
+    /**
+     * The concurrency limit and requests in flight for a single host, updated without locking.
+     */
+    private final class HostLimit {
+        private final AtomicInteger limit = new AtomicInteger(initialLimit);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * Acquires a slot for a call, or rejects it if the limit has been reached.
+         *
+         * @return the number of calls in flight, including this one.
+         */
+        private int acquire(final String host) {
+            for (;;) {
+                final int current = inFlight.get();
+                if (current >= limit.get()) {
+                    throw new RequestRejectedException(host, "The concurrency limit [" + limit.get() + "] for host [" + host + "] has been reached");
+                }
+                if (inFlight.compareAndSet(current, current + 1)) return current + 1;
+            }
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private void onCompletion(final int inFlightAtStart, final boolean failed, final long durationNanos) {
+            inFlight.decrementAndGet();
+            if (failed || durationNanos > latencyThresholdNanos) {
+                limit.updateAndGet(current -> Math.max(minimumLimit, (int) (current * backoffRatio)));
+            } else if (inFlightAtStart * 2 >= limit.get()) {
+                limit.updateAndGet(current -> Math.min(maximumLimit, current + 1));
+            }
+        }
+    }
+}
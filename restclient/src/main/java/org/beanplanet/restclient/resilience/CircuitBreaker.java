@@ -0,0 +1,372 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.HttpInterceptor;
+import org.beanplanet.restclient.RequestRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import static org.beanplanet.restclient.resilience.Hosts.hostOf;
+
+/**
+ * An interceptor applying a circuit breaker per host, so that requests to a degraded host fail fast with a
+ * {@link RequestRejectedException} rather than piling up waiting on it.
+ *
+ * <p>Each host's circuit starts {@link State#CLOSED closed}, recording the outcome of its most recent calls in a
+ * sliding window. A call fails if it throws or its response is classified as a failure, by default a 5xx status, and is
+ * slow if it takes longer than the slow call duration. Once the window holds the minimum number of calls, the circuit
+ * {@link State#OPEN opens} if the failure rate or slow call rate reaches its threshold, rejecting every call. After the
+ * open duration the circuit is {@link State#HALF_OPEN half-open}, permitting a number of trial calls: if their failure
+ * and slow call rates are below the thresholds the circuit closes, otherwise it opens again.</p>
+ *
+ * <p>Streaming calls are timed until their response headers are received.</p>
+ *
+ * @see org.beanplanet.restclient.RestClient.RestClientBuilder#circuitBreaker(CircuitBreaker)
+ */
+public class CircuitBreaker implements HttpInterceptor {
+    /**
+     * The state of the circuit for a host.
+     */
+    public enum State {
+        /** Calls are permitted and their outcomes recorded. */
+        CLOSED,
+        /** Calls are rejected. */
+        OPEN,
+        /** A limited number of trial calls are permitted, to determine whether the circuit should close. */
+        HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Predicate<HttpResponse> failureResponse;
+    private final ConcurrentHashMap<String, HostCircuit> circuits = new ConcurrentHashMap<>();
+
+    private CircuitBreaker(final CircuitBreakerBuilder builder) {
+        if (builder.windowSize < 1 || builder.minimumCalls < 1 || builder.halfOpenCalls < 1) {
+            throw new IllegalArgumentException("The circuit breaker window size, minimum calls and half-open calls must be positive");
+        }
+
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.failureResponse = builder.failureResponse;
+    }
+
+    /**
+     * Creates a builder for creating {@link CircuitBreaker} configured instances.
+     *
+     * @return a new builder for creating circuit breakers.
+     */
+    public static CircuitBreakerBuilder builder() {
+        return new CircuitBreakerBuilder();
+    }
+
+    public static class CircuitBreakerBuilder {
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1.0;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 5;
+        private Predicate<HttpResponse> failureResponse = response -> response.getStatusCode() >= 500;
+
+        /**
+         * Sets the proportion of failed calls, between 0 and 1, at which the circuit opens.
+         *
+         * @param failureRateThreshold the failure rate threshold, 0.5 by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder failureRateThreshold(final double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the proportion of slow calls, between 0 and 1, at which the circuit opens.
+         *
+         * @param slowCallRateThreshold the slow call rate threshold, 1 by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder slowCallRateThreshold(final double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the duration beyond which a call is considered slow.
+         *
+         * @param slowCallDuration the slow call duration, 5 seconds by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder slowCallDuration(final Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * Sets the number of most recent calls whose outcomes are recorded for each host.
+         *
+         * @param windowSize the size of the sliding window, 100 by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder windowSize(final int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of calls which must be recorded before the failure and slow call rates are evaluated.
+         *
+         * @param minimumCalls the minimum number of calls, 20 by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder minimumCalls(final int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets how long a circuit stays open before permitting trial calls.
+         *
+         * @param openDuration the open duration, 30 seconds by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder openDuration(final Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Sets the number of trial calls permitted while a circuit is half-open.
+         *
+         * @param halfOpenCalls the number of trial calls, 5 by default.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder halfOpenCalls(final int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Sets the classifier of responses which count as failed calls.
+         *
+         * @param failureResponse predicate returning true for a failed response, by default one with a 5xx status.
+         * @return this builder, for method chaining.
+         */
+        public CircuitBreakerBuilder failureResponse(final Predicate<HttpResponse> failureResponse) {
+            this.failureResponse = failureResponse;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        final String host = hostOf(request.getUri());
+        final HostCircuit circuit = circuitFor(host);
+        final boolean trial = circuit.acquirePermission(host);
+
+        final long start = System.nanoTime();
+        final HttpResponse response;
+        try {
+            response = chain.proceed(request);
+        } catch (RequestRejectedException rejectedEx) {
+            circuit.release(trial);
+            throw rejectedEx;
+        } catch (RuntimeException ex) {
+            circuit.record(trial, FAILED, System.nanoTime() - start);
+            throw ex;
+        }
+
+        circuit.record(trial, failureResponse.test(response) ? FAILED : 0, System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        final String host = hostOf(request.getUri());
+        final HostCircuit circuit = circuitFor(host);
+        final boolean trial;
+        try {
+            trial = circuit.acquirePermission(host);
+        } catch (RequestRejectedException rejectedEx) {
+            return CompletableFuture.failedFuture(rejectedEx);
+        }
+
+        final long start = System.nanoTime();
+        return chain.proceedAsync(request).whenComplete((response, failure) -> {
+            if (failure != null && (failure instanceof RequestRejectedException || failure.getCause() instanceof RequestRejectedException)) {
+                circuit.release(trial);
+            } else {
+                circuit.record(trial, failure != null || failureResponse.test(response) ? FAILED : 0, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Returns the state of the circuit for a host.
+     *
+     * @param host the host, including its port if explicit in request URIs.
+     * @return the state of the circuit for the host, which is closed if no requests have been made to it.
+     */
+    public State getState(final String host) {
+        HostCircuit circuit = circuits.get(host);
+        return circuit == null ? State.CLOSED : circuit.state();
+    }
+
+    private HostCircuit circuitFor(final String host) {
+        HostCircuit circuit = circuits.get(host);
+        if (circuit != null) return circuit;
+
+        HostCircuit created = new HostCircuit();
+        circuit = circuits.putIfAbsent(host, created);
+        return circuit != null ? circuit : created;
+    }
+
+    /**
+     * The circuit for a single host. The state is guarded by a lock, held only to update a few counters, rather than by
+     * monitors, so callers on virtual threads are not pinned.
+     */
+    private final class HostCircuit {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final byte[] window = new byte[windowSize];
+        private int windowIndex;
+        private int windowCount;
+        private int failedCalls;
+        private int slowCalls;
+
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private int trialPermits;
+        private int trialCalls;
+        private int failedTrialCalls;
+        private int slowTrialCalls;
+
+        private State state() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Acquires permission for a call, or rejects it.
+         *
+         * @return true if the call is a trial call of a half-open circuit.
+         */
+        private boolean acquirePermission(final String host) {
+            lock.lock();
+            try {
+                if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+                    state = State.HALF_OPEN;
+                    trialPermits = halfOpenCalls;
+                    trialCalls = failedTrialCalls = slowTrialCalls = 0;
+                }
+
+                if (state == State.CLOSED) return false;
+                if (state == State.HALF_OPEN && trialPermits > 0) {
+                    trialPermits--;
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw new RequestRejectedException(host, "The circuit breaker for host [" + host + "] is open");
+        }
+
+        /**
+         * Returns the permission of a call which was neither a success nor a failure, because it was rejected further
+         * down the chain.
+         */
+        private void release(final boolean trial) {
+            if (!trial) return;
+
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN) trialPermits++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void record(final boolean trial, final byte failed, final long durationNanos) {
+            final byte outcome = (byte) (failed | (durationNanos >= slowCallNanos ? SLOW : 0));
+            lock.lock();
+            try {
+                if (trial) {
+                    recordTrial(outcome);
+                } else if (state == State.CLOSED) {
+                    recordInWindow(outcome);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordInWindow(final byte outcome) {
+            if (windowCount == windowSize) {
+                byte evicted = window[windowIndex];
+                if ((evicted & FAILED) != 0) failedCalls--;
+                if ((evicted & SLOW) != 0) slowCalls--;
+            } else {
+                windowCount++;
+            }
+            window[windowIndex] = outcome;
+            windowIndex = (windowIndex + 1) % windowSize;
+            if ((outcome & FAILED) != 0) failedCalls++;
+            if ((outcome & SLOW) != 0) slowCalls++;
+
+            if (windowCount >= minimumCalls && exceedsThresholds(failedCalls, slowCalls, windowCount)) {
+                open();
+            }
+        }
+
+        private void recordTrial(final byte outcome) {
+            if (state != State.HALF_OPEN) return;
+
+            trialCalls++;
+            if ((outcome & FAILED) != 0) failedTrialCalls++;
+            if ((outcome & SLOW) != 0) slowTrialCalls++;
+            if (trialCalls < halfOpenCalls) return;
+
+            if (exceedsThresholds(failedTrialCalls, slowTrialCalls, trialCalls)) {
+                open();
+            } else {
+                state = State.CLOSED;
+                windowIndex = windowCount = failedCalls = slowCalls = 0;
+            }
+        }
+
+        private boolean exceedsThresholds(final int failed, final int slow, final int calls) {
+            return failed >= failureRateThreshold * calls || slow >= slowCallRateThreshold * calls;
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.HttpInterceptor;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An interceptor hedging requests according to a {@link HedgingPolicy}: if a request marked to be hedged has not been
+ * answered within the hedge delay, a second copy is sent and whichever responds first is returned, the other being
+ * cancelled. A failure is returned only if every copy fails.
+ *
+ * <p>Only safe methods ({@code GET}, {@code HEAD} and {@code OPTIONS}) are hedged, and never streaming executions.
+ * Both copies are executed asynchronously, so synchronous executions wait on the first response. Cancellation reaches
+ * the JDK HTTP implementation, aborting the losing exchange, provided the hedging interceptor is added after any
+ * interceptors which do not propagate cancellation.</p>
+ *
+ * <p>The latency of every primary execution which completes or is cancelled by its hedge is recorded with the policy,
+ * from which a percentile hedge delay is derived.</p>
+ *
+ * @see org.beanplanet.restclient.RestClient.RestClientBuilder#hedgingPolicy(HedgingPolicy)
+ * @see org.beanplanet.restclient.RestClient.RequestBuilder#hedged()
+ */
+public class HedgingInterceptor implements HttpInterceptor {
+    private static final Set<String> HEDGEABLE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final HedgingPolicy policy;
+
+    /**
+     * Constructs a new hedging interceptor.
+     *
+     * @param policy the policy by which requests are hedged.
+     */
+    public HedgingInterceptor(final HedgingPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        if (chain.isStreaming() || !isHedged(request, chain)) return chain.proceed(request);
+
+        try {
+            return hedge(request, chain).join();
+        } catch (CompletionException completionEx) {
+            if (completionEx.getCause() instanceof RuntimeException cause) throw cause;
+            throw completionEx;
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        if (!isHedged(request, chain)) return chain.proceedAsync(request);
+
+        return hedge(request, chain);
+    }
+
+    private boolean isHedged(final HttpRequest request, final Chain chain) {
+        Object hedge = chain.attributes().get(HedgingPolicy.HEDGE_ATTRIBUTE);
+        return hedge != null && !Boolean.FALSE.equals(hedge) && HEDGEABLE_METHODS.contains(request.getMethod().toUpperCase(Locale.ROOT));
+    }
+
+    private CompletableFuture<HttpResponse> hedge(final HttpRequest request, final Chain chain) {
+        final Object requestedDelay = chain.attributes().get(HedgingPolicy.HEDGE_ATTRIBUTE);
+        final Duration delay = policy.hedgeDelay(requestedDelay instanceof Duration duration ? duration : null);
+        policy.onRequest();
+
+        final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final AtomicReference<CompletableFuture<HttpResponse>> hedgeExecution = new AtomicReference<>();
+
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse> primaryExecution = chain.proceedAsync(request);
+        primaryExecution.whenComplete((response, failure) -> {
+            // A primary cancelled because the hedge answered first was at least as slow as the time it had taken, so
+            // that elapsed time is recorded as a lower bound; omitting it would bias the observed latencies low
+            if (failure == null || isCancellation(failure)) policy.recordLatency(System.nanoTime() - start);
+            onCompletion(result, outstanding, response, failure);
+        });
+
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || !policy.tryAcquireHedge()) return;
+
+            outstanding.incrementAndGet();
+            CompletableFuture<HttpResponse> execution = chain.proceedAsync(request);
+            hedgeExecution.set(execution);
+            execution.whenComplete((response, failure) -> onCompletion(result, outstanding, response, failure));
+            if (result.isDone()) execution.cancel(true);
+        });
+
+        // The first response wins: the other execution, or both if the caller cancels, is cancelled
+        result.whenComplete((response, failure) -> {
+            primaryExecution.cancel(true);
+            CompletableFuture<HttpResponse> execution = hedgeExecution.get();
+            if (execution != null) execution.cancel(true);
+        });
+        return result;
+    }
+
+    private static boolean isCancellation(final Throwable failure) {
+        return failure instanceof CancellationException || (failure instanceof CompletionException && failure.getCause() instanceof CancellationException);
+    }
+
+    private static void onCompletion(final CompletableFuture<HttpResponse> result,
+                                     final AtomicInteger outstanding,
+                                     final HttpResponse response,
+                                     final Throwable failure) {
+        if (failure == null) {
+            result.complete(response);
+        } else if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.restclient.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The policy by which a {@link HedgingInterceptor} hedges requests: how long to wait for a response before sending a
+ * second copy of a request, and the proportion of requests which may be hedged.
+ *
+ * <p>By default the hedge delay is the observed 95th percentile latency of the hedged requests, so that only the
+ * slowest twentieth wait for a second copy, with a fixed delay used until enough latencies have been observed. The
+ * observed latencies decay in weight, halving each minute by default, so the delay tracks current latency rather than
+ * the history since startup, and the percentile is estimated to within an eighth by a {@link LatencyHistogram}.</p>
+ *
+ * <p>Hedges are limited by a token bucket: each hedged request adds a fraction of a token, up to the maximum
+ * proportion of requests which may be hedged, and each hedge takes a whole token. A slow upstream therefore receives
+ * at most that proportion of additional load, after an initial burst of up to ten hedges.</p>
+ *
+ * <pre>
+ * RestClient client = RestClient.builder()
+ *     .hedgingPolicy(HedgingPolicy.builder().percentileDelay(0.95, Duration.ofMillis(50)).maximumHedgeRatio(0.05).build())
+ *     .build();
+ * client.get(uri).hedged().execute();
+ * </pre>
+ */
+public class HedgingPolicy {
+    /** The request attribute marking a request to be hedged, with a value of {@code true} or a {@link Duration} delay. */
+    public static final String HEDGE_ATTRIBUTE = HedgingPolicy.class.getName() + ".hedge";
+
+    private static final long MILLI_TOKENS = 1000;
+    private static final long MAXIMUM_MILLI_TOKENS = 10 * MILLI_TOKENS;
+
+    private final Duration delay;
+    private final double percentile;
+    private final long minimumSamples;
+    private final long requestMilliTokens;
+    private final AtomicLong milliTokens = new AtomicLong(MAXIMUM_MILLI_TOKENS);
+    private final LatencyHistogram latencies;
+    private final LongAdder hedgeCount = new LongAdder();
+
+    private HedgingPolicy(final HedgingPolicyBuilder builder) {
+        if (builder.maximumHedgeRatio <= 0 || builder.maximumHedgeRatio > 1) {
+            throw new IllegalArgumentException("The maximum hedge ratio must be greater than 0 and at most 1");
+        }
+
+        this.delay = builder.delay;
+        this.percentile = builder.percentile;
+        this.minimumSamples = builder.minimumSamples;
+        this.requestMilliTokens = Math.max(1, Math.round(builder.maximumHedgeRatio * MILLI_TOKENS));
+        this.latencies = new LatencyHistogram(builder.latencyHalfLife);
+    }
+
+    /**
+     * Creates a builder for creating {@link HedgingPolicy} configured instances.
+     *
+     * @return a new builder for creating hedging policies.
+     */
+    public static HedgingPolicyBuilder builder() {
+        return new HedgingPolicyBuilder();
+    }
+
+    public static class HedgingPolicyBuilder {
+        private Duration delay = Duration.ofMillis(100);
+        private double percentile = 0.95;
+        private long minimumSamples = 100;
+        private double maximumHedgeRatio = 0.1;
+        private Duration latencyHalfLife = Duration.ofMinutes(1);
+
+        /**
+         * Hedges requests after a fixed delay.
+         *
+         * @param delay the hedge delay.
+         * @return this builder, for method chaining.
+         */
+        public HedgingPolicyBuilder fixedDelay(final Duration delay) {
+            this.delay = delay;
+            this.percentile = Double.NaN;
+            return this;
+        }
+
+        /**
+         * Hedges requests after the observed percentile latency of hedged requests, or after an initial delay until
+         * enough latencies have been observed.
+         *
+         * @param percentile the percentile, between 0 and 1, such as 0.95.
+         * @param initialDelay the hedge delay until the minimum number of latencies has been observed.
+         * @return this builder, for method chaining.
+         */
+        public HedgingPolicyBuilder percentileDelay(final double percentile, final Duration initialDelay) {
+            this.percentile = percentile;
+            this.delay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Sets the half-life of the observed latencies from which the percentile delay is derived: the time after
+         * which a latency counts half as much as one just observed.
+         *
+         * @param latencyHalfLife the half-life of observed latencies, one minute by default.
+         * @return this builder, for method chaining.
+         */
+        public HedgingPolicyBuilder latencyHalfLife(final Duration latencyHalfLife) {
+            this.latencyHalfLife = latencyHalfLife;
+            return this;
+        }
+
+        /**
+         * Sets the number of latencies, weighted by their decay, which must be observed before the percentile delay is
+         * used. Should traffic fall away so that fewer remain, the initial delay is used again.
+         *
+         * @param minimumSamples the minimum number of latencies, 100 by default.
+         * @return this builder, for method chaining.
+         */
+        public HedgingPolicyBuilder minimumSamples(final long minimumSamples) {
+            this.minimumSamples = minimumSamples;
+            return this;
+        }
+
+        /**
+         * Sets the maximum proportion of requests which may be hedged.
+         *
+         * @param maximumHedgeRatio the maximum hedge ratio, between 0 exclusive and 1, 0.1 by default.
+         * @return this builder, for method chaining.
+         */
+        public HedgingPolicyBuilder maximumHedgeRatio(final double maximumHedgeRatio) {
+            this.maximumHedgeRatio = maximumHedgeRatio;
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+
+    /**
+     * Returns the delay before hedging a request.
+     *
+     * @param requestedDelay the delay requested for the request, or null to use the delay of this policy.
+     * @return the hedge delay.
+     */
+    public Duration hedgeDelay(final Duration requestedDelay) {
+        if (requestedDelay != null) return requestedDelay;
+        if (Double.isNaN(percentile) || latencies.getCount() < minimumSamples) return delay;
+
+        return Duration.ofNanos(latencies.getPercentileNanos(percentile));
+    }
+
+    /**
+     * Returns the number of requests hedged under this policy.
+     *
+     * @return the number of hedges sent.
+     */
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    void onRequest() {
+        milliTokens.updateAndGet(tokens -> Math.min(MAXIMUM_MILLI_TOKENS, tokens + requestMilliTokens));
+    }
+
+    void recordLatency(final long nanos) {
+        latencies.record(nanos);
+    }
+
+    boolean tryAcquireHedge() {
+        for (;;) {
+            final long tokens = milliTokens.get();
+            if (tokens < MILLI_TOKENS) return false;
+            if (milliTokens.compareAndSet(tokens, tokens - MILLI_TOKENS)) {
+                hedgeCount.increment();
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.beanplanet.restclient.resilience;
+
+import java.net.URI;
+
+/**
+ * Utilities for keying per-host state by the host addressed by a request URI.
+ */
+final class Hosts {
+    private static final String UNKNOWN_HOST = "unknown";
+
+    private Hosts() {}
+
+    /**
+     * Returns the host addressed by a request URI, including its port if explicit.
+     *
+     * @param uri the request URI, which may be null.
+     * @return the host and port, or "unknown" if the URI has no host.
+     */
+    static String hostOf(final URI uri) {
+        if (uri == null || uri.getHost() == null) return UNKNOWN_HOST;
+
+        return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+}
@@ -0,0 +1,80 @@
+package org.beanplanet.restclient.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket limiting retries to a proportion of successful requests, so that retries cannot multiply the load on
+ * an upstream which is failing for most of its callers. Each failed attempt takes a token from the bucket and each
+ * successful attempt returns a fraction of one; retries are permitted only while the bucket is more than half full.
+ *
+ * <p>With the default token ratio of 0.1, a client may retry roughly one request in ten once an upstream starts failing,
+ * rather than adding as many retries as configured for every request.</p>
+ *
+ * <p>A budget may be shared by several policies or clients calling the same upstream.</p>
+ */
+public class RetryBudget {
+    /** The default maximum number of tokens in the bucket. */
+    public static final int DEFAULT_MAXIMUM_TOKENS = 10;
+    /** The default number of tokens returned to the bucket by each successful attempt. */
+    public static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+    private static final long MILLI_TOKENS = 1000;
+
+    private final long maximumMilliTokens;
+    private final long successMilliTokens;
+    private final AtomicLong milliTokens;
+
+    /**
+     * Constructs a new, full, retry budget.
+     *
+     * @param maximumTokens the maximum number of tokens in the bucket.
+     * @param tokenRatio the number of tokens, typically a fraction of one, returned by each successful attempt.
+     */
+    public RetryBudget(final int maximumTokens, final double tokenRatio) {
+        if (maximumTokens <= 0) throw new IllegalArgumentException("The maximum number of retry budget tokens must be positive");
+        if (tokenRatio <= 0) throw new IllegalArgumentException("The retry budget token ratio must be positive");
+
+        this.maximumMilliTokens = maximumTokens * MILLI_TOKENS;
+        this.successMilliTokens = Math.max(1, Math.round(tokenRatio * MILLI_TOKENS));
+        this.milliTokens = new AtomicLong(maximumMilliTokens);
+    }
+
+    /**
+     * Constructs a new, full, retry budget with the default maximum number of tokens and token ratio.
+     */
+    public RetryBudget() {
+        this(DEFAULT_MAXIMUM_TOKENS, DEFAULT_TOKEN_RATIO);
+    }
+
+    /**
+     * Records a successful attempt, returning a fraction of a token to the bucket.
+     */
+    public void onSuccess() {
+        milliTokens.updateAndGet(tokens -> Math.min(maximumMilliTokens, tokens + successMilliTokens));
+    }
+
+    /**
+     * Records a failed attempt, taking a token from the bucket.
+     */
+    public void onFailure() {
+        milliTokens.updateAndGet(tokens -> Math.max(0, tokens - MILLI_TOKENS));
+    }
+
+    /**
+     * Whether the budget permits a retry.
+     *
+     * @return true if the bucket is more than half full.
+     */
+    public boolean canRetry() {
+        return milliTokens.get() > maximumMilliTokens / 2;
+    }
+
+    /**
+     * Returns the number of tokens in the bucket.
+     *
+     * @return the current number of tokens.
+     */
+    public double getTokens() {
+        return milliTokens.get() / (double) MILLI_TOKENS;
+    }
+}
@@ -0,0 +1,134 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.Deadline;
+import org.beanplanet.restclient.ExchangeTimeouts;
+import org.beanplanet.restclient.HttpInterceptor;
+import org.beanplanet.restclient.RestClientException;
+import org.beanplanet.restclient.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An interceptor retrying failed requests according to a {@link RetryPolicy}. When the attempts or retry budget are
+ * exhausted, the last retryable response is returned, or the last retryable failure thrown, so that response handling
+ * is the same as without retries. The same is done, rather than backing off only to fail with a
+ * {@link org.beanplanet.restclient.DeadlineExceededException}, when the next attempt could not begin before the
+ * deadline of the execution passes.
+ *
+ * <p>Asynchronous executions back off without holding a thread, by scheduling the next attempt on a delayed
+ * executor.</p>
+ *
+ * @see org.beanplanet.restclient.RestClient.RestClientBuilder#retryPolicy(RetryPolicy)
+ */
+public class RetryInterceptor implements HttpInterceptor {
+    private final RetryPolicy policy;
+
+    /**
+     * Constructs a new retry interceptor.
+     *
+     * @param policy the policy by which requests are retried.
+     */
+    public RetryInterceptor(final RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public HttpResponse intercept(final HttpRequest request, final Chain chain) {
+        if (!policy.isRetryable(request, chain.attributes())) return chain.proceed(request);
+
+        final Deadline deadline = deadlineOf(chain.attributes());
+        Duration previousDelay = null;
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse response = null;
+            RuntimeException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (RuntimeException ex) {
+                if (!policy.isRetryable(ex)) throw ex;
+                failure = ex;
+            }
+
+            Duration delay = nextDelay(attempt, response, previousDelay, deadline);
+            if (delay == null) {
+                if (failure != null) throw failure;
+                return response;
+            }
+
+            close(response);
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException interruptedEx) {
+                Thread.currentThread().interrupt();
+                if (failure != null) throw failure;
+                throw new RestClientException("Interrupted whilst waiting to retry request [" + request.getUri() + "]", interruptedEx);
+            }
+            previousDelay = delay;
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> interceptAsync(final HttpRequest request, final Chain chain) {
+        if (!policy.isRetryable(request, chain.attributes())) return chain.proceedAsync(request);
+
+        return attemptAsync(request, chain, deadlineOf(chain.attributes()), 1, null);
+    }
+
+    private CompletableFuture<HttpResponse> attemptAsync(final HttpRequest request, final Chain chain, final Deadline deadline, final int attempt, final Duration previousDelay) {
+        return chain.proceedAsync(request)
+                    .handle((response, failure) -> {
+                        if (failure != null && !policy.isRetryable(failure)) return CompletableFuture.<HttpResponse>failedFuture(failure);
+
+                        Duration delay = nextDelay(attempt, failure == null ? response : null, previousDelay, deadline);
+                        if (delay == null) {
+                            return failure != null ? CompletableFuture.<HttpResponse>failedFuture(failure) : CompletableFuture.completedFuture(response);
+                        }
+
+                        Executor delayed = CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS);
+                        return CompletableFuture.runAsync(() -> {}, delayed)
+                                                .thenCompose(ignored -> attemptAsync(request, chain, deadline, attempt + 1, delay));
+                    })
+                    .thenCompose(next -> next);
+    }
+
+    /**
+     * Classifies the outcome of an attempt, returning the delay before the next attempt or null if the outcome is to
+     * be returned to the caller. The outcome is a retryable failure if the response is null.
+     */
+    private Duration nextDelay(final int attempt, final HttpResponse response, final Duration previousDelay, final Deadline deadline) {
+        final RetryBudget budget = policy.getBudget();
+        if (response != null && !policy.isRetryable(response)) {
+            if (budget != null) budget.onSuccess();
+            return null;
+        }
+
+        if (budget != null) budget.onFailure();
+        if (attempt >= policy.getMaximumAttempts() || (budget != null && !budget.canRetry())) return null;
+
+        Duration delay = policy.nextDelay(previousDelay);
+        if (response != null) {
+            Duration retryAfter = policy.retryAfter(response);
+            if (retryAfter == null) return null;
+            if (retryAfter.compareTo(delay) > 0) delay = retryAfter;
+        }
+        // Backing off past the deadline would only exchange the outcome for a deadline failure
+        if (deadline != null && delay.compareTo(deadline.remaining()) >= 0) return null;
+        return delay;
+    }
+
+    private static Deadline deadlineOf(final Map<String, Object> attributes) {
+        final ExchangeTimeouts timeouts = ExchangeTimeouts.of(attributes);
+        return timeouts == null ? null : timeouts.deadline();
+    }
+
+    private static void close(final HttpResponse response) {
+        if (response != null && response.getBody() instanceof StreamingResponseBody streamingBody) {
+            streamingBody.close();
+        }
+    }
+}
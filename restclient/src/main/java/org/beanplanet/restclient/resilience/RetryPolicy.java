@@ -0,0 +1,233 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * The policy by which a {@link RetryInterceptor} retries failed requests: which requests may be retried, which
+ * outcomes are retryable, how long to back off between attempts and how many attempts to make.
+ *
+ * <p>Only requests with idempotent methods are retried, unless marked as safe to retry with the
+ * {@link #RETRYABLE_ATTRIBUTE} request attribute, for example with
+ * {@link org.beanplanet.restclient.RestClient.RequestBuilder#retryable()}. Request bodies are re-sent on each attempt,
+ * so must be re-readable.</p>
+ *
+ * <p>Backoff uses decorrelated jitter: each delay is chosen at random between the base delay and three times the
+ * previous delay, up to the maximum delay. A {@code Retry-After} header on a retryable response sets the minimum delay
+ * before the next attempt; if it asks for longer than the maximum delay the response is returned without retrying.</p>
+ *
+ * <pre>
+ * RestClient client = RestClient.builder()
+ *     .retryPolicy(RetryPolicy.builder().maximumAttempts(4).baseDelay(Duration.ofMillis(50)).build())
+ *     .build();
+ * </pre>
+ */
+public class RetryPolicy {
+    /** The request attribute which, if {@code true}, marks a request with a non-idempotent method as safe to retry. */
+    public static final String RETRYABLE_ATTRIBUTE = RetryPolicy.class.getName() + ".retryable";
+    /** The idempotent methods, per RFC 9110 section 9.2.2. */
+    public static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+    /** The status codes retried by default: timeouts, throttling and transient server or gateway failures. */
+    public static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Set.of(408, 429, 500, 502, 503, 504);
+
+    private final int maximumAttempts;
+    private final Duration baseDelay;
+    private final Duration maximumDelay;
+    private final Set<Integer> retryableStatusCodes;
+    private final Predicate<Throwable> retryableFailure;
+    private final RetryBudget budget;
+    private final boolean honourRetryAfter;
+
+    private RetryPolicy(final RetryPolicyBuilder builder) {
+        if (builder.maximumAttempts < 1) throw new IllegalArgumentException("The maximum number of attempts must be at least one");
+
+        this.maximumAttempts = builder.maximumAttempts;
+        this.baseDelay = builder.baseDelay;
+        this.maximumDelay = builder.maximumDelay;
+        this.retryableStatusCodes = Set.copyOf(builder.retryableStatusCodes);
+        this.retryableFailure = builder.retryableFailure;
+        this.budget = builder.budget;
+        this.honourRetryAfter = builder.honourRetryAfter;
+    }
+
+    /**
+     * Creates a builder for creating {@link RetryPolicy} configured instances.
+     *
+     * @return a new builder for creating retry policies.
+     */
+    public static RetryPolicyBuilder builder() {
+        return new RetryPolicyBuilder();
+    }
+
+    public static class RetryPolicyBuilder {
+        private int maximumAttempts = 3;
+        private Duration baseDelay = Duration.ofMillis(100);
+        private Duration maximumDelay = Duration.ofSeconds(10);
+        private Set<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+        private Predicate<Throwable> retryableFailure = IoException.class::isInstance;
+        private RetryBudget budget = new RetryBudget();
+        private boolean honourRetryAfter = true;
+
+        /**
+         * Sets the maximum number of attempts, including the first.
+         *
+         * @param maximumAttempts the maximum number of attempts, at least one.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder maximumAttempts(final int maximumAttempts) {
+            this.maximumAttempts = maximumAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the minimum delay between attempts.
+         *
+         * @param baseDelay the base delay.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder baseDelay(final Duration baseDelay) {
+            this.baseDelay = baseDelay;
+            return this;
+        }
+
+        /**
+         * Sets the maximum delay between attempts, which also bounds the {@code Retry-After} delay honoured.
+         *
+         * @param maximumDelay the maximum delay.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder maximumDelay(final Duration maximumDelay) {
+            this.maximumDelay = maximumDelay;
+            return this;
+        }
+
+        /**
+         * Sets the response status codes which are retried.
+         *
+         * @param retryableStatusCodes the retryable status codes.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder retryableStatusCodes(final Set<Integer> retryableStatusCodes) {
+            this.retryableStatusCodes = retryableStatusCodes;
+            return this;
+        }
+
+        /**
+         * Sets the classifier of the failures which are retried, by default I/O failures.
+         *
+         * @param retryableFailure predicate returning true for a retryable failure.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder retryableFailure(final Predicate<Throwable> retryableFailure) {
+            this.retryableFailure = retryableFailure;
+            return this;
+        }
+
+        /**
+         * Sets the budget limiting the proportion of attempts which may be retries, or null for no budget. Each policy
+         * has its own budget by default.
+         *
+         * @param budget the retry budget, which may be shared.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder budget(final RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets whether the {@code Retry-After} header of retryable responses is honoured.
+         *
+         * @param honourRetryAfter true to honour {@code Retry-After}, the default.
+         * @return this builder, for method chaining.
+         */
+        public RetryPolicyBuilder honourRetryAfter(final boolean honourRetryAfter) {
+            this.honourRetryAfter = honourRetryAfter;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    public int getMaximumAttempts() {
+        return maximumAttempts;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Whether a request may be retried: if its method is idempotent or it is marked as safe to retry.
+     *
+     * @param request the request.
+     * @param attributes the attributes of the request.
+     * @return true if the request may be retried.
+     */
+    public boolean isRetryable(final HttpRequest request, final Map<String, Object> attributes) {
+        return IDEMPOTENT_METHODS.contains(request.getMethod().toUpperCase(Locale.ROOT)) || Boolean.TRUE.equals(attributes.get(RETRYABLE_ATTRIBUTE));
+    }
+
+    public boolean isRetryable(final HttpResponse response) {
+        return retryableStatusCodes.contains(response.getStatusCode());
+    }
+
+    public boolean isRetryable(final Throwable failure) {
+        return retryableFailure.test(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+    }
+
+    /**
+     * Returns the delay before the next attempt, by decorrelated jitter.
+     *
+     * @param previousDelay the previous delay, or null before the first retry.
+     * @return a random delay between the base delay and three times the previous delay, bounded by the maximum delay.
+     */
+    public Duration nextDelay(final Duration previousDelay) {
+        final long baseMillis = baseDelay.toMillis();
+        final long upperMillis = Math.max(baseMillis, 3 * (previousDelay == null ? baseMillis : previousDelay.toMillis()));
+        final long delayMillis = upperMillis == baseMillis ? baseMillis : ThreadLocalRandom.current().nextLong(baseMillis, upperMillis + 1);
+        return Duration.ofMillis(Math.min(delayMillis, maximumDelay.toMillis()));
+    }
+
+    /**
+     * Returns the delay requested by the {@code Retry-After} header of a response, as a number of seconds or an
+     * HTTP date.
+     *
+     * @param response the response.
+     * @return the requested delay, zero if the header is absent, invalid or not honoured, or null if the delay exceeds
+     * the maximum delay, in which case the request should not be retried.
+     */
+    public Duration retryAfter(final HttpResponse response) {
+        if (!honourRetryAfter) return Duration.ZERO;
+
+        String retryAfter = response.getHeaders().get("Retry-After").map(String::trim).orElse("");
+        if (retryAfter.isEmpty()) return Duration.ZERO;
+
+        Duration delay;
+        try {
+            delay = Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter)));
+        } catch (NumberFormatException notSecondsEx) {
+            try {
+                long untilMillis = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                delay = Duration.ofMillis(Math.max(0, untilMillis - System.currentTimeMillis()));
+            } catch (DateTimeParseException notDateEx) {
+                return Duration.ZERO;
+            }
+        }
+        return delay.compareTo(maximumDelay) > 0 ? null : delay;
+    }
+}
@@ -0,0 +1,110 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchExecutionTest {
+    private static InMemoryHttpImplementation http(final Duration latency) {
+        return InMemoryHttpImplementation.builder()
+                                         .route(request -> true, request -> HttpResponse.builder()
+                                                                                       .statusCode(200)
+                                                                                       .header("Content-Type", MediaTypes.Text.PLAIN.getCanonicalForm())
+                                                                                       .body(new ByteArrayResource(request.getUri().getPath().getBytes(StandardCharsets.UTF_8)))
+                                                                                       .build())
+                                         .latency(latency)
+                                         .build();
+    }
+
+    @Test
+    void givenABatch_whenExecuted_thenEveryRequestHasOneResultAndTheConcurrencyLimitIsRespected() {
+        InMemoryHttpImplementation http = http(Duration.ofMillis(5));
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        List<Long> indexes = new ArrayList<>();
+        try (BatchExecution results = client.executeAll(IntStream.range(0, 100).mapToObj(id -> client.get("http://in-memory/items/" + id)), 8)) {
+            while (results.hasNext()) {
+                BatchExecution.Result result = results.next();
+                assertTrue(result.isExecuted());
+                assertThat(result.body(String.class), equalTo("/items/" + result.index()));
+                indexes.add(result.index());
+
+                // Every request sent is either consumed or one of the window outstanding
+                assertThat(http.getRequestCount(), lessThanOrEqualTo(indexes.size() + 8L));
+            }
+        }
+
+        assertThat(Set.copyOf(indexes), equalTo(LongStream.range(0, 100).boxed().collect(Collectors.toSet())));
+    }
+
+    @Test
+    void givenASlowConsumer_whenResultsAreTaken_thenRequestsAreReadAndSentOnlyAsTheWindowAllows() {
+        InMemoryHttpImplementation http = http(Duration.ZERO);
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+        AtomicInteger read = new AtomicInteger();
+
+        Stream<RestClient.RequestBuilder> requests = Stream.generate(() -> client.get("http://in-memory/items/" + read.incrementAndGet()));
+        try (Stream<BatchExecution.Result> results = client.executeAll(requests, 4).stream()) {
+            assertThat(results.limit(10).count(), equalTo(10L));
+        }
+
+        assertThat(http.getRequestCount(), lessThanOrEqualTo(14L));
+        assertThat(read.get(), lessThanOrEqualTo(14 + 4 * 4));
+    }
+
+    @Test
+    void givenASlowHostFirstInTheBatch_whenExecutedWithAPerHostLimit_thenRequestsToOtherHostsAreNotHeldUp() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> request.getUri().getHost().equals("slow.in-memory"), request -> {
+                                                                        try {
+                                                                            Thread.sleep(300);
+                                                                        } catch (InterruptedException intEx) {
+                                                                            Thread.currentThread().interrupt();
+                                                                        }
+                                                                        return HttpResponse.builder().statusCode(200).build();
+                                                                    })
+                                                                    .fallback(request -> HttpResponse.builder().statusCode(200).build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        List<RestClient.RequestBuilder> requests = new ArrayList<>();
+        IntStream.range(0, 6).forEach(id -> requests.add(client.get("http://slow.in-memory/items/" + id)));
+        IntStream.range(0, 6).forEach(id -> requests.add(client.get("http://fast.in-memory/items/" + id)));
+
+        try (BatchExecution results = client.executeAll(requests, 4, 2)) {
+            // The two slow requests allowed in flight leave room for the fast host, whose requests complete first
+            assertThat(results.next().index(), greaterThanOrEqualTo(6L));
+        }
+    }
+
+    @Test
+    void givenFailingRequests_whenExecuted_thenFailuresAreReturnedAsResults() {
+        RestClient client = RestClient.builder().httpImplementation(InMemoryHttpImplementation.builder().failureRate(1).build()).build();
+
+        try (BatchExecution results = client.executeAll(List.of(client.get("http://in-memory/a"), client.get("http://in-memory/b")), 2)) {
+            assertFalse(results.next().isExecuted());
+            assertFalse(results.next().isExecuted());
+            assertFalse(results.hasNext());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientWarmUpTest {
+    private static final String HOST = "orders.internal";
+
+    private static List<InetAddress> address(final int lastOctet) throws UnknownHostException {
+        return List.of(InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, (byte) lastOctet}));
+    }
+
+    private static void awaitResolutions(final AtomicInteger resolutions, final int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (resolutions.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void givenAHostKeptWarm_whenNotCalled_thenItIsResolvedAndThenLookedUpInTheBackground() throws Exception {
+        AtomicInteger resolutions = new AtomicInteger();
+        try (DnsCache dnsCache = DnsCache.builder()
+                                         .lookup(host -> address(resolutions.incrementAndGet()))
+                                         .refreshInterval(Duration.ofMillis(20))
+                                         .build()) {
+            assertThat(dnsCache.keepWarm(HOST).join(), equalTo(address(1)));
+
+            awaitResolutions(resolutions, 3);
+            assertTrue(resolutions.get() >= 3);
+        }
+    }
+
+    @Test
+    void givenAHostKeptWarmTwice_whenLookedUpInTheBackground_thenItIsScheduledOnce() throws Exception {
+        AtomicInteger resolutions = new AtomicInteger();
+        try (DnsCache dnsCache = DnsCache.builder()
+                                         .lookup(host -> address(resolutions.incrementAndGet()))
+                                         .refreshInterval(Duration.ofMillis(100))
+                                         .build()) {
+            dnsCache.keepWarm(HOST).join();
+            dnsCache.keepWarm(HOST).join();
+
+            Thread.sleep(250);
+            assertTrue(resolutions.get() <= 4);
+        }
+    }
+
+    @Test
+    void givenAnUnknownHost_whenKeptWarm_thenTheFailureIsReportedAndTheHostIsLookedUpAgainLater() throws Exception {
+        AtomicInteger resolutions = new AtomicInteger();
+        try (DnsCache dnsCache = DnsCache.builder()
+                                         .lookup(host -> {
+                                             if (resolutions.incrementAndGet() == 1) throw new UnknownHostException(host);
+                                             return address(1);
+                                         })
+                                         .refreshInterval(Duration.ofMillis(20))
+                                         .build()) {
+            CompletionException failure = assertThrows(CompletionException.class, () -> dnsCache.keepWarm(HOST).join());
+            assertThat(failure.getCause(), instanceOf(UnknownHostException.class));
+
+            awaitResolutions(resolutions, 2);
+            assertTrue(resolutions.get() >= 2);
+        }
+    }
+
+    @Test
+    void givenANonPositiveRefreshInterval_whenBuilt_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DnsCache.builder().refreshInterval(Duration.ZERO).build());
+    }
+
+    @Test
+    void givenConnectionsToPreOpen_whenBuiltWithAnExplicitHttpImplementation_thenTheBuildFails() {
+        RestClient.RestClientBuilder builder = RestClient.builder()
+                                                         .httpImplementation(InMemoryHttpImplementation.builder().build())
+                                                         .preOpenConnections(URI.create("http://" + HOST + "/health"), 2);
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void givenSyntheticRequests_whenWarmedUp_thenEachIsExecutedRepeatedlyAndTheClientIsWarm() {
+        AtomicBoolean resolved = new AtomicBoolean();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/warm-up", request -> HttpResponse.builder()
+                                                                                                                     .statusCode(200)
+                                                                                                                     .header("Content-Type", MediaTypes.Text.PLAIN.getCanonicalForm())
+                                                                                                                     .body(new ByteArrayResource("warm".getBytes(StandardCharsets.UTF_8)))
+                                                                                                                     .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        try (DnsCache dnsCache = DnsCache.builder().lookup(host -> {
+            resolved.set(true);
+            return address(1);
+        }).build()) {
+            assertFalse(client.isWarm());
+            client.warmUp(ClientWarmUp.builder()
+                                      .dnsCache(dnsCache)
+                                      .request(URI.create("http://" + HOST + "/warm-up"), String.class, 5)
+                                      .build())
+                  .join();
+        }
+
+        assertTrue(resolved.get());
+        assertThat(http.getRequestCount(), equalTo(5L));
+        assertTrue(client.isWarm());
+    }
+
+    @Test
+    void givenAFailingSyntheticRequest_whenWarmedUp_thenTheWarmUpFailsAndTheClientIsNotWarm() {
+        RestClient client = RestClient.builder().httpImplementation(InMemoryHttpImplementation.builder().failureRate(1).build()).build();
+
+        assertThrows(CompletionException.class, () -> client.warmUp(ClientWarmUp.builder()
+                                                                                .request(URI.create("http://" + HOST + "/warm-up"), String.class)
+                                                                                .build())
+                                                            .join());
+        assertFalse(client.isWarm());
+    }
+}
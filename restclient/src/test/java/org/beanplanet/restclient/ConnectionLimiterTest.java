@@ -0,0 +1,101 @@
+package org.beanplanet.restclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionLimiterTest {
+    private static final String ORIGIN = "https://api.example.com";
+
+    @Test
+    void givenUris_whenKeyedByOrigin_thenSchemeHostAndPortAreKept() {
+        assertThat(ConnectionLimiter.originOf(URI.create("https://api.example.com/orders/1?expand=true")), equalTo(ORIGIN));
+        assertThat(ConnectionLimiter.originOf(URI.create("http://localhost:8080/health")), equalTo("http://localhost:8080"));
+    }
+
+    @Test
+    void givenTheLimitIsReached_whenFurtherExchangesAcquire_thenTheyWaitInOrderForReleasedSlots() {
+        ConnectionLimiter limiter = new ConnectionLimiter(2);
+
+        assertTrue(limiter.acquireAsync(ORIGIN).isDone());
+        assertTrue(limiter.acquireAsync(ORIGIN).isDone());
+        CompletableFuture<Void> third = limiter.acquireAsync(ORIGIN);
+        CompletableFuture<Void> fourth = limiter.acquireAsync(ORIGIN);
+        assertFalse(third.isDone());
+        assertThat(limiter.getWaiting(ORIGIN), equalTo(2));
+
+        limiter.release(ORIGIN);
+        assertTrue(third.isDone());
+        assertFalse(fourth.isDone());
+
+        limiter.release(ORIGIN);
+        assertTrue(fourth.isDone());
+        assertThat(limiter.getWaiting(ORIGIN), equalTo(0));
+    }
+
+    @Test
+    void givenAWaiterIsCancelled_whenASlotIsReleased_thenItPassesToTheNextWaiter() {
+        ConnectionLimiter limiter = new ConnectionLimiter(1);
+        limiter.acquire(ORIGIN);
+
+        CompletableFuture<Void> cancelled = limiter.acquireAsync(ORIGIN);
+        CompletableFuture<Void> next = limiter.acquireAsync(ORIGIN);
+        cancelled.cancel(false);
+
+        limiter.release(ORIGIN);
+        assertTrue(next.isDone());
+        assertFalse(next.isCompletedExceptionally());
+    }
+
+    @Test
+    void givenDifferentOrigins_whenAcquired_thenEachHasItsOwnLimit() {
+        ConnectionLimiter limiter = new ConnectionLimiter(1);
+
+        assertTrue(limiter.acquireAsync(ORIGIN).isDone());
+        assertTrue(limiter.acquireAsync("https://other.example.com").isDone());
+    }
+
+    @Test
+    void givenASynchronousCallerIsWaiting_whenASlotIsReleased_thenItProceeds() throws Exception {
+        ConnectionLimiter limiter = new ConnectionLimiter(1);
+        limiter.acquire(ORIGIN);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            limiter.acquire(ORIGIN);
+            acquired.countDown();
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        limiter.release(ORIGIN);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    @Test
+    void givenASynchronousCallerWithADeadline_whenNoSlotIsReleasedInTime_thenItGivesUpItsPlaceAndFails() {
+        ConnectionLimiter limiter = new ConnectionLimiter(1);
+        limiter.acquire(ORIGIN);
+
+        ExchangeTimeouts timeouts = new ExchangeTimeouts(null, Deadline.after(Duration.ofMillis(100)));
+        assertThrows(DeadlineExceededException.class, () -> timeouts.bind(() -> {
+            limiter.acquire(ORIGIN);
+            return null;
+        }));
+
+        // The caller which gave up is skipped, so the released slot passes to the next
+        limiter.release(ORIGIN);
+        assertTrue(limiter.acquireAsync(ORIGIN).isDone());
+    }
+}
@@ -0,0 +1,114 @@
+package org.beanplanet.restclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentDecodingTest {
+    private static final byte[] JSON = "{\"items\": [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] gzip(final byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOs = new GZIPOutputStream(compressed)) {
+            gzipOs.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] content, final boolean raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflaterOs = new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflaterOs.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] decode(final byte[] encoded, final String contentEncoding) throws IOException {
+        try (InputStream decoding = decoding(encoded, contentEncoding)) {
+            return decoding.readAllBytes();
+        }
+    }
+
+    private static ContentDecoding.DecodingInputStream decoding(final byte[] encoded, final String contentEncoding) {
+        return ContentDecoding.decode(new ByteArrayInputStream(encoded), contentEncoding, ContentDecoding.DEFAULT_MAXIMUM_DECODED_SIZE, ContentDecoding.DEFAULT_MAXIMUM_RATIO);
+    }
+
+    @Test
+    void givenContentCodings_whenCheckedForDecoding_thenOnlyGzipAndDeflateAreDecodable() {
+        assertTrue(ContentDecoding.isDecodable("gzip"));
+        assertTrue(ContentDecoding.isDecodable(" X-GZIP "));
+        assertTrue(ContentDecoding.isDecodable("deflate"));
+        assertFalse(ContentDecoding.isDecodable("br"));
+        assertFalse(ContentDecoding.isDecodable("identity"));
+        assertFalse(ContentDecoding.isDecodable(null));
+    }
+
+    @Test
+    void givenAGzipBody_whenDecodedAsAStream_thenTheOriginalContentAndBothSizesAreReturned() throws IOException {
+        byte[] encoded = gzip(JSON);
+
+        try (ContentDecoding.DecodingInputStream decoding = decoding(encoded, "gzip")) {
+            assertThat(decoding.readAllBytes(), equalTo(JSON));
+            assertThat(decoding.getDecodedBytes(), equalTo((long) JSON.length));
+            assertThat(decoding.getEncodedBytes(), equalTo((long) encoded.length));
+        }
+    }
+
+    @Test
+    void givenZlibAndRawDeflateBodies_whenDecoded_thenBothAreInflated() throws IOException {
+        assertThat(decode(deflate(JSON, false), "deflate"), equalTo(JSON));
+        assertThat(decode(deflate(JSON, true), "deflate"), equalTo(JSON));
+    }
+
+    @Test
+    void givenAnEmptyBody_whenDecoded_thenTheDecodedBodyIsEmpty() throws IOException {
+        try (InputStream decoding = decoding(new byte[0], "gzip")) {
+            assertThat(decoding.read(), equalTo(-1));
+        }
+    }
+
+    @Test
+    void givenABodyLargerThanTheMaximumDecodedSize_whenDecoded_thenReadingFails() throws IOException {
+        byte[] encoded = gzip(JSON);
+
+        IOException failure = assertThrows(IOException.class, () -> ContentDecoding.readFully(ContentDecoding.decode(new ByteArrayInputStream(encoded), "gzip", 1024, ContentDecoding.DEFAULT_MAXIMUM_RATIO)));
+        assertTrue(failure.getMessage().contains("maximum size"));
+    }
+
+    @Test
+    void givenADecompressionBomb_whenDecoded_thenReadingFailsOnTheCompressionRatio() throws IOException {
+        byte[] encoded = gzip(new byte[64 * 1024 * 1024]);
+
+        IOException failure = assertThrows(IOException.class, () -> {
+            try (InputStream decoding = decoding(encoded, "gzip")) {
+                decoding.transferTo(OutputStreamSink.INSTANCE);
+            }
+        });
+        assertTrue(failure.getMessage().contains("compression ratio"));
+    }
+
+    private static final class OutputStreamSink extends java.io.OutputStream {
+        private static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] buf, final int off, final int len) {
+        }
+    }
+}
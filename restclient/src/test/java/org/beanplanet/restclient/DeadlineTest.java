@@ -0,0 +1,107 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.beanplanet.restclient.resilience.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest {
+    private static InMemoryHttpImplementation http(final Duration latency) {
+        return InMemoryHttpImplementation.builder()
+                                         .route(request -> true, request -> HttpResponse.builder().statusCode(200).build())
+                                         .latency(latency)
+                                         .build();
+    }
+
+    @Test
+    void givenNestedDeadlines_whenBound_thenTheEarliestIsCurrentUntilItsScopeEnds() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(1));
+        Deadline inner = Deadline.after(Duration.ofMinutes(1));
+
+        outer.run(() -> {
+            assertThat(Deadline.current().orElseThrow(), sameInstance(outer));
+            inner.run(() -> assertThat(Deadline.current().orElseThrow(), sameInstance(outer)));
+            assertThat(Deadline.current().orElseThrow(), sameInstance(outer));
+        });
+        assertFalse(Deadline.current().isPresent());
+    }
+
+    @Test
+    void givenAnExpiredDeadline_whenARequestIsExecuted_thenItIsNotSent() {
+        InMemoryHttpImplementation http = http(Duration.ZERO);
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        Deadline.after(Duration.ZERO).run(() ->
+                assertThrows("Request should not start after its deadline", DeadlineExceededException.class, () -> client.get("http://in-memory/late").execute())
+        );
+        assertThat(http.getRequestCount(), equalTo(0L));
+    }
+
+    @Test
+    void givenADeadline_whenEarlierCallsSpendTheBudget_thenLaterCallsAreNotSent() {
+        InMemoryHttpImplementation http = http(Duration.ofMillis(150));
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        Deadline.after(Duration.ofMillis(100)).run(() -> {
+            client.get("http://in-memory/first").execute();
+            assertTrue(Deadline.current().orElseThrow().isExpired());
+            assertThrows(DeadlineExceededException.class, () -> client.get("http://in-memory/second").execute());
+        });
+        assertThat(http.getRequestCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenATotalTimeout_whenTheNextBackoffWouldNotFit_thenTheLastFailureIsThrownWithoutWaiting() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder().failureRate(1).build();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(http)
+                                      .retryPolicy(RetryPolicy.builder().maximumAttempts(100).baseDelay(Duration.ofMillis(50)).maximumDelay(Duration.ofMillis(50)).build())
+                                      .requestTimeout(Duration.ofMillis(120))
+                                      .build();
+
+        long start = System.nanoTime();
+        assertThrows(IoException.class, () -> client.get("http://in-memory/down").execute());
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(120L));
+        assertThat(http.getRequestCount(), lessThan(5L));
+    }
+
+    @Test
+    void givenARequestTimeout_whenAnAsynchronousResponseIsLate_thenTheFutureFailsWithTheDeadlineExceeded() {
+        RestClient client = RestClient.builder().httpImplementation(http(Duration.ofSeconds(5))).build();
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> client.get("http://in-memory/slow").timeout(Duration.ofMillis(50)).executeAsync().join());
+        assertThat(failure.getCause(), instanceOf(DeadlineExceededException.class));
+    }
+
+    @Test
+    void givenABlockingImplementation_whenExecutedAsynchronously_thenItRunsOffTheCommonPoolWithTheTimeoutsBound() {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        AtomicReference<ExchangeTimeouts> timeouts = new AtomicReference<>();
+        HttpImplemention http = request -> {
+            thread.set(Thread.currentThread());
+            timeouts.set(ExchangeTimeouts.current());
+            return HttpResponse.builder().statusCode(200).build();
+        };
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        client.get("http://in-memory/blocking").timeout(Duration.ofSeconds(5)).executeAsync().join();
+
+        assertFalse(thread.get() instanceof ForkJoinWorkerThread);
+        assertThat(timeouts.get().deadline().isExpired(), equalTo(false));
+    }
+}
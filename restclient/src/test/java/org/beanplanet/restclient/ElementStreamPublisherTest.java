@@ -0,0 +1,185 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ElementStreamPublisherTest {
+    private static RestClient client(final int statusCode, final String contentType, final String body) {
+        return RestClient.builder()
+                         .httpImplementation(InMemoryHttpImplementation.builder()
+                                                                       .route(request -> true, request -> HttpResponse.builder()
+                                                                                                                     .statusCode(statusCode)
+                                                                                                                     .header("Content-Type", contentType)
+                                                                                                                     .body(new ByteArrayResource(body.getBytes(StandardCharsets.UTF_8)))
+                                                                                                                     .build())
+                                                                       .build())
+                         .build();
+    }
+
+    /**
+     * A subscriber recording the elements it receives, asking for a fixed number up front.
+     */
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        private final long initialDemand;
+        private final List<T> elements = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<List<T>> completion = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        private RecordingSubscriber(final long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(final T element) {
+            elements.add(element);
+        }
+
+        @Override
+        public void onError(final Throwable failure) {
+            completion.completeExceptionally(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(elements);
+        }
+    }
+
+    /**
+     * A body publisher emitting a chunk of the body for each buffer requested, counting the requests.
+     */
+    private static final class ChunkPublisher implements Flow.Publisher<List<ByteBuffer>> {
+        private final Iterator<String> chunks;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private ChunkPublisher(final String... chunks) {
+            this.chunks = List.of(chunks).iterator();
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    requests.incrementAndGet();
+                    if (chunks.hasNext()) {
+                        subscriber.onNext(List.of(ByteBuffer.wrap(chunks.next().getBytes(StandardCharsets.UTF_8))));
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+
+    @Test
+    void givenAPublishedBody_whenPublished_thenLinesSpanningBuffersAreElementsAndBuffersAreRequestedOnlyOnDemand() throws Exception {
+        ChunkPublisher body = new ChunkPublisher("{\"id\":1}\n{\"id", "\":2}\n\n{\"id\":3}\n", "{\"id\":4}");
+        ElementStreamPublisher<String> publisher = new ElementStreamPublisher<>(() -> HttpResponse.builder()
+                                                                                                  .statusCode(200)
+                                                                                                  .header("Content-Type", "application/x-ndjson")
+                                                                                                  .body(new StreamingResponseBody(body, -1))
+                                                                                                  .build(), element -> element);
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+        publisher.subscribe(subscriber);
+        Thread.sleep(200);
+        assertThat(subscriber.elements, equalTo(List.of("{\"id\":1}")));
+        assertThat(body.requests.get(), equalTo(1));
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(1);
+        assertThat(subscriber.elements, equalTo(List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}")));
+        assertThat(body.requests.get(), equalTo(2));
+
+        subscriber.subscription.request(10);
+        assertThat(subscriber.completion.get(5, TimeUnit.SECONDS), equalTo(List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}", "{\"id\":4}")));
+    }
+
+    @Test
+    void givenAnNdjsonResponse_whenPublished_thenEachNonBlankLineIsAnElement() throws Exception {
+        RestClient client = client(200, "application/x-ndjson", "{\"id\":1}\n\n{\"id\":2}\r\n{\"id\":3}");
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        client.get("http://in-memory/orders").executePublisher(String.class).subscribe(subscriber);
+
+        assertThat(subscriber.completion.get(5, TimeUnit.SECONDS), equalTo(List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}")));
+    }
+
+    @Test
+    void givenAnEventStreamResponse_whenPublished_thenTheDataOfEachEventIsAnElement() throws Exception {
+        RestClient client = client(200, "text/event-stream", ": keep-alive\n\nevent: tick\ndata: {\"price\":1}\n\nid: 2\ndata: first\ndata:second\n\ndata: incomplete");
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        client.get("http://in-memory/prices").executePublisher(String.class).subscribe(subscriber);
+
+        assertThat(subscriber.completion.get(5, TimeUnit.SECONDS), equalTo(List.of("{\"price\":1}", "first\nsecond")));
+    }
+
+    @Test
+    void givenLimitedDemand_whenPublished_thenNoMoreElementsThanRequestedAreDelivered() throws Exception {
+        RestClient client = client(200, "application/x-ndjson", "a\nb\nc\nd\n");
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(2);
+        client.get("http://in-memory/letters").executePublisher(String.class).subscribe(subscriber);
+
+        Thread.sleep(200);
+        assertThat(subscriber.elements, equalTo(List.of("a", "b")));
+        assertFalse(subscriber.completion.isDone());
+
+        subscriber.subscription.request(5);
+        assertThat(subscriber.completion.get(5, TimeUnit.SECONDS), equalTo(List.of("a", "b", "c", "d")));
+    }
+
+    @Test
+    void givenAnUnsuccessfulResponse_whenPublished_thenTheSubscriberIsSignalledAnError() {
+        RestClient client = client(503, "application/x-ndjson", "");
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+        client.get("http://in-memory/down").executePublisher(String.class).subscribe(subscriber);
+
+        Exception failure = assertThrows(Exception.class, () -> subscriber.completion.get(5, TimeUnit.SECONDS));
+        assertThat(failure.getCause(), instanceOf(RestErrorResponseException.class));
+    }
+
+    @Test
+    void givenAnExpiredDeadlineWhenThePublisherWasCreated_whenPublished_thenTheSubscriberIsSignalledTheDeadlineExceeded() {
+        RestClient client = client(200, "application/x-ndjson", "a\n");
+        Flow.Publisher<String> publisher = Deadline.after(Duration.ZERO).supply(() -> client.get("http://in-memory/letters").executePublisher(String.class));
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(1);
+        publisher.subscribe(subscriber);
+
+        Exception failure = assertThrows(Exception.class, () -> subscriber.completion.get(5, TimeUnit.SECONDS));
+        assertThat(failure.getCause(), instanceOf(DeadlineExceededException.class));
+    }
+}
@@ -0,0 +1,34 @@
+package org.beanplanet.restclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class HeaderBridgeTest {
+    @Test
+    void givenResponseHeaders_whenViewedWithoutSomeHeaders_thenTheyAreHiddenFromLookupAndIteration() {
+        HttpHeaders headers = HttpHeaders.of(Map.of("content-encoding", List.of("gzip"),
+                                                    "content-length", List.of("42"),
+                                                    "content-type", List.of("application/json"),
+                                                    "etag", List.of("\"v1\"")),
+                                             (name, value) -> true);
+
+        Map<String, List<String>> view = HeaderBridge.without(headers.map(), "Content-Encoding", "Content-Length");
+
+        assertThat(view.get("Content-Encoding"), nullValue());
+        assertFalse(view.containsKey("CONTENT-LENGTH"));
+        assertThat(view.get("Content-Type"), equalTo(List.of("application/json")));
+        assertThat(view.size(), equalTo(2));
+        assertThat(view.keySet(), equalTo(Set.of("content-type", "etag")));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("Content-Length", List.of("1")));
+    }
+}
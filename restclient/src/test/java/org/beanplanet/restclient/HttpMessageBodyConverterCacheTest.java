@@ -0,0 +1,53 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverter;
+import org.beanplanet.core.net.http.converter.HttpMessageBodyConverterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+public class HttpMessageBodyConverterCacheTest {
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenAConverterLookup_whenRepeated_thenTheRegistryIsSearchedOnlyOnce() {
+        HttpMessageBodyConverterRegistry registry = mock(HttpMessageBodyConverterRegistry.class);
+        HttpMessageBodyConverter<String> converter = mock(HttpMessageBodyConverter.class);
+        when(registry.findFromConverters(MediaTypes.Text.PLAIN, String.class)).thenAnswer(invocation -> Stream.of(converter));
+        HttpMessageBodyConverterCache cache = new HttpMessageBodyConverterCache(registry);
+
+        for (int n = 0; n < 10; n++) {
+            assertThat(cache.findConverter(MediaTypes.Text.PLAIN, String.class).get(), sameInstance(converter));
+        }
+        verify(registry, times(1)).findFromConverters(MediaTypes.Text.PLAIN, String.class);
+    }
+
+    @Test
+    void givenAConverterLookupMiss_whenRepeated_thenTheMissIsCached() {
+        HttpMessageBodyConverterRegistry registry = mock(HttpMessageBodyConverterRegistry.class);
+        when(registry.findFromConverters(MediaTypes.Text.PLAIN, Integer.class)).thenAnswer(invocation -> Stream.empty());
+        HttpMessageBodyConverterCache cache = new HttpMessageBodyConverterCache(registry);
+
+        assertThat(cache.findConverter(MediaTypes.Text.PLAIN, Integer.class).isPresent(), is(false));
+        assertThat(cache.findConverter(MediaTypes.Text.PLAIN, Integer.class).isPresent(), is(false));
+        verify(registry, times(1)).findFromConverters(MediaTypes.Text.PLAIN, Integer.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenACachedLookup_whenTheCacheIsInvalidated_thenTheRegistryIsSearchedAgain() {
+        HttpMessageBodyConverterRegistry registry = mock(HttpMessageBodyConverterRegistry.class);
+        HttpMessageBodyConverter<String> converter = mock(HttpMessageBodyConverter.class);
+        when(registry.findFromConverters(MediaTypes.Text.PLAIN, String.class)).thenAnswer(invocation -> Stream.empty())
+                                                                             .thenAnswer(invocation -> Stream.of(converter));
+        HttpMessageBodyConverterCache cache = new HttpMessageBodyConverterCache(registry);
+
+        assertThat(cache.findConverter(MediaTypes.Text.PLAIN, String.class).isPresent(), is(false));
+        cache.invalidate();
+        assertThat(cache.findConverter(MediaTypes.Text.PLAIN, String.class).get(), sameInstance(converter));
+    }
+}
@@ -0,0 +1,104 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class InterceptorTest {
+    @Test
+    void givenInterceptors_whenARequestIsExecuted_thenTheInterceptorsAreAppliedInOrder() {
+        final List<String> calls = new ArrayList<>();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(InMemoryHttpImplementation.builder()
+                                                                                    .route("GET", "/ordered", request -> {
+                                                                                        calls.add("implementation");
+                                                                                        return HttpResponse.builder().statusCode(200).build();
+                                                                                    })
+                                                                                    .build())
+                                      .interceptor((request, chain) -> {
+                                          calls.add("first");
+                                          return chain.proceed(request);
+                                      })
+                                      .interceptor((request, chain) -> {
+                                          calls.add("second");
+                                          return chain.proceed(request);
+                                      })
+                                      .build();
+
+        client.get("http://in-memory/ordered").execute();
+
+        assertThat(calls, equalTo(List.of("first", "second", "implementation")));
+    }
+
+    @Test
+    void givenAnInterceptorWhichModifiesTheRequest_whenARequestIsExecuted_thenTheModifiedRequestIsSent() {
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(InMemoryHttpImplementation.builder()
+                                                                                    .route(request -> request.getHeaders().get("X-Intercepted").isPresent(),
+                                                                                           request -> HttpResponse.builder().statusCode(204).build())
+                                                                                    .build())
+                                      .interceptor((request, chain) -> chain.proceed(request.merge(HttpRequest.builder()
+                                                                                                              .method(request.getMethod())
+                                                                                                              .header("X-Intercepted", "true")
+                                                                                                              .build())))
+                                      .build();
+
+        assertThat(client.get("http://in-memory/anything").execute().response().getStatusCode(), equalTo(204));
+    }
+
+    @Test
+    void givenAnInterceptorWhichShortCircuits_whenARequestIsExecutedAsynchronously_thenTheImplementationIsNotCalled() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder().build();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(http)
+                                      .interceptor((request, chain) -> HttpResponse.builder().statusCode(418).build())
+                                      .build();
+
+        assertThat(client.get("http://in-memory/teapot").executeAsync().join().response().getStatusCode(), equalTo(418));
+        assertThat(http.getRequestCount(), equalTo(0L));
+    }
+
+    @Test
+    void givenARequestAttribute_whenARequestIsExecuted_thenTheAttributeIsAvailableToInterceptors() {
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(InMemoryHttpImplementation.builder().build())
+                                      .interceptor((request, chain) -> HttpResponse.builder()
+                                                                                   .statusCode((Integer) chain.attributes().get("status"))
+                                                                                   .build())
+                                      .build();
+
+        assertThat(client.get("http://in-memory/attributes").attribute("status", 202).execute().response().getStatusCode(), equalTo(202));
+    }
+
+    @Test
+    void givenASynchronousInterceptor_whenARequestIsExecutedAsynchronouslyWithinADeadline_thenTheInterceptorSeesTheDeadlineOffTheCommonPool() {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(InMemoryHttpImplementation.builder().build())
+                                      .interceptor((request, chain) -> {
+                                          thread.set(Thread.currentThread());
+                                          seen.set(Deadline.current().orElse(null));
+                                          return chain.proceed(request);
+                                      })
+                                      .build();
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+        deadline.run(() -> client.get("http://in-memory/anything").executeAsync().join());
+
+        assertThat(seen.get(), sameInstance(deadline));
+        assertFalse(thread.get() instanceof ForkJoinWorkerThread);
+    }
+}
@@ -0,0 +1,57 @@
+package org.beanplanet.restclient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.beanplanet.core.io.IoException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class JsonStreamReaderTest {
+    public static class Order {
+        public String id;
+        public List<Integer> quantities;
+    }
+
+    /** A stream returning at most a few bytes per read, as a body arriving from the network might. */
+    private static InputStream trickle(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(final byte[] buf, final int off, final int len) {
+                return super.read(buf, off, Math.min(len, 3));
+            }
+        };
+    }
+
+    @Test
+    void givenAJsonBodyArrivingInFragments_whenRead_thenItIsParsedFromTheStream() {
+        JsonStreamReader reader = new JsonStreamReader(new ObjectMapper());
+
+        Order order = reader.read(Order.class, trickle("{\"id\": \"order-1\", \"quantities\": [1, 2, 3]}"));
+
+        assertThat(order.id, equalTo("order-1"));
+        assertThat(order.quantities, equalTo(List.of(1, 2, 3)));
+    }
+
+    @Test
+    void givenRepeatedReadsOfAType_whenRead_thenEachIsParsedIndependently() {
+        JsonStreamReader reader = new JsonStreamReader(new ObjectMapper());
+
+        for (int n = 0; n < 3; n++) {
+            assertThat(reader.read(Order.class, trickle("{\"id\": \"order-" + n + "\"}")).id, equalTo("order-" + n));
+        }
+    }
+
+    @Test
+    void givenMalformedJson_whenRead_thenAnIoExceptionIsThrown() {
+        JsonStreamReader reader = new JsonStreamReader(new ObjectMapper());
+
+        assertThrows(IoException.class, () -> reader.read(Order.class, trickle("{\"id\": ")));
+    }
+}
@@ -0,0 +1,104 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.AbstractResource;
+import org.beanplanet.core.io.resource.Resource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RequestBodyCompressorTest {
+    private static final byte[] DOCUMENT = "{\"name\": \"document\", \"values\": [1, 2, 3]}\n".repeat(50_000).getBytes(StandardCharsets.UTF_8);
+
+    private static Resource resource(final byte[] content) {
+        return new AbstractResource() {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(content);
+            }
+
+            @Override
+            public long getContentLength() {
+                return content.length;
+            }
+        };
+    }
+
+    private static byte[] gunzip(final InputStream compressed) throws IOException {
+        try (InputStream gunzipIs = new GZIPInputStream(compressed)) {
+            return gunzipIs.readAllBytes();
+        }
+    }
+
+    @Test
+    void givenALargeBody_whenCompressed_thenItIsAValidGzipStreamOfTheBody() throws IOException {
+        RequestBodyCompressor compressor = new RequestBodyCompressor(RequestBodyCompressor.DEFAULT_THRESHOLD);
+        Resource compressed = compressor.new CompressedBody(resource(DOCUMENT));
+
+        byte[] compressedBytes;
+        try (InputStream compressedIs = compressed.getInputStream()) {
+            compressedBytes = compressedIs.readAllBytes();
+        }
+
+        assertThat((long) compressedBytes.length, lessThan(DOCUMENT.length / 10L));
+        assertThat(gunzip(new ByteArrayInputStream(compressedBytes)), equalTo(DOCUMENT));
+    }
+
+    @Test
+    void givenACompressedBody_whenReadByteByByte_thenItDecompressesToTheBody() throws IOException {
+        byte[] body = "small body".getBytes(StandardCharsets.UTF_8);
+        RequestBodyCompressor compressor = new RequestBodyCompressor(0);
+
+        try (InputStream compressedIs = compressor.new CompressedBody(resource(body)).getInputStream()) {
+            InputStream byteByByte = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    return compressedIs.read();
+                }
+            };
+            assertThat(gunzip(byteByByte), equalTo(body));
+        }
+    }
+
+    @Test
+    void givenSuccessiveBodies_whenCompressed_thenTheDeflaterIsReturnedToThePoolAndReused() throws IOException {
+        RequestBodyCompressor compressor = new RequestBodyCompressor(0);
+
+        for (int n = 0; n < 3; n++) {
+            try (InputStream compressedIs = compressor.new CompressedBody(resource(DOCUMENT)).getInputStream()) {
+                assertThat(gunzip(compressedIs), equalTo(DOCUMENT));
+            }
+            assertThat(compressor.getPooledDeflaterCount(), equalTo(1));
+        }
+    }
+
+    @Test
+    void givenABodyBelowTheThreshold_whenCompressed_thenTheRequestIsUnchanged() {
+        RequestBodyCompressor compressor = new RequestBodyCompressor(RequestBodyCompressor.DEFAULT_THRESHOLD);
+        HttpRequest request = HttpRequest.builder().method("POST").uri(URI.create("http://in-memory/small")).body(resource(new byte[100])).build();
+
+        assertThat(compressor.compress(request), sameInstance(request));
+    }
+
+    @Test
+    void givenABodyAboveTheThreshold_whenCompressed_thenItIsGzipEncoded() {
+        RequestBodyCompressor compressor = new RequestBodyCompressor(RequestBodyCompressor.DEFAULT_THRESHOLD);
+        HttpRequest request = HttpRequest.builder().method("POST").uri(URI.create("http://in-memory/large")).body(resource(DOCUMENT)).build();
+
+        HttpRequest compressed = compressor.compress(request);
+        assertThat(compressed.getHeaders().get("Content-Encoding"), equalTo(Optional.of("gzip")));
+        assertThat(compressed.getBody(), instanceOf(RequestBodyCompressor.CompressedBody.class));
+    }
+}
@@ -0,0 +1,115 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class RequestCoalescingTest {
+    private static final int CALLERS = 16;
+
+    private static InMemoryHttpImplementation slowHttp() {
+        return InMemoryHttpImplementation.builder()
+                                         .route(request -> true, request -> HttpResponse.builder()
+                                                                                       .statusCode(200)
+                                                                                       .header("Content-Type", MediaTypes.Text.PLAIN.getCanonicalForm())
+                                                                                       .body(new ByteArrayResource(request.getUri().getPath().getBytes(StandardCharsets.UTF_8)))
+                                                                                       .build())
+                                         .latency(Duration.ofMillis(500))
+                                         .build();
+    }
+
+    @Test
+    void givenConcurrentIdenticalRequests_whenCoalescingIsEnabled_thenOneUpstreamCallIsSharedByAllCallers() throws Exception {
+        InMemoryHttpImplementation http = slowHttp();
+        RestClient client = RestClient.builder().httpImplementation(http).coalesceRequests().build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> bodies = new ArrayList<>();
+            for (int n = 0; n < CALLERS; n++) {
+                bodies.add(executor.submit(() -> {
+                    start.await();
+                    return client.get("http://in-memory/reference").execute().body(String.class);
+                }));
+            }
+            start.countDown();
+
+            for (Future<String> body : bodies) {
+                assertThat(body.get(), equalTo("/reference"));
+            }
+            assertThat(http.getRequestCount(), equalTo(1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenConcurrentRequestsForDifferentUris_whenCoalescingIsEnabled_thenEachIsExecuted() {
+        InMemoryHttpImplementation http = slowHttp();
+        RestClient client = RestClient.builder().httpImplementation(http).coalesceRequests().build();
+
+        CompletableFuture<?> first = client.get("http://in-memory/first").executeAsync();
+        CompletableFuture<?> second = client.get("http://in-memory/second").executeAsync();
+        CompletableFuture<?> firstAgain = client.get("http://in-memory/first").executeAsync();
+        CompletableFuture.allOf(first, second, firstAgain).join();
+
+        assertThat(http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenAnExecutionFailingWithAnError_whenIdenticalRequestsAreWaiting_thenEveryCallerReceivesTheError() throws Exception {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> {
+                                                                        try {
+                                                                            Thread.sleep(200);
+                                                                        } catch (InterruptedException intEx) {
+                                                                            Thread.currentThread().interrupt();
+                                                                        }
+                                                                        throw new AssertionError("Failed");
+                                                                    })
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).coalesceRequests().build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> executions = new ArrayList<>();
+            for (int n = 0; n < CALLERS; n++) {
+                executions.add(executor.submit(() -> client.get("http://in-memory/reference").execute()));
+            }
+
+            for (Future<?> execution : executions) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> execution.get(5, TimeUnit.SECONDS));
+                assertThat(failure.getCause(), instanceOf(AssertionError.class));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenAWaitingCallerWithATimeout_whenTheSharedExecutionIsSlower_thenTheCallerGivesUpAtItsOwnDeadline() {
+        RestClient client = RestClient.builder().httpImplementation(slowHttp()).coalesceRequests().build();
+
+        CompletableFuture<?> leader = client.get("http://in-memory/reference").executeAsync();
+        final long startNanos = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> client.get("http://in-memory/reference").timeout(Duration.ofMillis(100)).execute());
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos), lessThan(Duration.ofMillis(400)));
+
+        leader.join();
+    }
+}
@@ -0,0 +1,71 @@
+package org.beanplanet.restclient;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.Cookie;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.Request;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequestTemplateTest {
+    private static final HttpRequest PROTOTYPE = HttpRequest.builder()
+                                                            .uri(URI.create("http://localhost:8080/api"))
+                                                            .version(Request.Version.HTTP_1_1)
+                                                            .header("Accept", "application/json")
+                                                            .header("Authorization", "Bearer prototype")
+                                                            .header("X-Tenant", "tenant-1")
+                                                            .cookie(new Cookie("session", "prototype"))
+                                                            .build();
+
+    @Test
+    void givenNoPrototype_whenApplied_thenTheRequestIsReturnedAsIs() {
+        HttpRequest request = HttpRequest.builder().get("http://localhost/resources").build();
+
+        assertThat(RequestTemplate.compile(null).apply(request), sameInstance(request));
+        assertThat(RequestTemplate.compile(HttpRequest.builder().build()), sameInstance(RequestTemplate.NONE));
+    }
+
+    @Test
+    void givenAPrototype_whenRequestsAreApplied_thenEachIsLayeredExactlyAsTheLibraryMergesIt() {
+        RequestTemplate template = RequestTemplate.compile(PROTOTYPE);
+        List<HttpRequest> requests = List.of(
+                HttpRequest.builder().method("GET").uri(URI.create("/resources/42")).build(),
+                HttpRequest.builder()
+                           .method("GET")
+                           .uri(URI.create("/resources/42"))
+                           .header("Accept", "text/plain")
+                           .header("authorization", "Bearer request")
+                           .header("X-Request-Id", "1234")
+                           .build(),
+                HttpRequest.builder().method("GET").uri(URI.create("/resources")).cookie(new Cookie("preference", "request")).build(),
+                HttpRequest.builder()
+                           .method("DELETE")
+                           .uri(URI.create("https://example.com/resources?force=true"))
+                           .version(Request.Version.HTTP_2)
+                           .build(),
+                HttpRequest.builder()
+                           .method("POST")
+                           .uri(URI.create("/resources"))
+                           .contentType("application/json")
+                           .body(new ByteArrayResource("{\"id\":42}".getBytes(StandardCharsets.UTF_8)))
+                           .build());
+
+        for (HttpRequest request : requests) {
+            HttpRequest applied = template.apply(request);
+            HttpRequest merged = PROTOTYPE.merge(request);
+
+            assertThat(applied.getMethod(), equalTo(merged.getMethod()));
+            assertThat(applied.getUri(), equalTo(merged.getUri()));
+            assertThat(applied.getHttpVersion(), equalTo(merged.getHttpVersion()));
+            assertThat(applied.getHeaders().getAll(), equalTo(merged.getHeaders().getAll()));
+            assertThat(applied.getBody(), sameInstance(merged.getBody()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.beanplanet.restclient.asynchronous.request;
+
+import org.beanplanet.restclient.AbstractRestClientTest;
+import org.beanplanet.restclient.HttpBinAnythingResponse;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.RestErrorResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class ExecuteAsyncTest extends AbstractRestClientTest {
+    @Test
+    void givenARequest_whenExecutedAsynchronously_thenTheResponseIsReceivedSuccessfully() {
+        HttpBinAnythingResponse res = client.post("http://localhost:" + httpbin.getFirstMappedPort() + "/anything")
+                                            .body("Hello World!")
+                                            .executeAsync()
+                                            .thenApply(executed -> executed.body(HttpBinAnythingResponse.class))
+                                            .join();
+        assertThat(res.getMethod(), equalTo("POST"));
+        assertThat(res.getData(), equalTo("Hello World!"));
+    }
+
+    @Test
+    void givenManyRequests_whenExecutedAsynchronously_thenAllResponsesAreReceivedSuccessfully() {
+        List<CompletableFuture<HttpBinAnythingResponse>> futures = IntStream.range(0, 20)
+                .mapToObj(n -> client.get("http://localhost:" + httpbin.getFirstMappedPort() + "/anything/" + n)
+                                     .executeAsync()
+                                     .thenApply(executed -> executed.body(HttpBinAnythingResponse.class)))
+                .collect(Collectors.toList());
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        for (int n = 0; n < futures.size(); n++) {
+            assertThat(futures.get(n).join().getUrl(), endsWith("/anything/" + n));
+        }
+    }
+
+    @Test
+    void givenAnErrorResponse_whenExecutedAsynchronously_thenTheDefaultHandlerFailsTheFuture() {
+        CompletionException ex = assertThrows("Default error handler was not applied to the asynchronous response",
+                CompletionException.class, () ->
+                        client.get("http://localhost:" + httpbin.getFirstMappedPort() + "/status/400")
+                              .executeAsync()
+                              .thenApply(executed -> executed.bodyOn2xxSuccessful(String.class))
+                              .join()
+        );
+        assertThat(ex.getCause(), instanceOf(RestErrorResponseException.class));
+    }
+
+    @Test
+    void givenAnUnreachableHost_whenExecutedAsynchronously_thenTheFutureCompletesExceptionally() {
+        CompletableFuture<RestClient.RequestBuilder.ExecutedRequest> future = client.get("http://localhost:1/unreachable")
+                                                                                    .executeAsync();
+        assertThrows("Future should complete exceptionally for an unreachable host", CompletionException.class, future::join);
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+}
@@ -0,0 +1,103 @@
+package org.beanplanet.restclient.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DiskHttpCacheStoreTest {
+    @TempDir
+    Path directory;
+
+    private static CachedResponse cachedResponse(final String body) {
+        return new CachedResponse(200,
+                                  Map.of("Cache-Control", List.of("max-age=60"), "ETag", List.of("\"v1\"")),
+                                  ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)),
+                                  Map.of("Accept", "text/plain"),
+                                  1_000L,
+                                  2_000L);
+    }
+
+    @Test
+    void givenAStoredResponse_whenRead_thenTheResponseIsServedFromTheMappedSegment() {
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).build()) {
+            store.put("GET http://localhost/reference", cachedResponse("Hello World!"));
+
+            CachedResponse response = store.get("GET http://localhost/reference");
+            assertThat(response.getStatusCode(), equalTo(200));
+            assertThat(response.getHeader("etag"), equalTo(java.util.Optional.of("\"v1\"")));
+            assertThat(response.getVaryValues(), equalTo(Map.of("Accept", "text/plain")));
+            assertThat(response.getResponseTimeMillis(), equalTo(2_000L));
+            assertThat(response.getBody().isDirect(), is(true));
+            assertThat(new ByteBufferResource(response.getBody()).readFullyAsString(StandardCharsets.UTF_8), equalTo("Hello World!"));
+        }
+    }
+
+    @Test
+    void givenStoredAndRemovedResponses_whenTheStoreIsReopened_thenTheIndexIsRebuilt() {
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).build()) {
+            store.put("GET http://localhost/kept", cachedResponse("Kept"));
+            store.put("GET http://localhost/replaced", cachedResponse("Old"));
+            store.put("GET http://localhost/replaced", cachedResponse("New"));
+            store.put("GET http://localhost/removed", cachedResponse("Removed"));
+            store.remove("GET http://localhost/removed");
+        }
+
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).build()) {
+            assertThat(store.getEntryCount(), equalTo(2));
+            assertThat(new ByteBufferResource(store.get("GET http://localhost/kept").getBody()).readFullyAsString(StandardCharsets.UTF_8), equalTo("Kept"));
+            assertThat(new ByteBufferResource(store.get("GET http://localhost/replaced").getBody()).readFullyAsString(StandardCharsets.UTF_8), equalTo("New"));
+            assertThat(store.get("GET http://localhost/removed"), nullValue());
+        }
+    }
+
+    @Test
+    void givenAFullStore_whenAResponseIsStored_thenTheOldestSegmentIsEvicted() {
+        final String body = "x".repeat(3000);
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).segmentSize(4096).maximumSize(2 * 4096).build()) {
+            for (int n = 0; n < 3; n++) {
+                store.put("GET http://localhost/" + n, cachedResponse(body));
+            }
+
+            assertThat(store.get("GET http://localhost/0"), nullValue());
+            assertThat(store.get("GET http://localhost/2"), notNullValue());
+            assertThat(store.getSize(), equalTo(2L * 4096));
+        }
+    }
+
+    @Test
+    void givenARecordWithACorruptBody_whenTheStoreIsReopened_thenItAndTheRemainderOfItsSegmentAreIgnored() throws IOException {
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).build()) {
+            store.put("GET http://localhost/intact", cachedResponse("Intact"));
+            store.put("GET http://localhost/torn", cachedResponse("Torn body"));
+            store.put("GET http://localhost/after", cachedResponse("After"));
+        }
+
+        Path segmentFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFile = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        // Simulates a body whose pages were not written back before a crash, under a marker which was
+        byte[] segment = Files.readAllBytes(segmentFile);
+        int bodyOffset = new String(segment, StandardCharsets.ISO_8859_1).indexOf("Torn body");
+        segment[bodyOffset] = 0;
+        Files.write(segmentFile, segment);
+
+        try (DiskHttpCacheStore store = DiskHttpCacheStore.builder().directory(directory).build()) {
+            assertThat(store.getEntryCount(), equalTo(1));
+            assertThat(new ByteBufferResource(store.get("GET http://localhost/intact").getBody()).readFullyAsString(StandardCharsets.UTF_8), equalTo("Intact"));
+            assertThat(store.get("GET http://localhost/torn"), nullValue());
+            assertThat(store.get("GET http://localhost/after"), nullValue());
+        }
+    }
+}
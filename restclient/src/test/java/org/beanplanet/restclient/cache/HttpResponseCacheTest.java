@@ -0,0 +1,210 @@
+package org.beanplanet.restclient.cache;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class HttpResponseCacheTest {
+    private static HttpResponse.HttpResponseBuilder textResponse(final int statusCode, final String body) {
+        return HttpResponse.builder()
+                           .statusCode(statusCode)
+                           .header("Content-Type", MediaTypes.Text.PLAIN.getCanonicalForm())
+                           .body(new ByteArrayResource(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void givenAFreshResponse_whenTheRequestIsRepeated_thenTheResponseIsServedFromTheCache() {
+        final AtomicInteger version = new AtomicInteger();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/reference", request -> textResponse(200, "v" + version.incrementAndGet())
+                                                                            .header("Cache-Control", "max-age=60")
+                                                                            .build())
+                                                                    .build();
+        HttpResponseCache cache = HttpResponseCache.builder().build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(cache).build();
+
+        assertThat(client.get("http://in-memory/reference").execute().body(String.class), equalTo("v1"));
+        assertThat(client.get("http://in-memory/reference").execute().body(String.class), equalTo("v1"));
+        assertThat(http.getRequestCount(), equalTo(1L));
+        assertThat(cache.getHitCount(), equalTo(1L));
+        assertThat(cache.getMissCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenAStaleResponseWithAnEntityTag_whenTheOriginIsUnchanged_thenTheCachedBodyIsReusedAfterRevalidation() {
+        MutableClock clock = new MutableClock();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/reference", request -> request.getHeaders().get("If-None-Match").filter("\"v1\""::equals).isPresent()
+                                                                            ? HttpResponse.builder().statusCode(304).header("ETag", "\"v1\"").build()
+                                                                            : textResponse(200, "v1").header("Cache-Control", "max-age=60").header("ETag", "\"v1\"").build())
+                                                                    .build();
+        HttpResponseCache cache = HttpResponseCache.builder().clock(clock).build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(cache).build();
+
+        client.get("http://in-memory/reference").execute();
+        clock.advance(Duration.ofSeconds(61));
+        RestClient.RequestBuilder.ExecutedRequest revalidated = client.get("http://in-memory/reference").execute();
+
+        assertThat(revalidated.response().getStatusCode(), equalTo(200));
+        assertThat(revalidated.body(String.class), equalTo("v1"));
+        assertThat(http.getRequestCount(), equalTo(2L));
+        assertThat(cache.getConditionalHitCount(), equalTo(1L));
+
+        client.get("http://in-memory/reference").execute();
+        assertThat("The revalidated response was not fresh", http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenAResponseVaryingByAccept_whenTheAcceptHeaderDiffers_thenTheCachedResponseIsNotServed() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/reference", request -> textResponse(200, request.getHeaders().get("Accept").orElse("none"))
+                                                                            .header("Cache-Control", "max-age=60")
+                                                                            .header("Vary", "Accept")
+                                                                            .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(HttpResponseCache.builder().build()).build();
+
+        assertThat(client.get("http://in-memory/reference").header("Accept", "text/plain").execute().body(String.class), equalTo("text/plain"));
+        assertThat(client.get("http://in-memory/reference").header("Accept", "text/csv").execute().body(String.class), equalTo("text/csv"));
+        assertThat(client.get("http://in-memory/reference").header("Accept", "text/csv").execute().body(String.class), equalTo("text/csv"));
+        assertThat(http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenResponsesVaryingByAcceptEncoding_whenRequestsAlternateBetweenValues_thenEachVariantIsServedFromTheCache() {
+        HttpResponseCache cache = HttpResponseCache.builder().secondTier(new InMemoryHttpCacheStore(1024 * 1024)).build();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/reference", request -> textResponse(200, request.getHeaders().get("Accept-Encoding").orElse("none"))
+                                                                            .header("Cache-Control", "max-age=60")
+                                                                            .header("Vary", "Accept-Encoding")
+                                                                            .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(cache).build();
+
+        for (int round = 0; round < 3; round++) {
+            assertThat(client.get("http://in-memory/reference").header("Accept-Encoding", "gzip").execute().body(String.class), equalTo("gzip"));
+            assertThat(client.get("http://in-memory/reference").header("Accept-Encoding", "identity").execute().body(String.class), equalTo("identity"));
+        }
+        assertThat(client.get("http://in-memory/reference").header("Accept-Encoding", "gzip ,  identity").execute().body(String.class), equalTo("gzip ,  identity"));
+        assertThat(client.get("http://in-memory/reference").header("Accept-Encoding", "gzip,identity").execute().body(String.class), equalTo("gzip ,  identity"));
+
+        assertThat(http.getRequestCount(), equalTo(3L));
+        assertThat(cache.getHitCount(), equalTo(5L));
+    }
+
+    @Test
+    void givenANoStoreResponse_whenTheRequestIsRepeated_thenTheOriginIsCalledEachTime() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/private", request -> textResponse(200, "secret")
+                                                                            .header("Cache-Control", "no-store")
+                                                                            .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(HttpResponseCache.builder().build()).build();
+
+        client.get("http://in-memory/private").execute();
+        client.get("http://in-memory/private").execute();
+        assertThat(http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenCallersWithDifferentCredentials_whenTheyRequestTheSameUri_thenNeitherIsServedTheOthersResponse() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/account", request -> textResponse(200, request.getHeaders().get("Authorization").orElse("anonymous"))
+                                                                            .header("Cache-Control", "max-age=60")
+                                                                            .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(HttpResponseCache.builder().build()).build();
+
+        assertThat(client.get("http://in-memory/account").header("Authorization", "Bearer alice").execute().body(String.class), equalTo("Bearer alice"));
+        assertThat(client.get("http://in-memory/account").header("Authorization", "Bearer bob").execute().body(String.class), equalTo("Bearer bob"));
+        assertThat(http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenAPublicResponseToAnAuthorizedRequest_whenTheRequestIsRepeated_thenTheResponseIsServedFromTheCache() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/catalogue", request -> textResponse(200, "catalogue")
+                                                                            .header("Cache-Control", "public, max-age=60")
+                                                                            .build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(HttpResponseCache.builder().build()).build();
+
+        client.get("http://in-memory/catalogue").header("Authorization", "Bearer alice").execute();
+        client.get("http://in-memory/catalogue").header("Authorization", "Bearer bob").execute();
+        assertThat(http.getRequestCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenACachedResponse_whenAnUnsafeRequestSucceedsForTheSameUri_thenTheCachedResponseIsInvalidated() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/reference", request -> textResponse(200, "v1").header("Cache-Control", "max-age=60").build())
+                                                                    .route("POST", "/reference", request -> HttpResponse.builder().statusCode(204).build())
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).responseCache(HttpResponseCache.builder().build()).build();
+
+        client.get("http://in-memory/reference").execute();
+        client.post("http://in-memory/reference").execute();
+        client.get("http://in-memory/reference").execute();
+        assertThat(http.getRequestCount(), equalTo(3L));
+    }
+
+    @Test
+    void givenAFullInMemoryStore_whenAResponseIsStored_thenTheLeastRecentlyUsedResponseIsEvicted() {
+        InMemoryHttpCacheStore store = new InMemoryHttpCacheStore(8 * 1024);
+        store.put("a", cachedResponse(512));
+        store.put("b", cachedResponse(512));
+        store.get("a");
+        for (int n = 0; n < 16; n++) {
+            store.put("filler-" + n, cachedResponse(512));
+        }
+
+        assertThat(store.getSize() <= 8 * 1024, is(true));
+        assertThat(store.get("b"), nullValue());
+        assertThat(store.get("filler-15"), notNullValue());
+    }
+
+    private static CachedResponse cachedResponse(final int bodySize) {
+        return new CachedResponse(200, Map.of("Cache-Control", List.of("max-age=60")), ByteBuffer.allocate(bodySize), Collections.emptyMap(), 0, 0);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
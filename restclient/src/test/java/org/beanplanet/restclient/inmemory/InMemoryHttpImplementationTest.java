@@ -0,0 +1,101 @@
+package org.beanplanet.restclient.inmemory;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.core.net.http.MediaTypes;
+import org.beanplanet.restclient.DeadlineExceededException;
+import org.beanplanet.restclient.RestClient;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class InMemoryHttpImplementationTest {
+    private static HttpResponse textResponse(final String body) {
+        return HttpResponse.builder()
+                           .statusCode(200)
+                           .header("Content-Type", MediaTypes.Text.PLAIN.getCanonicalForm())
+                           .body(new ByteArrayResource(body.getBytes(StandardCharsets.UTF_8)))
+                           .build();
+    }
+
+    @Test
+    void givenARoute_whenARequestMatchesTheRoute_thenTheHandlerResponseIsReturned() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/greeting", request -> textResponse("Hello World!"))
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        assertThat(client.get("http://in-memory/greeting").execute().body(String.class), equalTo("Hello World!"));
+        assertThat(http.getRequestCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenNoMatchingRoute_whenARequestIsExecuted_thenNotFoundIsReturned() {
+        RestClient client = RestClient.builder().httpImplementation(InMemoryHttpImplementation.builder().build()).build();
+
+        assertThat(client.get("http://in-memory/missing").execute().response().getStatusCode(), equalTo(404));
+    }
+
+    @Test
+    void givenSimulatedLatency_whenARequestIsExecuted_thenTheResponseIsDelayed() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/slow", request -> textResponse("Slow"))
+                                                                    .latency(Duration.ofMillis(50))
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        long start = System.nanoTime();
+        client.get("http://in-memory/slow").executeAsync().join();
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), greaterThanOrEqualTo(50L));
+    }
+
+    @Test
+    void givenALatencyBeyondTheResponseTimeout_whenARequestIsExecuted_thenItTimesOutWithoutWaitingForTheLatency() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/slow", request -> textResponse("Slow"))
+                                                                    .latency(Duration.ofSeconds(5))
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        long start = System.nanoTime();
+        assertThrows("Response timeout was not honoured", IoException.class, () -> client.get("http://in-memory/slow").responseTimeout(Duration.ofMillis(50)).execute());
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(5000L));
+    }
+
+    @Test
+    void givenALatencyBeyondTheTotalTimeout_whenARequestIsExecuted_thenItFailsWithTheDeadlineExceeded() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/slow", request -> textResponse("Slow"))
+                                                                    .latency(Duration.ofSeconds(5))
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        assertThrows("Total timeout was not honoured", DeadlineExceededException.class, () -> client.get("http://in-memory/slow").timeout(Duration.ofMillis(50)).execute());
+        CompletionException asyncEx = assertThrows("Total timeout did not fail the future", CompletionException.class,
+                () -> client.get("http://in-memory/slow").timeout(Duration.ofMillis(50)).executeAsync().join());
+        assertThat(asyncEx.getCause(), instanceOf(DeadlineExceededException.class));
+    }
+
+    @Test
+    void givenAFailureRateOfOne_whenARequestIsExecuted_thenASimulatedFailureIsThrown() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route("GET", "/flaky", request -> textResponse("Never"))
+                                                                    .failureRate(1)
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).build();
+
+        assertThrows("Simulated failure was not thrown", IoException.class, () -> client.get("http://in-memory/flaky").execute());
+        CompletionException asyncEx = assertThrows("Simulated failure did not fail the future", CompletionException.class,
+                () -> client.get("http://in-memory/flaky").executeAsync().join());
+        assertThat(asyncEx.getCause(), instanceOf(IoException.class));
+    }
+}
@@ -0,0 +1,56 @@
+package org.beanplanet.restclient.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest {
+    @Test
+    void givenRecordedLatencies_whenAPercentileIsEstimated_thenItIsWithinAnEighthAboveTheLatency() {
+        for (long latency : new long[] {Duration.ofMillis(3).toNanos(), Duration.ofMillis(17).toNanos(), Duration.ofMillis(250).toNanos(), Duration.ofSeconds(9).toNanos()}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(latency);
+
+            assertThat(histogram.getPercentileNanos(0.95), greaterThanOrEqualTo(latency));
+            assertThat(histogram.getPercentileNanos(0.95), lessThanOrEqualTo(latency + latency / 8));
+        }
+    }
+
+    @Test
+    void givenADecayingHistogram_whenLatencyFalls_thenThePercentileFollowsCurrentLatency() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(Duration.ofMillis(50));
+        for (int n = 0; n < 1000; n++) {
+            histogram.record(Duration.ofMillis(200).toNanos());
+        }
+
+        Thread.sleep(300);
+        for (int n = 0; n < 1000; n++) {
+            histogram.record(Duration.ofMillis(10).toNanos());
+        }
+
+        assertThat(histogram.getPercentileNanos(0.95), lessThan(Duration.ofMillis(20).toNanos()));
+        assertThat(histogram.getCount(), lessThan(1100L));
+    }
+
+    @Test
+    void givenASkewedDistribution_whenTheHistogramDecays_thenItsSparseTailKeepsThePercentile() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(Duration.ofMillis(50));
+        for (int n = 0; n < 90; n++) {
+            histogram.record(Duration.ofMillis(10).toNanos());
+        }
+        for (int n = 0; n < 10; n++) {
+            histogram.record(Duration.ofMillis(300 + 50 * n).toNanos());
+        }
+        assertThat(histogram.getPercentileNanos(0.95), greaterThanOrEqualTo(Duration.ofMillis(300).toNanos()));
+
+        Thread.sleep(60);
+
+        assertThat(histogram.getPercentileNanos(0.95), greaterThanOrEqualTo(Duration.ofMillis(300).toNanos()));
+        assertThat(histogram.getCount(), lessThanOrEqualTo(50L));
+    }
+}
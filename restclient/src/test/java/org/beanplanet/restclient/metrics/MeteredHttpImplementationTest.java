@@ -0,0 +1,128 @@
+package org.beanplanet.restclient.metrics;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.net.http.HttpRequest;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.HttpImplemention;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.StreamingResponseBody;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.net.URI;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThrows;
+
+public class MeteredHttpImplementationTest {
+    @ParameterizedTest
+    @CsvSource({
+            "/users,                                                 /users",
+            "/users/42,                                              /users/{id}",
+            "/users/42/orders/7/,                                    /users/{id}/orders/{id}/",
+            "/orders/3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b/items,      /orders/{id}/items",
+            "/v2/status,                                             /v2/status"
+    })
+    void givenARequestPath_whenTemplated_thenIdentifierSegmentsAreReplaced(final String path, final String expectedTemplate) {
+        assertThat(MeteredHttpImplementation.templatePath(URI.create("http://localhost" + path)), equalTo(expectedTemplate));
+    }
+
+    @Test
+    void givenAMeteredClient_whenRequestsAreExecuted_thenStatusLatencyAndSizeAreRecordedByHostAndTemplatedPath() {
+        SimpleHttpClientMetrics metrics = new SimpleHttpClientMetrics();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> request.getUri().getPath().startsWith("/users/"),
+                                                                           request -> HttpResponse.builder().statusCode(200).body(new ByteArrayResource(new byte[100])).build())
+                                                                    .latency(Duration.ofMillis(5))
+                                                                    .build();
+        RestClient client = RestClient.builder().httpImplementation(http).metrics(metrics).build();
+
+        client.get("http://in-memory/users/1").execute();
+        client.get("http://in-memory/users/2").execute();
+        client.get("http://in-memory/missing").execute();
+
+        SimpleHttpClientMetrics.HttpRequestMeters userMeters = metrics.getMeters("in-memory", "/users/{id}");
+        assertThat(userMeters.getCount(2), equalTo(2L));
+        assertThat(userMeters.getInFlight(), equalTo(0L));
+        assertThat(userMeters.getResponseBytes(), equalTo(200L));
+        assertThat(userMeters.getTotal().getCount(), equalTo(2L));
+        assertThat(userMeters.getTotal().getPercentileNanos(0.99), greaterThanOrEqualTo(Duration.ofMillis(5).toNanos()));
+        assertThat(metrics.getMeters("in-memory", "/missing").getCount(4), equalTo(1L));
+    }
+
+    @Test
+    void givenAMeteredClient_whenARequestFails_thenTheFailureIsRecorded() {
+        SimpleHttpClientMetrics metrics = new SimpleHttpClientMetrics();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(InMemoryHttpImplementation.builder().failureRate(1).build())
+                                      .metrics(metrics)
+                                      .build();
+
+        assertThrows("Simulated failure was not thrown", IoException.class, () -> client.get("http://in-memory/users/1").execute());
+
+        assertThat(metrics.getMeters("in-memory", "/users/{id}").getFailedCount(), equalTo(1L));
+        assertThat(metrics.getMeters("in-memory", "/users/{id}").getInFlight(), equalTo(0L));
+    }
+
+    @Test
+    void givenMorePathsToAHostThanTheMaximum_whenRequestsAreExecuted_thenFurtherPathsAreTaggedAsOther() {
+        SimpleHttpClientMetrics metrics = new SimpleHttpClientMetrics();
+        MeteredHttpImplementation metered = new MeteredHttpImplementation(InMemoryHttpImplementation.builder().build(), metrics,
+                                                                          MeteredHttpImplementation::templatePath, 2);
+
+        for (String name : new String[] {"alice", "bob", "carol", "dave", "alice"}) {
+            metered.execute(HttpRequest.builder().get("http://in-memory/users/" + name).build());
+        }
+
+        assertThat(metrics.getMeters().get("in-memory").size(), equalTo(3));
+        assertThat(metrics.getMeters("in-memory", "/users/alice").getCount(4), equalTo(2L));
+        assertThat(metrics.getMeters("in-memory", MeteredHttpImplementation.OTHER_PATH).getCount(4), equalTo(2L));
+    }
+
+    @Test
+    void givenAPublisherBackedBody_whenStreamed_thenTheBodyRemainsAPublisherAndItsSizeIsRecordedOncePublished() {
+        SimpleHttpClientMetrics metrics = new SimpleHttpClientMetrics();
+        SubmissionPublisher<List<ByteBuffer>> publisher = new SubmissionPublisher<>();
+        MeteredHttpImplementation metered = new MeteredHttpImplementation(new PublishingHttpImplementation(publisher), metrics);
+
+        HttpResponse response = metered.executeStreaming(HttpRequest.builder().get("http://in-memory/export").build());
+        assertThat(response.getBody(), instanceOf(StreamingResponseBody.class));
+        Flow.Publisher<List<ByteBuffer>> body = ((StreamingResponseBody) response.getBody()).getPublisher().orElseThrow();
+
+        BodySubscriber<String> subscriber = BodySubscribers.ofString(StandardCharsets.UTF_8);
+        body.subscribe(subscriber);
+        publisher.submit(List.of(ByteBuffer.wrap("Hello ".getBytes(StandardCharsets.UTF_8)), ByteBuffer.wrap("World!".getBytes(StandardCharsets.UTF_8))));
+        publisher.close();
+
+        assertThat(subscriber.getBody().toCompletableFuture().join(), equalTo("Hello World!"));
+        assertThat(metrics.getMeters("in-memory", "/export").getResponseBytes(), equalTo(12L));
+        assertThat(metrics.getMeters("in-memory", "/export").getInFlight(), is(0L));
+    }
+
+    private record PublishingHttpImplementation(Flow.Publisher<List<ByteBuffer>> publisher) implements HttpImplemention {
+        @Override
+        public HttpResponse execute(final HttpRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HttpResponse executeStreaming(final HttpRequest request) {
+            return HttpResponse.builder().statusCode(200).body(new StreamingResponseBody(publisher, -1)).build();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.RequestRejectedException;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class AdaptiveConcurrencyLimiterTest {
+    @Test
+    void givenTheLimitIsReached_whenAFurtherRequestIsMade_thenItIsRejectedImmediately() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> HttpResponse.builder().statusCode(200).build())
+                                                                    .latency(Duration.ofMillis(300))
+                                                                    .build();
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().initialLimit(2).build();
+        RestClient client = RestClient.builder().httpImplementation(http).concurrencyLimiter(limiter).build();
+
+        CompletableFuture<?> first = client.get("http://upstream/resource").executeAsync();
+        CompletableFuture<?> second = client.get("http://upstream/resource").executeAsync();
+        CompletionException rejectedEx = assertThrows("The request was not rejected", CompletionException.class,
+                () -> client.get("http://upstream/resource").executeAsync().join());
+
+        assertThat(rejectedEx.getCause(), instanceOf(RequestRejectedException.class));
+        assertThat(limiter.getInFlight("upstream"), equalTo(2));
+        CompletableFuture.allOf(first, second).join();
+        assertThat(limiter.getInFlight("upstream"), equalTo(0));
+    }
+
+    @Test
+    void givenFailingResponses_whenRecorded_thenTheLimitIsReducedMultiplicatively() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> HttpResponse.builder().statusCode(503).build())
+                                                                    .build();
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().initialLimit(20).backoffRatio(0.5).build();
+        RestClient client = RestClient.builder().httpImplementation(http).concurrencyLimiter(limiter).build();
+
+        client.get("http://upstream/resource").execute();
+        client.get("http://upstream/resource").execute();
+
+        assertThat(limiter.getLimit("upstream"), equalTo(5));
+    }
+}
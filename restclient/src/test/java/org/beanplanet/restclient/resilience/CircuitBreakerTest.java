@@ -0,0 +1,67 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.RequestRejectedException;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class CircuitBreakerTest {
+    @Test
+    void givenAHostFailingAboveTheThreshold_whenFurtherRequestsAreMade_thenTheyAreRejectedUntilTrialCallsSucceed() throws Exception {
+        final AtomicInteger status = new AtomicInteger(500);
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> HttpResponse.builder().statusCode(status.get()).build())
+                                                                    .build();
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                                                      .windowSize(10)
+                                                      .minimumCalls(4)
+                                                      .openDuration(Duration.ofMillis(100))
+                                                      .halfOpenCalls(2)
+                                                      .build();
+        RestClient client = RestClient.builder().httpImplementation(http).circuitBreaker(circuitBreaker).build();
+
+        for (int n = 0; n < 4; n++) {
+            client.get("http://degraded:8080/resource").execute();
+        }
+        assertThat(circuitBreaker.getState("degraded:8080"), equalTo(CircuitBreaker.State.OPEN));
+        RequestRejectedException rejectedEx = assertThrows("The request was not rejected", RequestRejectedException.class,
+                () -> client.get("http://degraded:8080/resource").execute());
+        assertThat(rejectedEx.getHost(), equalTo("degraded:8080"));
+        assertThat(http.getRequestCount(), equalTo(4L));
+        assertThat("Other hosts were affected", circuitBreaker.getState("healthy"), equalTo(CircuitBreaker.State.CLOSED));
+
+        Thread.sleep(150);
+        status.set(200);
+        client.get("http://degraded:8080/resource").execute();
+        assertThat(circuitBreaker.getState("degraded:8080"), equalTo(CircuitBreaker.State.HALF_OPEN));
+        client.get("http://degraded:8080/resource").execute();
+        assertThat(circuitBreaker.getState("degraded:8080"), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void givenSlowCallsAboveTheThreshold_whenRecorded_thenTheCircuitOpens() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> HttpResponse.builder().statusCode(200).build())
+                                                                    .latency(Duration.ofMillis(30))
+                                                                    .build();
+        CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                                                      .minimumCalls(2)
+                                                      .slowCallDuration(Duration.ofMillis(10))
+                                                      .slowCallRateThreshold(0.5)
+                                                      .build();
+        RestClient client = RestClient.builder().httpImplementation(http).circuitBreaker(circuitBreaker).build();
+
+        client.get("http://slow/resource").execute();
+        client.get("http://slow/resource").executeAsync().join();
+
+        assertThat(circuitBreaker.getState("slow"), equalTo(CircuitBreaker.State.OPEN));
+    }
+}
@@ -0,0 +1,104 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class HedgingInterceptorTest {
+    private static InMemoryHttpImplementation firstAttemptSlow() {
+        final AtomicInteger attempts = new AtomicInteger();
+        return InMemoryHttpImplementation.builder()
+                                         .route(request -> true, request -> {
+                                             if (attempts.incrementAndGet() == 1) {
+                                                 try {
+                                                     Thread.sleep(1000);
+                                                 } catch (InterruptedException interruptedEx) {
+                                                     Thread.currentThread().interrupt();
+                                                 }
+                                             }
+                                             return HttpResponse.builder().statusCode(200).build();
+                                         })
+                                         .build();
+    }
+
+    @Test
+    void givenASlowFirstAttempt_whenAHedgedRequestIsExecuted_thenTheHedgeResponseIsReturned() {
+        InMemoryHttpImplementation http = firstAttemptSlow();
+        HedgingPolicy policy = HedgingPolicy.builder().fixedDelay(Duration.ofMillis(50)).build();
+        RestClient client = RestClient.builder().httpImplementation(http).hedgingPolicy(policy).build();
+
+        long start = System.nanoTime();
+        assertThat(client.get("http://in-memory/replicated").hedged().execute().response().getStatusCode(), equalTo(200));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(500L));
+        assertThat(http.getRequestCount(), equalTo(2L));
+        assertThat(policy.getHedgeCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenAPrimaryCancelledByItsHedge_whenTheHedgeDelayIsNextCalculated_thenThePrimaryLatencyIsCounted() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> {
+                                                                        try {
+                                                                            Thread.sleep(attempts.incrementAndGet() == 1 ? 1000 : 100);
+                                                                        } catch (InterruptedException interruptedEx) {
+                                                                            Thread.currentThread().interrupt();
+                                                                        }
+                                                                        return HttpResponse.builder().statusCode(200).build();
+                                                                    })
+                                                                    .build();
+        HedgingPolicy policy = HedgingPolicy.builder().percentileDelay(0.95, Duration.ofMillis(10)).minimumSamples(1).build();
+        RestClient client = RestClient.builder().httpImplementation(http).hedgingPolicy(policy).build();
+
+        client.get("http://in-memory/replicated").hedged().execute();
+        Thread.sleep(100);
+
+        // The primary was cancelled when the hedge answered, over 100ms after it was sent
+        assertThat(policy.hedgeDelay(null), greaterThanOrEqualTo(Duration.ofMillis(100)));
+    }
+
+    @Test
+    void givenAFastResponse_whenAHedgedRequestIsExecutedAsynchronously_thenNoHedgeIsSent() throws Exception {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder()
+                                                                    .route(request -> true, request -> HttpResponse.builder().statusCode(200).build())
+                                                                    .build();
+        HedgingPolicy policy = HedgingPolicy.builder().fixedDelay(Duration.ofMillis(200)).build();
+        RestClient client = RestClient.builder().httpImplementation(http).hedgingPolicy(policy).build();
+
+        client.get("http://in-memory/replicated").hedged().executeAsync().join();
+        Thread.sleep(300);
+
+        assertThat(http.getRequestCount(), equalTo(1L));
+        assertThat(policy.getHedgeCount(), equalTo(0L));
+    }
+
+    @Test
+    void givenAnUnmarkedRequest_whenExecuted_thenItIsNotHedged() {
+        InMemoryHttpImplementation http = firstAttemptSlow();
+        RestClient client = RestClient.builder()
+                                      .httpImplementation(http)
+                                      .hedgingPolicy(HedgingPolicy.builder().fixedDelay(Duration.ofMillis(50)).build())
+                                      .build();
+
+        client.get("http://in-memory/replicated").execute();
+        assertThat(http.getRequestCount(), equalTo(1L));
+    }
+
+    @Test
+    void givenNoHedgingPolicy_whenARequestIsMarkedHedged_thenItIsRefused() {
+        RestClient client = RestClient.builder().httpImplementation(InMemoryHttpImplementation.builder().build()).build();
+
+        assertThrows("Hedging without a policy was accepted", IllegalStateException.class, () -> client.get("http://in-memory/replicated").hedged());
+    }
+}
@@ -0,0 +1,82 @@
+package org.beanplanet.restclient.resilience;
+
+import org.beanplanet.core.io.IoException;
+import org.beanplanet.core.net.http.HttpResponse;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.inmemory.InMemoryHttpImplementation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class RetryInterceptorTest {
+    private static RetryPolicy.RetryPolicyBuilder fastRetries() {
+        return RetryPolicy.builder().baseDelay(Duration.ofMillis(1)).maximumDelay(Duration.ofMillis(50));
+    }
+
+    private static InMemoryHttpImplementation failingTimes(final int failures, final String retryAfter) {
+        final AtomicInteger attempts = new AtomicInteger();
+        return InMemoryHttpImplementation.builder()
+                                         .route(request -> true, request -> attempts.incrementAndGet() <= failures
+                                                 ? HttpResponse.builder().statusCode(503).header("Retry-After", retryAfter).build()
+                                                 : HttpResponse.builder().statusCode(200).build())
+                                         .build();
+    }
+
+    @Test
+    void givenTransientFailures_whenAnIdempotentRequestIsExecuted_thenItIsRetriedUntilSuccessful() {
+        InMemoryHttpImplementation http = failingTimes(2, "0");
+        RestClient client = RestClient.builder().httpImplementation(http).retryPolicy(fastRetries().build()).build();
+
+        assertThat(client.get("http://in-memory/flaky").execute().response().getStatusCode(), equalTo(200));
+        assertThat(http.getRequestCount(), equalTo(3L));
+    }
+
+    @Test
+    void givenTransientFailures_whenANonIdempotentRequestIsExecuted_thenItIsRetriedOnlyIfMarkedRetryable() {
+        InMemoryHttpImplementation http = failingTimes(1, "0");
+        RestClient client = RestClient.builder().httpImplementation(http).retryPolicy(fastRetries().build()).build();
+
+        assertThat(client.post("http://in-memory/orders").execute().response().getStatusCode(), equalTo(503));
+        assertThat(client.post("http://in-memory/orders").retryable().execute().response().getStatusCode(), equalTo(200));
+        assertThat(http.getRequestCount(), equalTo(2L));
+    }
+
+    @Test
+    void givenPersistentIoFailures_whenARequestIsExecutedAsynchronously_thenTheLastFailureIsReportedAfterTheMaximumAttempts() {
+        InMemoryHttpImplementation http = InMemoryHttpImplementation.builder().failureRate(1).build();
+        RestClient client = RestClient.builder().httpImplementation(http).retryPolicy(fastRetries().maximumAttempts(3).build()).build();
+
+        CompletionException asyncEx = assertThrows("The failure was not reported", CompletionException.class,
+                () -> client.get("http://in-memory/down").executeAsync().join());
+        assertThat(asyncEx.getCause(), instanceOf(IoException.class));
+        assertThat(http.getRequestCount(), equalTo(3L));
+    }
+
+    @Test
+    void givenAnExhaustedRetryBudget_whenARequestFails_thenItIsNotRetried() {
+        InMemoryHttpImplementation http = failingTimes(Integer.MAX_VALUE, "0");
+        RetryBudget budget = new RetryBudget(3, 0.1);
+        RestClient client = RestClient.builder().httpImplementation(http).retryPolicy(fastRetries().maximumAttempts(5).budget(budget).build()).build();
+
+        client.get("http://in-memory/brownout").execute();
+        client.get("http://in-memory/brownout").execute();
+
+        assertThat(http.getRequestCount(), equalTo(3L));
+    }
+
+    @Test
+    void givenARetryAfterBeyondTheMaximumDelay_whenARequestFails_thenItIsNotRetried() {
+        InMemoryHttpImplementation http = failingTimes(1, "3600");
+        RestClient client = RestClient.builder().httpImplementation(http).retryPolicy(fastRetries().build()).build();
+
+        assertThat(client.get("http://in-memory/throttled").execute().response().getStatusCode(), equalTo(503));
+        assertThat(http.getRequestCount(), equalTo(1L));
+    }
+}
@@ -0,0 +1,53 @@
+package org.beanplanet.restclient.synchronous.request;
+
+import org.beanplanet.core.io.resource.ByteArrayResource;
+import org.beanplanet.core.io.resource.FileResource;
+import org.beanplanet.restclient.AbstractContainerisedTest;
+import org.beanplanet.restclient.HttpBinAnythingResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ContentLengthTest extends AbstractContainerisedTest {
+    @Test
+    void givenAStringBody_whenSent_thenTheRequestIsSizedAndNotChunked() {
+        HttpBinAnythingResponse res = clientBuilder.build()
+                                                   .post("http://localhost:" + httpbin.getFirstMappedPort() + "/anything")
+                                                   .body("Hello World!")
+                                                   .execute()
+                                                   .body(HttpBinAnythingResponse.class);
+        assertThat(res.getHttpHeaders().get("Content-Length").get(), equalTo("12"));
+        assertThat(res.getHttpHeaders().get("Transfer-Encoding").isPresent(), is(false));
+        assertThat(res.getData(), equalTo("Hello World!"));
+    }
+
+    @Test
+    void givenAByteArrayBody_andExplicitContentLength_whenSent_thenTheContentLengthIsHonoured() {
+        HttpBinAnythingResponse res = clientBuilder.build()
+                                                   .post("http://localhost:" + httpbin.getFirstMappedPort() + "/anything")
+                                                   .contentLength(12)
+                                                   .body(new ByteArrayResource("Hello World!".getBytes()))
+                                                   .execute()
+                                                   .body(HttpBinAnythingResponse.class);
+        assertThat(res.getHttpHeaders().get("Content-Length").get(), equalTo("12"));
+        assertThat(res.getData(), equalTo("Hello World!"));
+    }
+
+    @Test
+    void givenAFileBody_whenSent_thenTheRequestIsSizedFromTheFile(@TempDir final Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("upload.txt"), "Hello File!");
+        HttpBinAnythingResponse res = clientBuilder.build()
+                                                   .post("http://localhost:" + httpbin.getFirstMappedPort() + "/anything")
+                                                   .body(new FileResource(file.toFile()))
+                                                   .execute()
+                                                   .body(HttpBinAnythingResponse.class);
+        assertThat(res.getHttpHeaders().get("Content-Length").get(), equalTo("11"));
+        assertThat(res.getData(), equalTo("Hello File!"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.beanplanet.restclient.synchronous.request;
+
+import org.beanplanet.restclient.AbstractContainerisedTest;
+import org.beanplanet.restclient.HttpBinAnythingResponse;
+import org.beanplanet.restclient.RestClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class VirtualThreadsTest extends AbstractContainerisedTest {
+    @Test
+    void givenAClientOnVirtualThreads_whenABatchOfBlockingCallsIsInvoked_thenAllResultsAreReturnedInOrder() {
+        RestClient virtualThreadClient = RestClient.builder().virtualThreads().build();
+        List<Callable<HttpBinAnythingResponse>> calls = IntStream.range(0, 50)
+                .<Callable<HttpBinAnythingResponse>>mapToObj(n -> () -> virtualThreadClient.get("http://localhost:" + httpbin.getFirstMappedPort() + "/anything/" + n)
+                                                                                           .execute()
+                                                                                           .body(HttpBinAnythingResponse.class))
+                .collect(Collectors.toList());
+
+        List<HttpBinAnythingResponse> results = virtualThreadClient.invokeAllOnVirtualThreads(calls);
+
+        assertThat(results.size(), equalTo(50));
+        for (int n = 0; n < results.size(); n++) {
+            assertThat(results.get(n).getUrl(), endsWith("/anything/" + n));
+        }
+    }
+}
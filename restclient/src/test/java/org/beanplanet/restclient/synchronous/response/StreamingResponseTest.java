@@ -0,0 +1,42 @@
+package org.beanplanet.restclient.synchronous.response;
+
+import org.beanplanet.restclient.AbstractRestClientTest;
+import org.beanplanet.restclient.HttpBinAnythingResponse;
+import org.beanplanet.restclient.RestClient;
+import org.beanplanet.restclient.StreamingResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StreamingResponseTest extends AbstractRestClientTest {
+    @Test
+    void givenALargeResponse_whenExecutedStreaming_thenTheBodyIsReadFromTheLiveStream() throws IOException {
+        try (RestClient.RequestBuilder.ExecutedRequest executed = client.get("http://localhost:" + httpbin.getFirstMappedPort() + "/stream-bytes/65536?chunk_size=1024")
+                                                                        .executeStreaming()) {
+            assertThat(executed.response().getBody(), instanceOf(StreamingResponseBody.class));
+
+            long total = 0;
+            try (InputStream is = executed.response().getBody().getInputStream()) {
+                byte[] buf = new byte[4096];
+                for (int read; (read = is.read(buf)) != -1; ) {
+                    total += read;
+                }
+            }
+            assertThat(total, equalTo(65536L));
+        }
+    }
+
+    @Test
+    void givenAStreamingRequest_whenTheBodyIsConverted_thenTheResponseIsReceivedSuccessfully() {
+        try (RestClient.RequestBuilder.ExecutedRequest executed = client.get("http://localhost:" + httpbin.getFirstMappedPort() + "/anything")
+                                                                        .executeStreaming()) {
+            HttpBinAnythingResponse res = executed.body(HttpBinAnythingResponse.class);
+            assertThat(res.getMethod(), equalTo("GET"));
+            assertThat(res.getUrl(), endsWith("/anything"));
+        }
+    }
+}